@@ -8,7 +8,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 import java.util.List;
 
-@FeignClient(name = "electricalProvider", url = "${apigateway.url}")
+@FeignClient(name = "electricalProvider", url = "${apigateway.url}", qualifiers = "electricalProviderFeignClient", primary = false)
 public interface ElectricalProviderClient {
     @GetMapping("/api/electricalProvider/{providerId}/smartMeter/details")
     ElectricalProviderConsumptionSummary getSummaryElectricalProviderSmartMeterData(@PathVariable("providerId") String providerId);
@@ -0,0 +1,163 @@
+package com.example.SmartCity.client;
+
+import com.example.SmartCity.dto.ElectricalProviderModel;
+import com.example.SmartCity.model.ElectricalProviderConsumptionSummary;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Resilient {@link ElectricalProviderClient} used by the rest of the application instead of the raw Feign client.
+ * <p>
+ * Every call runs on the "electricalProvider" thread-pool bulkhead, is bounded by its time limiter and
+ * passes through its circuit breaker, in that order from the inside out. Calls are not retried here: they go
+ * through the API gateway, whose electrical provider route already retries failed GETs.
+ * The last successful response per call is cached and served as the fallback,
+ * so a slow or failing electrical provider cannot hold SmartCity request threads.
+ * </p>
+ */
+@Primary
+@Component
+public class ResilientElectricalProviderClient implements ElectricalProviderClient, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientElectricalProviderClient.class);
+
+    private static final String INSTANCE = "electricalProvider";
+
+    private static final int MAX_CACHED_RESPONSES = 1000;
+
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOT_FACTORY = ContextSnapshotFactory.builder().build();
+
+    private final ElectricalProviderClient delegate;
+    private final ThreadPoolBulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "electrical-provider-client-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Object> responseCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                    return size() > MAX_CACHED_RESPONSES;
+                }
+            });
+
+    /**
+     * Constructor for ResilientElectricalProviderClient.
+     *
+     * @param delegate the Feign client performing the actual calls
+     * @param bulkheadRegistry the registry providing the thread-pool bulkhead
+     * @param timeLimiterRegistry the registry providing the time limiter
+     * @param circuitBreakerRegistry the registry providing the circuit breaker
+     */
+    public ResilientElectricalProviderClient(@Qualifier("electricalProviderFeignClient") ElectricalProviderClient delegate,
+                                             ThreadPoolBulkheadRegistry bulkheadRegistry,
+                                             TimeLimiterRegistry timeLimiterRegistry,
+                                             CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.delegate = delegate;
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        this.timeLimiter = timeLimiterRegistry.timeLimiter(INSTANCE);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+    }
+
+    @Override
+    public ElectricalProviderConsumptionSummary getSummaryElectricalProviderSmartMeterData(String providerId) {
+        return execute("details:" + providerId,
+                () -> delegate.getSummaryElectricalProviderSmartMeterData(providerId));
+    }
+
+    @Override
+    public List<ElectricalProviderConsumptionSummary> getAllSummaryElectricalProviderSmartMeterData(String providerId) {
+        return execute("allDetails:" + providerId,
+                () -> delegate.getAllSummaryElectricalProviderSmartMeterData(providerId));
+    }
+
+    @Override
+    public List<ElectricalProviderModel> getAllElectricalProviderInfo() {
+        return execute("providerInfo", delegate::getAllElectricalProviderInfo);
+    }
+
+    /**
+     * Runs the call through the decorators and falls back to the cached response on failure.
+     *
+     * @param cacheKey the key under which the successful response is cached
+     * @param call the call to the electrical provider service
+     * @return the fresh response, or the cached one if the call failed
+     * @throws RuntimeException the original failure if nothing is cached for the key
+     */
+    private <T> T execute(String cacheKey, Supplier<T> call) {
+        Supplier<CompletionStage<T>> decorated = CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                TimeLimiter.decorateCompletionStage(timeLimiter, scheduler,
+                        ThreadPoolBulkhead.decorateSupplier(bulkhead, withContext(call))));
+        try {
+            T response = decorated.get().toCompletableFuture().get();
+            if (response != null) {
+                responseCache.put(cacheKey, response);
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback(cacheKey, e);
+        } catch (ExecutionException | CompletionException e) {
+            return fallback(cacheKey, e.getCause() != null ? e.getCause() : e);
+        } catch (RuntimeException e) {
+            return fallback(cacheKey, e);
+        }
+    }
+
+    /**
+     * Carries the caller's thread-local context, including the current trace, over to the bulkhead thread.
+     */
+    private static <T> Supplier<T> withContext(Supplier<T> call) {
+        ContextSnapshot snapshot = CONTEXT_SNAPSHOT_FACTORY.captureAll();
+        return () -> {
+            try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                return call.get();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T fallback(String cacheKey, Throwable failure) {
+        Object cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            logger.warn("Electrical provider call failed, serving cached response for {}: {}", cacheKey, failure.toString());
+            return (T) cached;
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new IllegalStateException("Electrical provider service unavailable: " + failure.getMessage(), failure);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -5,6 +5,8 @@ import com.example.SmartCity.dto.*;
 import com.example.SmartCity.model.ElectricalProviderConsumptionSummary;
 import com.example.SmartCity.repository.SmartCityRepository;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +22,8 @@ import java.util.Map;
 @Service
 public class SmartCityService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SmartCityService.class);
+
     private final SmartCityRepository smartCityRepository;
 
 
@@ -60,7 +64,7 @@ public class SmartCityService {
 
         // Check if the summary is null and throw an error if no data is found
         Date summaryDate = summary.getDate();
-        System.out.println("summaryDate: "+summaryDate);
+        logger.debug("Summary date for provider {}: {}", providerId, summaryDate);
         if (summaryDate == null) {
             throw new IllegalArgumentException("Summary date is null for provider ID: " + providerId);
         }
@@ -106,7 +110,7 @@ public class SmartCityService {
         for (ElectricalProviderConsumptionSummary summary : summaries) {
             // Check if the summary is null and throw an error if no data is found
             Date summaryDate = summary.getDate();
-            System.out.println("summaryDate: " + summaryDate);
+            logger.debug("Summary date for provider {}: {}", providerId, summaryDate);
             if (summaryDate == null) {
                 throw new IllegalArgumentException("Summary date is null for provider ID: " + summary.getProviderId());
             }
@@ -0,0 +1,150 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gateway filter shedding load once too many requests are in flight on a route.
+ * <p>
+ * Each route admits up to its maximum number of concurrent requests. The limit shrinks in proportion
+ * when the smoothed upstream latency rises above the route's latency target, so a slowing service is
+ * sent less work instead of a growing queue. Requests over the limit are rejected with 503 immediately.
+ * </p>
+ */
+@Component
+public class LoadSheddingGatewayFilterFactory extends AbstractGatewayFilterFactory<LoadSheddingGatewayFilterFactory.Config> {
+
+    /**
+     * Weight of the latest request in the smoothed latency.
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for LoadSheddingGatewayFilterFactory.
+     *
+     * @param meterRegistry the registry the admission counters and gauges are published to
+     */
+    public LoadSheddingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getMaxConcurrentRequests() < 1) {
+            throw new IllegalArgumentException("Maximum concurrent requests must be at least 1");
+        }
+        RouteLimit limit = new RouteLimit(config);
+        return (exchange, chain) -> filter(exchange, chain, limit);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, RouteLimit limit) {
+        String routeId = routeId(exchange);
+        limit.registerGauges(routeId);
+        if (limit.inFlight.incrementAndGet() > limit.currentLimit()) {
+            limit.inFlight.decrementAndGet();
+            record(routeId, "rejected");
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set("Retry-After", "1");
+            return response.setComplete();
+        }
+        record(routeId, "allowed");
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    limit.inFlight.decrementAndGet();
+                    limit.recordLatency(System.nanoTime() - start);
+                });
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter("gateway.admission", "route", routeId, "filter", "load-shedding", "result", result).increment();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    /**
+     * Admission state of a single route.
+     */
+    private final class RouteLimit {
+
+        private final int maxConcurrentRequests;
+        private final long latencyTargetNanos;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean gaugesRegistered = new AtomicBoolean();
+        private volatile double smoothedLatencyNanos;
+
+        RouteLimit(Config config) {
+            this.maxConcurrentRequests = config.getMaxConcurrentRequests();
+            this.latencyTargetNanos = config.getLatencyTarget().toNanos();
+        }
+
+        int currentLimit() {
+            double latency = smoothedLatencyNanos;
+            if (latency <= latencyTargetNanos) {
+                return maxConcurrentRequests;
+            }
+            return Math.max(1, (int) (maxConcurrentRequests * latencyTargetNanos / latency));
+        }
+
+        synchronized void recordLatency(long latencyNanos) {
+            smoothedLatencyNanos = smoothedLatencyNanos == 0
+                    ? latencyNanos
+                    : LATENCY_SMOOTHING * latencyNanos + (1 - LATENCY_SMOOTHING) * smoothedLatencyNanos;
+        }
+
+        void registerGauges(String routeId) {
+            if (gaugesRegistered.compareAndSet(false, true)) {
+                Tags tags = Tags.of("route", routeId);
+                meterRegistry.gauge("gateway.admission.in.flight", tags, inFlight);
+                meterRegistry.gauge("gateway.admission.concurrency.limit", tags, this, RouteLimit::currentLimit);
+            }
+        }
+    }
+
+    /**
+     * Per-route configuration of the load shedder.
+     */
+    public static class Config {
+
+        private int maxConcurrentRequests = 100;
+
+        private Duration latencyTarget = Duration.ofMillis(500);
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public Duration getLatencyTarget() {
+            return latencyTarget;
+        }
+
+        public void setLatencyTarget(Duration latencyTarget) {
+            this.latencyTarget = latencyTarget;
+        }
+    }
+}
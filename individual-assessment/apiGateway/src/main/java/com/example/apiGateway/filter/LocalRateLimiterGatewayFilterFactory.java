@@ -0,0 +1,168 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gateway filter limiting the request rate of each client on a route with an in-memory token bucket.
+ * <p>
+ * Clients are identified by their remote address, or by the client ID an authentication filter ahead of
+ * this one stored in the {@link #CLIENT_ID_ATTRIBUTE} exchange attribute. Nothing the client sends is taken
+ * as its identity: with a header a caller could escape its limit, and evict the buckets of others, by sending
+ * a new value with every request. Behind a proxy the remote address is the proxy's unless
+ * {@code server.forward-headers-strategy} is set for a trusted one. Each route and client pair gets its own
+ * bucket which refills at the route's replenish rate up to its burst capacity. Requests finding the bucket
+ * empty are rejected with 429 before reaching the upstream service. Buckets live in a size-bounded LRU map so unknown clients cannot grow it without limit.
+ * </p>
+ */
+@Component
+public class LocalRateLimiterGatewayFilterFactory extends AbstractGatewayFilterFactory<LocalRateLimiterGatewayFilterFactory.Config> {
+
+    /**
+     * Exchange attribute holding the authenticated client ID, set by an authentication filter.
+     */
+    public static final String CLIENT_ID_ATTRIBUTE = LocalRateLimiterGatewayFilterFactory.class.getName() + ".clientId";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final Map<String, TokenBucket> buckets;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for LocalRateLimiterGatewayFilterFactory.
+     *
+     * @param maxClients the maximum number of route and client buckets kept in memory
+     * @param meterRegistry the registry the admission counters are published to
+     */
+    public LocalRateLimiterGatewayFilterFactory(@Value("${gateway.rate-limit.max-clients}") int maxClients,
+                                                MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxClients;
+            }
+        });
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() < 1) {
+            throw new IllegalArgumentException("Replenish rate must be positive and burst capacity at least 1");
+        }
+        return (exchange, chain) -> filter(exchange, chain, config);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        String routeId = routeId(exchange);
+        TokenBucket bucket = buckets.computeIfAbsent(routeId + ":" + clientKey(exchange),
+                key -> new TokenBucket(config.getBurstCapacity()));
+        long remaining = bucket.tryConsume(config.getReplenishRate(), config.getBurstCapacity());
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(REMAINING_HEADER, String.valueOf(Math.max(remaining, 0)));
+        if (remaining < 0) {
+            record(routeId, "rejected");
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set("Retry-After", String.valueOf((long) Math.ceil(1 / config.getReplenishRate())));
+            return response.setComplete();
+        }
+        record(routeId, "allowed");
+        return chain.filter(exchange);
+    }
+
+    private static String clientKey(ServerWebExchange exchange) {
+        String clientId = exchange.getAttribute(CLIENT_ID_ATTRIBUTE);
+        if (StringUtils.hasText(clientId)) {
+            return "client:" + clientId;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null) {
+            return "anonymous";
+        }
+        return "address:" + (remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString());
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter("gateway.admission", "route", routeId, "filter", "rate-limit", "result", result).increment();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    /**
+     * Token bucket refilled lazily from the elapsed time whenever a token is requested.
+     */
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        TokenBucket(int burstCapacity) {
+            this.tokens = burstCapacity;
+        }
+
+        /**
+         * Takes one token from the bucket.
+         *
+         * @return the number of tokens left, or -1 if the bucket was empty
+         */
+        synchronized long tryConsume(double replenishRate, int burstCapacity) {
+            long now = System.nanoTime();
+            tokens = Math.min(burstCapacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * replenishRate);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return -1;
+            }
+            tokens -= 1;
+            return (long) tokens;
+        }
+    }
+
+    /**
+     * Per-route configuration of the rate limiter.
+     */
+    public static class Config {
+
+        private double replenishRate = 10;
+
+        private int burstCapacity = 20;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
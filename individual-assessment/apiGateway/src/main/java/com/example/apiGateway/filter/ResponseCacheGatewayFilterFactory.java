@@ -0,0 +1,251 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway filter caching successful GET responses in memory.
+ * <p>
+ * Entries live for the time-to-live configured on the route and are kept in a size-bounded LRU map
+ * shared by all routes. They are keyed on the route, path, query and {@code Accept} header, so each
+ * representation the upstream negotiates is cached on its own; other request headers must not change
+ * the response of a cached route. Responses carry an ETag so clients can revalidate with {@code If-None-Match}
+ * and get a 304 without a body. Concurrent identical requests on a cache miss are coalesced: only the
+ * first one goes upstream and the others are answered from its response. Any successful non-GET request
+ * on a route clears that route's entries so writes are visible on the next read.
+ * </p>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    /**
+     * Runs before {@link NettyWriteResponseFilter} so the decorated response is the one the body is written to.
+     */
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE,
+            HttpHeaders.ETAG, CACHE_STATUS_HEADER);
+
+    private final Map<String, CachedResponse> cache;
+
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final long maxBodyBytes;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for ResponseCacheGatewayFilterFactory.
+     *
+     * @param maxEntries the maximum number of responses kept across all routes
+     * @param maxBodySize the largest response body that will be cached
+     * @param meterRegistry the registry the cache hit and miss counters are published to
+     */
+    public ResponseCacheGatewayFilterFactory(@Value("${gateway.response-cache.max-entries}") int maxEntries,
+                                             @Value("${gateway.response-cache.max-body-size}") DataSize maxBodySize,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.meterRegistry = meterRegistry;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config), ORDER);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        String routeId = routeId(exchange);
+        ServerHttpRequest request = exchange.getRequest();
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return chain.filter(exchange).then(Mono.fromRunnable(() -> invalidateOnSuccess(exchange, routeId)));
+        }
+
+        String key = routeId + ":" + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                + "#" + String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT));
+        CachedResponse cached = cache.get(key);
+        if (cached != null && !cached.isExpired()) {
+            record(routeId, "hit");
+            return writeCached(exchange, cached, "HIT");
+        }
+
+        Sinks.One<CachedResponse> sink = Sinks.one();
+        Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            record(routeId, "coalesced");
+            // The leader emits nothing when its response was not cacheable; go upstream ourselves then
+            return leader.asMono()
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(response -> response
+                            .map(shared -> writeCached(exchange, shared, "COALESCED"))
+                            .orElseGet(() -> chain.filter(exchange)));
+        }
+
+        record(routeId, "miss");
+        ServerHttpResponse decorated = new CachingResponseDecorator(exchange.getResponse(), key, config.getTimeToLive(), sink);
+        return chain.filter(exchange.mutate().response(decorated).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    sink.tryEmitEmpty();
+                });
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().contains(cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void invalidateOnSuccess(ServerWebExchange exchange, String routeId) {
+        if (exchange.getResponse().getStatusCode() != null && exchange.getResponse().getStatusCode().is2xxSuccessful()) {
+            String prefix = routeId + ":";
+            synchronized (cache) {
+                cache.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+        }
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter("gateway.response.cache", "route", routeId, "result", result).increment();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    /**
+     * Captures the upstream body of a 200 response, stores it in the cache and hands it to coalesced requests.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Duration timeToLive;
+        private final Sinks.One<CachedResponse> sink;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, String key, Duration timeToLive, Sinks.One<CachedResponse> sink) {
+            super(delegate);
+            this.key = key;
+            this.timeToLive = timeToLive;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        CachedResponse response = store(bytes);
+                        getHeaders().setETag(response.etag());
+                        getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        private CachedResponse store(byte[] bytes) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.put(name, values);
+                }
+            });
+            String etag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            CachedResponse response = new CachedResponse(bytes, headers, etag, System.nanoTime() + timeToLive.toNanos());
+            if (bytes.length <= maxBodyBytes) {
+                cache.put(key, response);
+            }
+            sink.tryEmitValue(response);
+            return response;
+        }
+    }
+
+    /**
+     * A cached upstream response.
+     *
+     * @param body the response body
+     * @param headers the upstream headers worth replaying
+     * @param etag the strong ETag derived from the body
+     * @param expiresAtNanos the {@link System#nanoTime()} after which the entry is stale
+     */
+    private record CachedResponse(byte[] body, HttpHeaders headers, String etag, long expiresAtNanos) {
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
+    /**
+     * Per-route configuration of the response cache.
+     */
+    public static class Config {
+
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+}
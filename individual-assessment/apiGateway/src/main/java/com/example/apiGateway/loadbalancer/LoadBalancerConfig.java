@@ -0,0 +1,58 @@
+package com.example.apiGateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration class applying the power-of-two-choices balancer to every {@code lb://} route.
+ * <p>
+ * Service instances come from the static list under {@code spring.cloud.discovery.client.simple.instances},
+ * which can be extended from the optional {@code gateway-instances.properties} file next to the jar.
+ * Instances failing their health check are dropped from the list until they recover.
+ * </p>
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.PowerOfTwoChoicesConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Per-service load balancer configuration, created in each service's own load balancer context.
+     * Deliberately not annotated with {@code @Configuration} so it is not picked up by component scanning.
+     */
+    static class PowerOfTwoChoicesConfiguration {
+
+        /**
+         * Defines the instance list supplier, filtering the static instances by their health check.
+         *
+         * @param context the load balancer context of the service
+         * @return the health-checked ServiceInstanceListSupplier
+         */
+        @Bean
+        public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context) {
+            return ServiceInstanceListSupplier.builder()
+                    .withDiscoveryClient()
+                    .withHealthChecks()
+                    .build(context);
+        }
+
+        /**
+         * Defines the load balancer for the service.
+         *
+         * @param environment the environment holding the name of the service
+         * @param clientFactory the factory providing the service's instance list supplier
+         * @return the PowerOfTwoChoicesLoadBalancer
+         */
+        @Bean
+        public PowerOfTwoChoicesLoadBalancer reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                LoadBalancerClientFactory clientFactory) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new PowerOfTwoChoicesLoadBalancer(
+                    clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class));
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.apiGateway.routes;
 
+import com.example.apiGateway.filter.LoadSheddingGatewayFilterFactory;
+import com.example.apiGateway.filter.LocalRateLimiterGatewayFilterFactory;
+import com.example.apiGateway.filter.ResponseCacheGatewayFilterFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.RequestPredicates;
@@ -11,46 +18,167 @@ import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import java.time.Duration;
+
 /**
  * Configuration class for defining routes and fallback route for the API Gateway.
  */
 @Configuration
 public class Routes {
 
+    @Value("${gateway.response-cache.routes.smartCity.ttl}")
+    private Duration smartCityCacheTtl;
+
+    @Value("${gateway.rate-limit.routes.citizenService.replenish-rate}")
+    private double citizenReplenishRate;
+
+    @Value("${gateway.rate-limit.routes.citizenService.burst-capacity}")
+    private int citizenBurstCapacity;
+
+    @Value("${gateway.rate-limit.routes.electricalProviderService.replenish-rate}")
+    private double providerReplenishRate;
+
+    @Value("${gateway.rate-limit.routes.electricalProviderService.burst-capacity}")
+    private int providerBurstCapacity;
+
+    @Value("${gateway.load-shedding.routes.citizenService.max-concurrent-requests}")
+    private int citizenMaxConcurrentRequests;
+
+    @Value("${gateway.load-shedding.routes.electricalProviderService.max-concurrent-requests}")
+    private int providerMaxConcurrentRequests;
+
+    @Value("${gateway.load-shedding.routes.smartCity.max-concurrent-requests}")
+    private int smartCityMaxConcurrentRequests;
+
+    @Value("${gateway.load-shedding.latency-target}")
+    private Duration latencyTarget;
+
+    @Value("${gateway.timeout.routes.citizenService.response-timeout}")
+    private Duration citizenResponseTimeout;
+
+    @Value("${gateway.timeout.routes.electricalProviderService.response-timeout}")
+    private Duration providerResponseTimeout;
+
+    @Value("${gateway.timeout.routes.smartCity.response-timeout}")
+    private Duration smartCityResponseTimeout;
+
+    @Value("${gateway.retry.routes.citizenService.get-retries}")
+    private int citizenGetRetries;
+
+    @Value("${gateway.retry.routes.electricalProviderService.get-retries}")
+    private int providerGetRetries;
+
+    @Value("${gateway.retry.routes.smartCity.get-retries}")
+    private int smartCityGetRetries;
+
+    @Value("${gateway.retry.first-backoff}")
+    private Duration firstBackoff;
+
+    @Value("${gateway.retry.max-backoff}")
+    private Duration maxBackoff;
+
     /**
      * Defines the route locator bean which sets up the routes for the API Gateway.
+     * Every service route is wrapped in a circuit breaker named after the route and falls back to
+     * {@code /fallbackRoute}; idempotent GET requests are retried with backoff inside the breaker on the routes
+     * whose upstream does not retry itself.
      *
      * @param builder the RouteLocatorBuilder used to build the routes
+     * @param responseCache the factory for the in-memory GET response cache
+     * @param rateLimiter the factory for the per-client token bucket rate limiter
+     * @param loadShedding the factory for the concurrency-based load shedder
      * @return the configured RouteLocator
      */
     @Bean
-    public RouteLocator routeLocator(RouteLocatorBuilder builder) {
+    public RouteLocator routeLocator(RouteLocatorBuilder builder, ResponseCacheGatewayFilterFactory responseCache,
+                                     LocalRateLimiterGatewayFilterFactory rateLimiter,
+                                     LoadSheddingGatewayFilterFactory loadShedding) {
         return builder.routes()
                 .route("citizenService", r -> r
                         .path("/api/citizen/**")
-                        .uri("http://citizen:9089"))
+                        .filters(f -> withCircuitBreaker(f
+                                .filter(rateLimiter.apply(c -> {
+                                    c.setReplenishRate(citizenReplenishRate);
+                                    c.setBurstCapacity(citizenBurstCapacity);
+                                }))
+                                .filter(loadShedding.apply(c -> {
+                                    c.setMaxConcurrentRequests(citizenMaxConcurrentRequests);
+                                    c.setLatencyTarget(latencyTarget);
+                                })), "citizenService", citizenGetRetries))
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, citizenResponseTimeout.toMillis())
+                        .uri("lb://citizen"))
                 .route("electricalProviderService", r -> r
                         .path("/api/electricalProvider/**")
-                        .uri("http://provider:9087"))
+                        .filters(f -> withCircuitBreaker(f
+                                .filter(rateLimiter.apply(c -> {
+                                    c.setReplenishRate(providerReplenishRate);
+                                    c.setBurstCapacity(providerBurstCapacity);
+                                }))
+                                .filter(loadShedding.apply(c -> {
+                                    c.setMaxConcurrentRequests(providerMaxConcurrentRequests);
+                                    c.setLatencyTarget(latencyTarget);
+                                })), "electricalProviderService", providerGetRetries))
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, providerResponseTimeout.toMillis())
+                        .uri("lb://electrical-provider"))
                 .route("smartCity", r -> r
                         .path("/api/smartCity/**")
-                        .uri("http://city:9088"))
+                        .filters(f -> withCircuitBreaker(f
+                                .filter(responseCache.apply(c -> c.setTimeToLive(smartCityCacheTtl)))
+                                .filter(loadShedding.apply(c -> {
+                                    c.setMaxConcurrentRequests(smartCityMaxConcurrentRequests);
+                                    c.setLatencyTarget(latencyTarget);
+                                })), "smartCity", smartCityGetRetries))
+                        .metadata(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR, smartCityResponseTimeout.toMillis())
+                        .uri("lb://smart-city"))
                 .route("fallbackRoute", r -> r
-                        .path("/fallba ckRoute")
+                        .path("/fallbackRoute")
                         .filters(f -> f.setPath("/fallbackRoute"))
                         .uri("forward:/fallbackRoute"))
                 .build();
     }
 
+    /**
+     * Adds the circuit breaker and the GET retry to a route's filters.
+     * The breaker's time limiter is configured per route under {@code resilience4j.timelimiter.instances}; as the
+     * retry runs inside the breaker, it must allow for all attempts of a GET and the backoffs between them.
+     * Routes whose upstream already retries its own calls get no retries here, as each gateway attempt
+     * would repeat the upstream's whole retry sequence.
+     *
+     * @param filters the route's filters so far
+     * @param circuitBreakerName the name of the route's circuit breaker
+     * @param getRetries the number of times a failed GET is retried, 0 for none
+     * @return the filters with the circuit breaker and retry appended
+     */
+    private GatewayFilterSpec withCircuitBreaker(GatewayFilterSpec filters, String circuitBreakerName, int getRetries) {
+        GatewayFilterSpec withBreaker = filters
+                .circuitBreaker(c -> c
+                        .setName(circuitBreakerName)
+                        .setFallbackUri("forward:/fallbackRoute")
+                        .addStatusCode(HttpStatus.BAD_GATEWAY.name())
+                        .addStatusCode(HttpStatus.SERVICE_UNAVAILABLE.name())
+                        .addStatusCode(HttpStatus.GATEWAY_TIMEOUT.name()));
+        if (getRetries == 0) {
+            return withBreaker;
+        }
+        return withBreaker
+                .retry(c -> c
+                        .setRetries(getRetries)
+                        .setMethods(HttpMethod.GET)
+                        .setSeries()
+                        .setStatuses(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT)
+                        .setBackoff(firstBackoff, maxBackoff, 2, true));
+    }
+
     /**
      * Defines the fallback route function which returns a service unavailable response.
+     * It accepts any method since requests of every method are forwarded here by the circuit breakers.
      *
      * @return the RouterFunction for the fallback route
      */
     @Bean
     public RouterFunction<ServerResponse> fallbackRoute() {
-        return RouterFunctions.route(RequestPredicates.GET("/fallbackRoute"),
+        return RouterFunctions.route(RequestPredicates.path("/fallbackRoute"),
                 request -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
                         .body(BodyInserters.fromValue("Service is down. Please try again later.")));
     }
-}
\ No newline at end of file
+}
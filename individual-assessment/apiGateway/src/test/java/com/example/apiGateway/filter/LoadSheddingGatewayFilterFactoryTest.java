@@ -0,0 +1,84 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadSheddingGatewayFilterFactoryTest {
+
+    private final Sinks.Empty<Void> upstreamDone = Sinks.empty();
+
+    private final GatewayFilterChain slowUpstream = exchange -> upstreamDone.asMono();
+
+    @Test
+    void testFilter_RejectsOverTheConcurrencyLimit() {
+        GatewayFilter filter = filter(2, Duration.ofSeconds(10));
+        Disposable first = filter.filter(exchange(), slowUpstream).subscribe();
+        Disposable second = filter.filter(exchange(), slowUpstream).subscribe();
+
+        MockServerWebExchange rejected = exchange();
+        filter.filter(rejected, slowUpstream).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst("Retry-After"));
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    void testFilter_AdmitsAgainOnceRequestsComplete() {
+        GatewayFilter filter = filter(1, Duration.ofSeconds(10));
+        Mono<Void> first = filter.filter(exchange(), slowUpstream).cache();
+        first.subscribe();
+        upstreamDone.tryEmitEmpty();
+        first.block(Duration.ofSeconds(5));
+
+        MockServerWebExchange next = exchange();
+        filter.filter(next, exchange -> Mono.empty()).block();
+
+        assertNull(next.getResponse().getStatusCode());
+    }
+
+    @Test
+    void testFilter_LimitShrinksWhenLatencyExceedsTheTarget() {
+        GatewayFilter filter = filter(4, Duration.ofMillis(1));
+        // Takes far longer than the target, which cuts the limit to 1
+        filter.filter(exchange(), exchange -> Mono.delay(Duration.ofMillis(50)).then()).block();
+        Disposable inFlight = filter.filter(exchange(), slowUpstream).subscribe();
+
+        MockServerWebExchange rejected = exchange();
+        filter.filter(rejected, slowUpstream).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        inFlight.dispose();
+    }
+
+    @Test
+    void testApply_InvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> filter(0, Duration.ofSeconds(1)));
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/citizen"));
+    }
+
+    private static GatewayFilter filter(int maxConcurrentRequests, Duration latencyTarget) {
+        LoadSheddingGatewayFilterFactory.Config config = new LoadSheddingGatewayFilterFactory.Config();
+        config.setMaxConcurrentRequests(maxConcurrentRequests);
+        config.setLatencyTarget(latencyTarget);
+        return new LoadSheddingGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalRateLimiterGatewayFilterFactoryTest {
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    private final GatewayFilter filter = filter(0.001, 3);
+
+    @Test
+    void testFilter_RejectsOnceTheBurstIsUsedUp() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(status(request("10.0.0.1", null)));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, status(request("10.0.0.1", null)));
+        // Other addresses have their own bucket
+        assertNull(status(request("10.0.0.2", null)));
+    }
+
+    @Test
+    void testFilter_RotatingClientIdHeaderDoesNotResetTheBucket() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(status(request("10.0.0.1", "client-" + i)));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, status(request("10.0.0.1", "client-3")));
+    }
+
+    @Test
+    void testFilter_AuthenticatedClientIdKeysTheBucket() {
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = request("10.0.0." + i, null);
+            exchange.getAttributes().put(LocalRateLimiterGatewayFilterFactory.CLIENT_ID_ATTRIBUTE, "client-7");
+            assertNull(status(exchange));
+        }
+
+        MockServerWebExchange exchange = request("10.0.0.9", null);
+        exchange.getAttributes().put(LocalRateLimiterGatewayFilterFactory.CLIENT_ID_ATTRIBUTE, "client-7");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, status(exchange));
+    }
+
+    private HttpStatus status(MockServerWebExchange exchange) {
+        filter.filter(exchange, CHAIN).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    private static MockServerWebExchange request(String address, String clientIdHeader) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/citizen")
+                .remoteAddress(new InetSocketAddress(address, 40000));
+        if (clientIdHeader != null) {
+            request.header("X-Client-Id", clientIdHeader);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static GatewayFilter filter(double replenishRate, int burstCapacity) {
+        LocalRateLimiterGatewayFilterFactory.Config config = new LocalRateLimiterGatewayFilterFactory.Config();
+        config.setReplenishRate(replenishRate);
+        config.setBurstCapacity(burstCapacity);
+        return new LocalRateLimiterGatewayFilterFactory(100, new SimpleMeterRegistry()).apply(config);
+    }
+}
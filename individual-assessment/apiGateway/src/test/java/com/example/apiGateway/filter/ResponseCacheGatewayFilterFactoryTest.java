@@ -0,0 +1,202 @@
+package com.example.apiGateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final GatewayFilterChain upstream = exchange -> {
+        int call = upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    };
+
+    @Test
+    void testFilter_SecondGetIsServedFromTheCache() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(first, upstream).block();
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(second, upstream).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("{\"call\":1}", second.getResponse().getBodyAsString().block());
+        assertEquals("application/json", second.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    void testFilter_MatchingIfNoneMatchGets304WithoutBody() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(first, upstream).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        assertNotNull(etag);
+
+        MockServerWebExchange revalidated = exchange(MockServerHttpRequest.get("/api/smartCity/providers")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+        filter.filter(revalidated, upstream).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals(etag, revalidated.getResponse().getHeaders().getETag());
+        assertEquals("", revalidated.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testFilter_StaleIfNoneMatchGetsTheBody() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/smartCity/providers")), upstream).block();
+
+        MockServerWebExchange revalidated = exchange(MockServerHttpRequest.get("/api/smartCity/providers")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""));
+        filter.filter(revalidated, upstream).block();
+
+        assertEquals(HttpStatus.OK, revalidated.getResponse().getStatusCode());
+        assertEquals("{\"call\":1}", revalidated.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testFilter_ExpiredEntryGoesUpstream() throws InterruptedException {
+        GatewayFilter filter = filter(Duration.ofMillis(1));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/smartCity/providers")), upstream).block();
+        Thread.sleep(5);
+
+        MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(second, upstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("MISS", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("{\"call\":2}", second.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testFilter_SuccessfulNonGetInvalidatesTheRoute() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/smartCity/providers")), upstream).block();
+
+        filter.filter(exchange(MockServerHttpRequest.post("/api/smartCity/providers")), exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+            return Mono.empty();
+        }).block();
+        MockServerWebExchange afterWrite = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(afterWrite, upstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("{\"call\":2}", afterWrite.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testFilter_FailedNonGetKeepsTheCache() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/smartCity/providers")), upstream).block();
+
+        filter.filter(exchange(MockServerHttpRequest.post("/api/smartCity/providers")), exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR);
+            return Mono.empty();
+        }).block();
+        MockServerWebExchange afterWrite = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        filter.filter(afterWrite, upstream).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("HIT", afterWrite.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void testFilter_AcceptHeaderKeysTheEntry() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/smartCity/providers")
+                .header(HttpHeaders.ACCEPT, "application/json")), upstream).block();
+
+        MockServerWebExchange csv = exchange(MockServerHttpRequest.get("/api/smartCity/providers")
+                .header(HttpHeaders.ACCEPT, "text/csv"));
+        filter.filter(csv, upstream).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("MISS", csv.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void testFilter_ConcurrentMissesAreCoalesced() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        Sinks.Empty<Void> upstreamReady = Sinks.empty();
+        GatewayFilterChain slowUpstream = exchange -> upstreamReady.asMono().then(upstream.filter(exchange));
+
+        MockServerWebExchange leader = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        MockServerWebExchange follower = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        Mono<Void> leaderDone = filter.filter(leader, slowUpstream).cache();
+        Mono<Void> followerDone = filter.filter(follower, slowUpstream).cache();
+        leaderDone.subscribe();
+        followerDone.subscribe();
+        upstreamReady.tryEmitEmpty();
+        leaderDone.block(Duration.ofSeconds(5));
+        followerDone.block(Duration.ofSeconds(5));
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals("COALESCED", follower.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("{\"call\":1}", follower.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testFilter_FollowerGoesUpstreamWhenTheLeaderIsNotCacheable() {
+        GatewayFilter filter = filter(Duration.ofMinutes(1));
+        Sinks.Empty<Void> upstreamReady = Sinks.empty();
+        AtomicInteger calls = new AtomicInteger();
+        GatewayFilterChain failingFirst = exchange -> upstreamReady.asMono().then(Mono.defer(() -> {
+            if (calls.incrementAndGet() == 1) {
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                return exchange.getResponse().setComplete();
+            }
+            return upstream.filter(exchange);
+        }));
+
+        MockServerWebExchange leader = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        MockServerWebExchange follower = exchange(MockServerHttpRequest.get("/api/smartCity/providers"));
+        Mono<Void> leaderDone = filter.filter(leader, failingFirst).cache();
+        Mono<Void> followerDone = filter.filter(follower, failingFirst).cache();
+        leaderDone.subscribe();
+        followerDone.subscribe();
+        upstreamReady.tryEmitEmpty();
+        leaderDone.block(Duration.ofSeconds(5));
+        followerDone.block(Duration.ofSeconds(5));
+
+        assertEquals(2, calls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, leader.getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, follower.getResponse().getStatusCode());
+        assertTrue(follower.getResponse().getBodyAsString().block().startsWith("{\"call\""));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static GatewayFilter filter(Duration timeToLive) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTimeToLive(timeToLive);
+        return new ResponseCacheGatewayFilterFactory(100, DataSize.ofKilobytes(64), new SimpleMeterRegistry())
+                .apply(config);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.apiGateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PowerOfTwoChoicesLoadBalancerTest {
+
+    private static final ServiceInstance FIRST = new DefaultServiceInstance("citizen-1", "citizen", "citizen-1", 9089, false);
+
+    private static final ServiceInstance SECOND = new DefaultServiceInstance("citizen-2", "citizen", "citizen-2", 9089, false);
+
+    private static final ServiceInstance THIRD = new DefaultServiceInstance("citizen-3", "citizen", "citizen-3", 9089, false);
+
+    @Test
+    void testChoose_NoInstances() {
+        PowerOfTwoChoicesLoadBalancer balancer = balancer(List.of());
+
+        assertFalse(balancer.choose(request()).block().hasServer());
+    }
+
+    @Test
+    void testChoose_SingleInstance() {
+        PowerOfTwoChoicesLoadBalancer balancer = balancer(List.of(FIRST));
+
+        assertSame(FIRST, balancer.choose(request()).block().getServer());
+    }
+
+    @Test
+    void testChoose_AvoidsTheInstanceWithMoreOutstandingRequests() {
+        PowerOfTwoChoicesLoadBalancer balancer = balancer(List.of(FIRST, SECOND));
+        balancer.onStartRequest(request(), new DefaultResponse(FIRST));
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(SECOND, balancer.choose(request()).block().getServer());
+        }
+    }
+
+    @Test
+    void testChoose_CompletedRequestsNoLongerCount() {
+        PowerOfTwoChoicesLoadBalancer balancer = balancer(List.of(FIRST, SECOND));
+        balancer.onStartRequest(request(), new DefaultResponse(FIRST));
+        balancer.onStartRequest(request(), new DefaultResponse(SECOND));
+        balancer.onStartRequest(request(), new DefaultResponse(SECOND));
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request(), new DefaultResponse(SECOND)));
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request(), new DefaultResponse(SECOND)));
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(SECOND, balancer.choose(request()).block().getServer());
+        }
+    }
+
+    @Test
+    void testChoose_NeverPicksTheBusiestOfThree() {
+        PowerOfTwoChoicesLoadBalancer balancer = balancer(List.of(FIRST, SECOND, THIRD));
+        for (int i = 0; i < 5; i++) {
+            balancer.onStartRequest(request(), new DefaultResponse(THIRD));
+        }
+
+        Set<ServiceInstance> chosen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            chosen.add(balancer.choose(request()).block().getServer());
+        }
+
+        // Any pair sampled holds one of the idle instances
+        assertEquals(Set.of(FIRST, SECOND), chosen);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PowerOfTwoChoicesLoadBalancer balancer(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = Mockito.mock(ServiceInstanceListSupplier.class);
+        Mockito.when(supplier.get(ArgumentMatchers.any())).thenReturn(Flux.just(instances));
+        ObjectProvider<ServiceInstanceListSupplier> provider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provider.getIfAvailable(ArgumentMatchers.<Supplier<ServiceInstanceListSupplier>>any()))
+                .thenReturn(supplier);
+        return new PowerOfTwoChoicesLoadBalancer(provider);
+    }
+
+    private static Request<RequestDataContext> request() {
+        return new DefaultRequest<>(new RequestDataContext());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.citizen.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configures how a reading and its outbox event are written together.
+ *
+ * MongoDB only supports multi-document transactions on a replica set, while the Docker Compose setup
+ * runs a standalone server. Transactions are therefore switched on with {@code outbox.transactions.enabled};
+ * without them the event is inserted right after the reading, and a crash between the two writes loses
+ * the event.
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Defines the transaction around the reading update and the outbox insert.
+     *
+     * @param databaseFactory the factory of the MongoDB sessions
+     * @param transactionsEnabled whether to write both in a MongoDB transaction
+     * @return a TransactionTemplate, or operations running without a transaction
+     */
+    @Bean
+    public TransactionOperations readingTransactions(MongoDatabaseFactory databaseFactory,
+                                                     @Value("${outbox.transactions.enabled}") boolean transactionsEnabled) {
+        if (!transactionsEnabled) {
+            return TransactionOperations.withoutTransaction();
+        }
+        return new TransactionTemplate(new MongoTransactionManager(databaseFactory));
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.citizen.config;
 
-import org.springframework.amqp.core.Binding;
-import org.springframework.amqp.core.BindingBuilder;
-import org.springframework.amqp.core.Queue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -14,30 +13,17 @@ import org.springframework.context.annotation.Configuration;
 
 /**
  * Configures RabbitMQ to send message asynchronously to the electrical provider.
-
+ * The electrical provider declares and binds its own queues, with the dead-letter and retry arguments
+ * only it knows about; this service only declares the exchange it publishes to.
  */
 @Configuration
 public class RabbitMQConfig {
 
-    @Value("${rabbitmq.queue.name}")
-    private String queueName;
+    private static final Logger logger = LoggerFactory.getLogger(RabbitMQConfig.class);
 
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
 
-    @Value("${rabbitmq.routing.key}")
-    private String routingKey;
-
-    /**
-     * Creates a new RabbitMQ queue.
-     *
-     * @return the created Queue
-     */
-    @Bean
-    public Queue queue() {
-        return new Queue(queueName, true); // Durable queue
-    }
-
     /**
      * Creates a new TopicExchange.
      *
@@ -48,16 +34,6 @@ public class RabbitMQConfig {
         return new TopicExchange(exchangeName);
     }
 
-    /**
-     * Creates a binding between the queue and the exchange using the routing key.
-     *
-     * @return the created Binding
-     */
-    @Bean
-    public Binding binding() {
-        return BindingBuilder.bind(queue()).to(exchange()).with(routingKey);
-    }
-
     /**
      * Configures JSON message conversion.
      *
@@ -69,7 +45,9 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Configures the RabbitTemplate to use JSON message conversion.
+     * Configures the RabbitTemplate to use JSON message conversion and observe every send.
+     * Messages are sent as mandatory, so the broker returns those no queue is bound for instead of dropping
+     * them; the returned message is also set on the send's correlation data, where the outbox relay checks it.
      *
      * @param connectionFactory the RabbitMQ connection factory
      * @return the configured RabbitTemplate
@@ -78,6 +56,11 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // Propagates the trace context in the message headers
+        rabbitTemplate.setObservationEnabled(true);
+        rabbitTemplate.setMandatory(true);
+        rabbitTemplate.setReturnsCallback(returned -> logger.warn("Message to {} returned by the broker: {} {}",
+                returned.getRoutingKey(), returned.getReplyCode(), returned.getReplyText()));
         return rabbitTemplate;
     }
 }
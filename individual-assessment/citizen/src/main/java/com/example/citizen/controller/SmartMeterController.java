@@ -1,14 +1,20 @@
 package com.example.citizen.controller;
 
+import com.example.citizen.dto.DailyReadingHistory;
 import com.example.citizen.dto.SmartMeterData;
+import com.example.citizen.service.ReadingHistoryService;
 import com.example.citizen.service.SmartMeterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 /**
  * REST controller for managing smart meter data.
  *
@@ -23,6 +29,11 @@ public class SmartMeterController {
      */
     private final SmartMeterService smartMeterService;
 
+    /**
+     * Service for querying the reading history.
+     */
+    private final ReadingHistoryService readingHistoryService;
+
     /**
      * Logger for logging events in the SmartMeterController.
      */
@@ -32,10 +43,12 @@ public class SmartMeterController {
      * Constructor for SmartMeterController.
      *
      * @param smartMeterService the service to handle smart meter operations
+     * @param readingHistoryService the service to query the reading history
      */
     @Autowired
-    public SmartMeterController(SmartMeterService smartMeterService) {
+    public SmartMeterController(SmartMeterService smartMeterService, ReadingHistoryService readingHistoryService) {
         this.smartMeterService = smartMeterService;
+        this.readingHistoryService = readingHistoryService;
     }
 
     @PostMapping("/test")
@@ -105,6 +118,32 @@ public class SmartMeterController {
         }
     }
 
+    /**
+     * Retrieves a user's reading history, one entry per day with readings.
+     *
+     * @param id the unique identifier of the user
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @param readings whether to include the individual readings of each day
+     * @return the daily reading history or an error message
+     */
+    @GetMapping("/users/{id}/smartMeter/history")
+    public ResponseEntity<?> getReadingHistory(@PathVariable String id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(defaultValue = "false") boolean readings) {
+        try {
+            List<DailyReadingHistory> history = readingHistoryService.getHistory(id, from, to, readings);
+            return ResponseEntity.ok(history);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error fetching reading history: " + e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error fetching reading history: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching reading history. Please contact administrator for assistance");
+        }
+    }
+
     /**
      * Partially updates a smart meter's data with manual readings.
      *
@@ -0,0 +1,119 @@
+package com.example.citizen.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one day of a citizen's reading history.
+ *
+ * This class carries the consumption at the start and end of the day, the usage of the day,
+ * and optionally the individual readings.
+ */
+public class DailyReadingHistory {
+
+    /**
+     * The day the readings were taken.
+     */
+    private LocalDate day;
+
+    /**
+     * The first consumption reading of the day in kWh.
+     */
+    private double openingConsumption;
+
+    /**
+     * The last consumption reading of the day in kWh.
+     */
+    private double closingConsumption;
+
+    /**
+     * The energy used on the day in kWh, measured from the previous day's closing reading when
+     * it is part of the response and from the day's opening reading otherwise.
+     */
+    private double usage;
+
+    /**
+     * The number of readings taken on the day.
+     */
+    private int readingCount;
+
+    /**
+     * The readings of the day, or null if they were not requested.
+     */
+    private List<SmartMeterData> readings;
+
+    /**
+     * Default constructor.
+     */
+    public DailyReadingHistory() {
+    }
+
+    /**
+     * Parameterized constructor to initialize a day of reading history.
+     *
+     * @param day the day the readings were taken
+     * @param openingConsumption the first consumption reading of the day in kWh
+     * @param closingConsumption the last consumption reading of the day in kWh
+     * @param usage the energy used on the day in kWh
+     * @param readingCount the number of readings taken on the day
+     * @param readings the readings of the day, or null
+     */
+    public DailyReadingHistory(LocalDate day, double openingConsumption, double closingConsumption, double usage,
+                               int readingCount, List<SmartMeterData> readings) {
+        this.day = day;
+        this.openingConsumption = openingConsumption;
+        this.closingConsumption = closingConsumption;
+        this.usage = usage;
+        this.readingCount = readingCount;
+        this.readings = readings;
+    }
+
+    //Setter and getters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public double getOpeningConsumption() {
+        return openingConsumption;
+    }
+
+    public void setOpeningConsumption(double openingConsumption) {
+        this.openingConsumption = openingConsumption;
+    }
+
+    public double getClosingConsumption() {
+        return closingConsumption;
+    }
+
+    public void setClosingConsumption(double closingConsumption) {
+        this.closingConsumption = closingConsumption;
+    }
+
+    public double getUsage() {
+        return usage;
+    }
+
+    public void setUsage(double usage) {
+        this.usage = usage;
+    }
+
+    public int getReadingCount() {
+        return readingCount;
+    }
+
+    public void setReadingCount(int readingCount) {
+        this.readingCount = readingCount;
+    }
+
+    public List<SmartMeterData> getReadings() {
+        return readings;
+    }
+
+    public void setReadings(List<SmartMeterData> readings) {
+        this.readings = readings;
+    }
+}
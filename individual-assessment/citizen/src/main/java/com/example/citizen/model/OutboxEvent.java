@@ -0,0 +1,72 @@
+package com.example.citizen.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * A reading waiting in the outbox to be published to RabbitMQ.
+ *
+ * Events are written together with the reading and removed by the relay once the broker has confirmed
+ * them, so the collection only ever holds the readings not yet published. The ObjectId is generated by
+ * the driver on insert and orders the events of one instance by creation.
+ */
+@Document(value = "readingOutbox")
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    /**
+     * The smart meter data as it was after the reading.
+     */
+    @Field("payload")
+    private smartMeterModel payload;
+
+    @Field("createdAt")
+    private Instant createdAt;
+
+    /**
+     * Default constructor required for MongoDB persistence.
+     */
+    public OutboxEvent() {
+    }
+
+    /**
+     * Constructs an outbox event for a reading.
+     *
+     * @param payload the smart meter data as it was after the reading
+     * @param createdAt the time the event was written
+     */
+    public OutboxEvent(smartMeterModel payload, Instant createdAt) {
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public smartMeterModel getPayload() {
+        return payload;
+    }
+
+    public void setPayload(smartMeterModel payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
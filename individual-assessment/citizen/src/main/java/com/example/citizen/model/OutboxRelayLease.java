@@ -0,0 +1,65 @@
+package com.example.citizen.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * The lease making one citizen instance the relay of the reading outbox.
+ *
+ * There is a single lease document. The relay holding it renews it while it relays; once it expires,
+ * the next instance to ask takes it over.
+ */
+@Document(value = "readingOutboxLease")
+public class OutboxRelayLease {
+
+    /**
+     * The ID of the single lease document.
+     */
+    public static final String RELAY_LEASE_ID = "relay";
+
+    @Id
+    private String id;
+
+    /**
+     * The relay holding the lease.
+     */
+    @Field("owner")
+    private String owner;
+
+    @Field("expiresAt")
+    private Instant expiresAt;
+
+    /**
+     * Default constructor required for MongoDB persistence.
+     */
+    public OutboxRelayLease() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
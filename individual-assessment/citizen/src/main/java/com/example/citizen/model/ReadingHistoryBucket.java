@@ -0,0 +1,200 @@
+package com.example.citizen.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One day of a customer's smart meter readings, appended to as readings arrive.
+ *
+ * Readings are bucketed per meter per day rather than stored one document per reading, which keeps
+ * the number of documents and index entries to one per customer and day. The document ID is
+ * {@code <customerId>:<yyyy-MM-dd>}, so appending is an upsert on the ID and a date range of one
+ * customer is a range scan of the ID index; no secondary index is needed.
+ * The opening and closing consumption are maintained on every append so trends can be read without
+ * loading the readings themselves.
+ */
+@Document(value = "readingHistory")
+public class ReadingHistoryBucket {
+
+    /**
+     * The bucket ID, {@code <customerId>:<yyyy-MM-dd>}.
+     */
+    @Id
+    private String id;
+
+    @Field("customerId")
+    private String customerId;
+
+    @Field("providerId")
+    private String providerId;
+
+    /**
+     * The day the readings were taken.
+     */
+    @Field("day")
+    private LocalDate day;
+
+    /**
+     * The lowest, and since readings only increase the first, consumption of the day in kWh.
+     */
+    @Field("openingConsumption")
+    private Double openingConsumption;
+
+    /**
+     * The highest, and since readings only increase the last, consumption of the day in kWh.
+     */
+    @Field("closingConsumption")
+    private Double closingConsumption;
+
+    @Field("readingCount")
+    private int readingCount;
+
+    @Field("readings")
+    private List<Reading> readings = new ArrayList<>();
+
+    /**
+     * Default constructor required for MongoDB persistence.
+     */
+    public ReadingHistoryBucket() {
+    }
+
+    /**
+     * Builds the ID of a customer's bucket for a day.
+     *
+     * @param customerId the unique identifier of the customer
+     * @param day the day of the bucket
+     * @return the bucket ID
+     */
+    public static String bucketId(String customerId, LocalDate day) {
+        return customerId + ":" + day;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Double getOpeningConsumption() {
+        return openingConsumption;
+    }
+
+    public void setOpeningConsumption(Double openingConsumption) {
+        this.openingConsumption = openingConsumption;
+    }
+
+    public Double getClosingConsumption() {
+        return closingConsumption;
+    }
+
+    public void setClosingConsumption(Double closingConsumption) {
+        this.closingConsumption = closingConsumption;
+    }
+
+    public int getReadingCount() {
+        return readingCount;
+    }
+
+    public void setReadingCount(int readingCount) {
+        this.readingCount = readingCount;
+    }
+
+    public List<Reading> getReadings() {
+        return readings;
+    }
+
+    public void setReadings(List<Reading> readings) {
+        this.readings = readings;
+    }
+
+    /**
+     * A single reading within a bucket.
+     */
+    public static class Reading {
+
+        @Field("timestamp")
+        private LocalDateTime timestamp;
+
+        @Field("consumption")
+        private double consumption;
+
+        @Field("automated")
+        private boolean automatedEntryMethod;
+
+        /**
+         * Default constructor required for MongoDB persistence.
+         */
+        public Reading() {
+        }
+
+        /**
+         * Constructs a reading.
+         *
+         * @param timestamp the timestamp of the reading
+         * @param consumption the meter's consumption in kWh
+         * @param automatedEntryMethod whether the reading was automated
+         */
+        public Reading(LocalDateTime timestamp, double consumption, boolean automatedEntryMethod) {
+            this.timestamp = timestamp;
+            this.consumption = consumption;
+            this.automatedEntryMethod = automatedEntryMethod;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(LocalDateTime timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        public double getConsumption() {
+            return consumption;
+        }
+
+        public void setConsumption(double consumption) {
+            this.consumption = consumption;
+        }
+
+        public boolean isAutomatedEntryMethod() {
+            return automatedEntryMethod;
+        }
+
+        public void setAutomatedEntryMethod(boolean automatedEntryMethod) {
+            this.automatedEntryMethod = automatedEntryMethod;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.citizen.publisher;
+
+import com.example.citizen.model.OutboxEvent;
+import com.example.citizen.repository.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays the reading outbox to RabbitMQ.
+ * <p>
+ * The relay takes the oldest pending events in batches, publishes them, waits for the broker's publisher
+ * confirms, and then deletes the confirmed events in a single operation. The outbox itself is the checkpoint:
+ * after a restart the relay resumes with the first event that was not confirmed. A separate "last
+ * relayed ID" would skip events that another instance inserted with a lower ObjectId. Delivery is at
+ * least once, since a crash between a confirm and the delete publishes those events again.
+ * </p>
+ * <p>
+ * A batch is published in rounds holding the next event of each of its customers, and a round waits for
+ * the confirms of the one before, so a reading of a meter is only published once the broker confirmed the
+ * previous one and the readings of a meter are enqueued in order. A customer whose event is not confirmed
+ * gets no further events published in the batch; they are relayed after it by a later batch. Readings are
+ * published as mandatory, so a reading no queue is bound for is returned by the broker; such an event counts
+ * as unconfirmed and stays in the outbox until the electrical provider has declared its queues.
+ * </p>
+ * <p>
+ * Every citizen instance runs a relay, but only the one holding the relay lease publishes; two relays
+ * draining the outbox at once would publish every event twice and break the per-customer order. The lease
+ * is renewed before every round and taken over by another instance once its holder stops renewing it, so
+ * the lease time must exceed the confirm timeout and the clock skew between the instances. Writers call
+ * {@link #signal()} after inserting an event to relay it straight away; the events written on other
+ * instances, and retries after a broker outage, wait for the poll interval.
+ * </p>
+ */
+@Component
+public class OutboxRelay implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepository;
+
+    private final SmartMeterPublisher smartMeterPublisher;
+
+    private final int batchSize;
+
+    private final Duration pollInterval;
+
+    private final Duration confirmTimeout;
+
+    private final Duration leaseTime;
+
+    /**
+     * The identifier of this relay in the relay lease.
+     */
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Counter relayedCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter returnedCounter;
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for OutboxRelay.
+     *
+     * @param outboxRepository the repository of the pending events
+     * @param smartMeterPublisher the publisher sending the readings to RabbitMQ
+     * @param meterRegistry the registry the relay counters are published to
+     * @param batchSize the maximum number of events read from the outbox at a time
+     * @param pollInterval the interval at which the outbox is checked without a signal
+     * @param confirmTimeout how long to wait for the confirms of a round
+     * @param leaseTime how long the relay lease is held after each renewal
+     */
+    @Autowired
+    public OutboxRelay(OutboxRepository outboxRepository, SmartMeterPublisher smartMeterPublisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size}") int batchSize,
+                       @Value("${outbox.relay.poll-interval}") Duration pollInterval,
+                       @Value("${outbox.relay.confirm-timeout}") Duration confirmTimeout,
+                       @Value("${outbox.relay.lease-time}") Duration leaseTime) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("outbox.relay.batch-size must be positive");
+        }
+        if (leaseTime.compareTo(confirmTimeout) <= 0) {
+            throw new IllegalArgumentException("outbox.relay.lease-time must exceed outbox.relay.confirm-timeout");
+        }
+        this.outboxRepository = outboxRepository;
+        this.smartMeterPublisher = smartMeterPublisher;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.confirmTimeout = confirmTimeout;
+        this.leaseTime = leaseTime;
+        this.relayedCounter = Counter.builder("smartmeter.outbox.relayed")
+                .description("Outbox events confirmed by the broker and removed from the outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("smartmeter.outbox.relay.failures")
+                .description("Outbox relay batches stopped by a failed or missing confirm")
+                .register(meterRegistry);
+        this.returnedCounter = Counter.builder("smartmeter.outbox.returned")
+                .description("Outbox events returned by the broker as unroutable and kept in the outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling once the application is ready, which also relays what was left over from the last run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::signal, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Requests a drain of the outbox. Signals arriving while a drain is pending are merged into it.
+     */
+    public void signal() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Outbox relay stopped, retrying in {}: {}", pollInterval, e.toString());
+        }
+    }
+
+    /**
+     * Publishes one batch and deletes the events confirmed, stopping at the first failure of each customer.
+     * Nothing is published unless this relay holds the relay lease.
+     *
+     * @return the number of events relayed
+     */
+    private int relayBatch() throws InterruptedException {
+        if (!outboxRepository.acquireRelayLease(owner, leaseTime)) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // The customers' events in outbox order
+        Map<String, Deque<OutboxEvent>> pending = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            pending.computeIfAbsent(event.getPayload().getCustomerId(), customerId -> new ArrayDeque<>()).add(event);
+        }
+
+        List<String> confirmed = new ArrayList<>(batch.size());
+        while (!pending.isEmpty()) {
+            if (!outboxRepository.acquireRelayLease(owner, leaseTime)) {
+                logger.warn("Outbox relay lease lost, leaving the rest of the batch to its new holder");
+                break;
+            }
+            List<CorrelationData> round = new ArrayList<>(pending.size());
+            for (Deque<OutboxEvent> events : pending.values()) {
+                OutboxEvent event = events.peekFirst();
+                CorrelationData correlationData = new CorrelationData(event.getId());
+                smartMeterPublisher.publishSmartMeterData(event.getPayload(), correlationData);
+                round.add(correlationData);
+            }
+
+            long deadline = System.nanoTime() + confirmTimeout.toNanos();
+            Iterator<Deque<OutboxEvent>> customers = pending.values().iterator();
+            for (CorrelationData correlationData : round) {
+                Deque<OutboxEvent> events = customers.next();
+                if (!isConfirmed(correlationData, deadline)) {
+                    customers.remove();
+                    continue;
+                }
+                confirmed.add(correlationData.getId());
+                events.removeFirst();
+                if (events.isEmpty()) {
+                    customers.remove();
+                }
+            }
+        }
+
+        if (!confirmed.isEmpty()) {
+            outboxRepository.deleteAllById(confirmed);
+            relayedCounter.increment(confirmed.size());
+        }
+        if (confirmed.size() < batch.size()) {
+            failedCounter.increment();
+        }
+        return confirmed.size();
+    }
+
+    private boolean isConfirmed(CorrelationData correlationData, long deadline) throws InterruptedException {
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                logger.warn("Broker rejected outbox event {}: {}", correlationData.getId(), confirm.getReason());
+                return false;
+            }
+            // Set before the confirm completes, which the broker sends for returned messages too
+            if (correlationData.getReturned() != null) {
+                returnedCounter.increment();
+                logger.warn("Broker returned outbox event {} as unroutable: {}", correlationData.getId(),
+                        correlationData.getReturned().getReplyText());
+                return false;
+            }
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("No confirm for outbox event {}: {}", correlationData.getId(), e.toString());
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.citizen.publisher;
 
 import com.example.citizen.model.smartMeterModel;
+import com.example.common.messaging.ReadingShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,36 +18,79 @@ import org.springframework.stereotype.Service;
  * Service for publishing smart meter data to RabbitMQ.
  *
  * This class is responsible for sending smart meter readings to the configured
- * RabbitMQ exchange using a specified routing key. It uses Spring's {@link RabbitTemplate}
+ * RabbitMQ exchange, routed to the provider's shard queue of the customer. It uses Spring's {@link RabbitTemplate}
  * to interact with the RabbitMQ broker.
  * Its purpose is to publish smart meter data to the electrical provider microservice.
  *
  * Responsibilities:
  *
- *  Publishes smart meter data to RabbitMQ.
+ *  Publishes smart meter data to RabbitMQ, on behalf of the {@link OutboxRelay}.
  *  Handles exceptions during the publishing process.
+ *  Stamps each message with its publish time so the consumer can measure queue dwell time.
  *
  */
 @Service
 public class SmartMeterPublisher {
 
+    /**
+     * Header carrying the publish time in epoch milliseconds.
+     * The AMQP timestamp property only has second precision, too coarse for dwell time.
+     */
+    public static final String PUBLISH_TIMESTAMP_HEADER = "x-publish-timestamp";
+
+    private static final Logger logger = LoggerFactory.getLogger(SmartMeterPublisher.class);
+
+    /**
+     * Marker of the per-message publish log, sampled by logback-spring.xml.
+     */
+    private static final Marker READING_PUBLISHED = MarkerFactory.getMarker("reading-published");
+
     private final RabbitTemplate rabbitTemplate;
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
 
+    @Value("${rabbitmq.routing.key-prefix}")
+    private String routingKeyPrefix;
+
+    @Value("${rabbitmq.shards}")
+    private int shards;
+
     @Autowired
-    public SmartMeterPublisher(RabbitTemplate rabbitTemplate) {
+    public SmartMeterPublisher(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
         this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
-    public void publishSmartMeterData(smartMeterModel data) {
-        // Routing key pattern: "electricalProvider.<providerId>"
-        String routingKey = "electricalProvider." + data.getProviderId();
+    /**
+     * Publishes a reading to RabbitMQ.
+     *
+     * @param data the smart meter data to publish
+     * @param correlationData the correlation data completed by the broker's publisher confirm
+     */
+    public void publishSmartMeterData(smartMeterModel data, CorrelationData correlationData) {
+        // Routing key pattern: "<prefix><shard>", all readings of a meter go to the same shard queue
+        String routingKey = routingKeyPrefix + ReadingShards.shardOf(data.getCustomerId(), shards);
 
         // Publish data to RabbitMQ
-        rabbitTemplate.convertAndSend(exchangeName, routingKey, data);
-        System.out.println("Published smart meter data with routing key: " + routingKey);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            rabbitTemplate.convertAndSend(exchangeName, routingKey, data, message -> {
+                message.getMessageProperties().setHeader(PUBLISH_TIMESTAMP_HEADER, System.currentTimeMillis());
+                return message;
+            }, correlationData);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("smartmeter.pipeline.publish")
+                    .description("Latency of publishing a reading to RabbitMQ")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        logger.info(READING_PUBLISHED, "Published smart meter data for customer {} with routing key {}",
+                data.getCustomerId(), routingKey);
     }
 }
 
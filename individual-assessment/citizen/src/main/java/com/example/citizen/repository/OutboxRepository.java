@@ -0,0 +1,24 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+/**
+ * Repository interface for the reading outbox in MongoDB.
+ *
+ * The relay lease is in {@link OutboxRepositoryCustom}.
+ *
+ * @see OutboxEvent
+ */
+public interface OutboxRepository extends MongoRepository<OutboxEvent, String>, OutboxRepositoryCustom {
+    /**
+     * Finds the oldest events still waiting to be published.
+     *
+     * @param limit the maximum number of events to return
+     * @return the pending events, oldest first
+     */
+    List<OutboxEvent> findAllByOrderByIdAsc(Limit limit);
+}
@@ -0,0 +1,20 @@
+package com.example.citizen.repository;
+
+import java.time.Duration;
+
+/**
+ * Hands out the lease of the outbox relay.
+ *
+ * @see OutboxRepositoryCustomImpl
+ */
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Takes or renews the relay lease, unless another relay holds it and it has not expired.
+     *
+     * @param owner the unique identifier of the relay asking
+     * @param leaseTime how long the lease is held from now
+     * @return whether the relay holds the lease
+     */
+    boolean acquireRelayLease(String owner, Duration leaseTime);
+}
@@ -0,0 +1,44 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.OutboxRelayLease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link MongoTemplate} implementation of {@link OutboxRepositoryCustom}, picked up by Spring Data
+ * as a fragment of {@link OutboxRepository}.
+ */
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public OutboxRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean acquireRelayLease(String owner, Duration leaseTime) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("id").is(OutboxRelayLease.RELAY_LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(leaseTime));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), OutboxRelayLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            // The lease exists and is held by another relay, so the upsert tried to insert a second one
+            return false;
+        }
+    }
+}
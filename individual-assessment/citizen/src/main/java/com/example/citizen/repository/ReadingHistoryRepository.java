@@ -0,0 +1,14 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.ReadingHistoryBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Repository interface for the daily reading history buckets in MongoDB.
+ *
+ * Appends and date range lookups are in {@link ReadingHistoryRepositoryCustom}.
+ *
+ * @see ReadingHistoryBucket
+ */
+public interface ReadingHistoryRepository extends MongoRepository<ReadingHistoryBucket, String>, ReadingHistoryRepositoryCustom {
+}
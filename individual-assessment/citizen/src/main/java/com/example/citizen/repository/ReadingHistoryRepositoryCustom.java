@@ -0,0 +1,33 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.ReadingHistoryBucket;
+import com.example.citizen.model.smartMeterModel;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Appends to and reads the daily reading history buckets.
+ *
+ * @see ReadingHistoryRepositoryCustomImpl
+ */
+public interface ReadingHistoryRepositoryCustom {
+
+    /**
+     * Appends a reading to the bucket of its customer and day, creating the bucket if needed.
+     *
+     * @param reading the smart meter data as it is after the reading
+     */
+    void append(smartMeterModel reading);
+
+    /**
+     * Finds a customer's buckets for a range of days, ordered by day.
+     *
+     * @param customerId the unique identifier of the customer
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @param includeReadings whether to load the individual readings or only the daily totals
+     * @return the buckets of the days with readings
+     */
+    List<ReadingHistoryBucket> findDays(String customerId, LocalDate from, LocalDate to, boolean includeReadings);
+}
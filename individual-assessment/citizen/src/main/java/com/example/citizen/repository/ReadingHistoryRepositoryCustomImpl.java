@@ -0,0 +1,58 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.ReadingHistoryBucket;
+import com.example.citizen.model.smartMeterModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@link MongoTemplate} implementation of {@link ReadingHistoryRepositoryCustom}, picked up by Spring Data
+ * as a fragment of {@link ReadingHistoryRepository}.
+ */
+public class ReadingHistoryRepositoryCustomImpl implements ReadingHistoryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public ReadingHistoryRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void append(smartMeterModel reading) {
+        LocalDate day = reading.getReadingTimestamp().toLocalDate();
+        double consumption = reading.getCurrentConsumption();
+        Query query = Query.query(Criteria.where("id").is(ReadingHistoryBucket.bucketId(reading.getCustomerId(), day)));
+        Update update = new Update()
+                .setOnInsert("customerId", reading.getCustomerId())
+                .setOnInsert("day", day)
+                .set("providerId", reading.getProviderId())
+                .min("openingConsumption", consumption)
+                .max("closingConsumption", consumption)
+                .inc("readingCount", 1)
+                .push("readings", new ReadingHistoryBucket.Reading(
+                        reading.getReadingTimestamp(), consumption, reading.isAutomatedEntryMethod()));
+        mongoTemplate.upsert(query, update, ReadingHistoryBucket.class);
+    }
+
+    @Override
+    public List<ReadingHistoryBucket> findDays(String customerId, LocalDate from, LocalDate to,
+                                               boolean includeReadings) {
+        // The IDs of one customer sort by day, so the range is a scan of the _id index
+        Query query = Query.query(Criteria.where("id")
+                        .gte(ReadingHistoryBucket.bucketId(customerId, from))
+                        .lte(ReadingHistoryBucket.bucketId(customerId, to)))
+                .with(Sort.by("id"));
+        if (!includeReadings) {
+            query.fields().exclude("readings");
+        }
+        return mongoTemplate.find(query, ReadingHistoryBucket.class);
+    }
+}
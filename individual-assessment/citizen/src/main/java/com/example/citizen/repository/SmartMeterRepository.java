@@ -13,10 +13,11 @@ import java.util.Optional;
  *Responsibilities:
  * Basic CRUD operations for smart meter data.
  * Custom query methods for specific use cases.
+ * Atomic reading updates, see {@link SmartMeterRepositoryCustom}.
  *
  * @see smartMeterModel
  */
-public interface SmartMeterRepository extends MongoRepository<smartMeterModel, String> {
+public interface SmartMeterRepository extends MongoRepository<smartMeterModel, String>, SmartMeterRepositoryCustom {
     /**
      * Finds the smart meter data for a specific customer by their unique ID.
      *
@@ -0,0 +1,39 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.smartMeterModel;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Atomic reading updates of a customer's smart meter document.
+ *
+ * Each method is a single {@code findAndModify} returning the document as it is after the update,
+ * so a reading costs one round trip, and concurrent automated and manual readings of the same meter
+ * cannot overwrite each other's consumption.
+ *
+ * @see SmartMeterRepositoryCustomImpl
+ */
+public interface SmartMeterRepositoryCustom {
+
+    /**
+     * Adds an automated reading's increment to the meter's consumption.
+     *
+     * @param customerId the unique identifier of the customer
+     * @param increment the consumption since the previous reading, in kWh
+     * @param readingTimestamp the timestamp of the reading
+     * @return the updated smart meter data, or empty if the customer has no smart meter
+     */
+    Optional<smartMeterModel> incrementConsumption(String customerId, double increment, LocalDateTime readingTimestamp);
+
+    /**
+     * Raises the meter's consumption to a manual reading, provided the reading is above the current consumption.
+     *
+     * @param customerId the unique identifier of the customer
+     * @param consumption the consumption read from the meter, in kWh
+     * @param readingTimestamp the timestamp of the reading
+     * @return the updated smart meter data, or empty if the customer has no smart meter or the reading is
+     *         not above the current consumption
+     */
+    Optional<smartMeterModel> advanceConsumption(String customerId, double consumption, LocalDateTime readingTimestamp);
+}
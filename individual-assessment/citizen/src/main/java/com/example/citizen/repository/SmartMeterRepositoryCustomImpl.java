@@ -0,0 +1,53 @@
+package com.example.citizen.repository;
+
+import com.example.citizen.model.smartMeterModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * {@link MongoTemplate} implementation of {@link SmartMeterRepositoryCustom}, picked up by Spring Data
+ * as a fragment of {@link SmartMeterRepository}.
+ */
+public class SmartMeterRepositoryCustomImpl implements SmartMeterRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public SmartMeterRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<smartMeterModel> incrementConsumption(String customerId, double increment,
+                                                          LocalDateTime readingTimestamp) {
+        Query query = Query.query(Criteria.where("customerId").is(customerId));
+        Update update = new Update()
+                .inc("currentConsumption", increment)
+                .set("readingTimestamp", readingTimestamp)
+                .set("automatedEntryMethod", true)
+                .set("alertFlag", false);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, smartMeterModel.class));
+    }
+
+    @Override
+    public Optional<smartMeterModel> advanceConsumption(String customerId, double consumption,
+                                                        LocalDateTime readingTimestamp) {
+        // The filter makes the monotonic check part of the update; $max keeps it safe should the filter change
+        Query query = Query.query(Criteria.where("customerId").is(customerId)
+                .and("currentConsumption").lt(consumption));
+        Update update = new Update()
+                .max("currentConsumption", consumption)
+                .set("readingTimestamp", readingTimestamp)
+                .set("automatedEntryMethod", false);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, smartMeterModel.class));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.citizen.service;
+
+import com.example.citizen.dto.DailyReadingHistory;
+import com.example.citizen.dto.SmartMeterData;
+import com.example.citizen.model.ReadingHistoryBucket;
+import com.example.citizen.model.smartMeterModel;
+import com.example.citizen.repository.ReadingHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for recording and querying the reading history of every citizen.
+ *
+ * Every reading is appended to a bucket per meter per day, see {@link ReadingHistoryBucket},
+ * so citizens can look at their usage over time without asking the electrical provider.
+ */
+@Service
+public class ReadingHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingHistoryService.class);
+
+    private final ReadingHistoryRepository readingHistoryRepository;
+
+    private final Timer mongoAppendTimer;
+
+    private final Counter appendFailedCounter;
+
+    private final long maxRangeDays;
+
+    /**
+     * Constructs a new instance of the `ReadingHistoryService`.
+     *
+     * @param readingHistoryRepository the repository of the history buckets
+     * @param meterRegistry the registry the pipeline timers are published to
+     * @param maxRangeDays the longest range of days a single query may cover
+     */
+    @Autowired
+    public ReadingHistoryService(ReadingHistoryRepository readingHistoryRepository, MeterRegistry meterRegistry,
+                                 @Value("${history.max-range-days}") long maxRangeDays) {
+        this.readingHistoryRepository = readingHistoryRepository;
+        this.mongoAppendTimer = Timer.builder("smartmeter.pipeline.mongo")
+                .description("Latency of MongoDB operations on the reading pipeline")
+                .tag("operation", "historyAppend")
+                .register(meterRegistry);
+        this.appendFailedCounter = Counter.builder("smartmeter.history.append.failures")
+                .description("Readings missing from the reading history because their append failed")
+                .register(meterRegistry);
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Appends a reading to the customer's history.
+     * A failure is logged and counted but not rethrown, since the meter itself has already been updated
+     * and the history is secondary to publishing the reading; the reading is then missing from the history.
+     *
+     * @param reading the smart meter data as it is after the reading
+     */
+    public void record(smartMeterModel reading) {
+        try {
+            mongoAppendTimer.record(() -> readingHistoryRepository.append(reading));
+        } catch (Exception e) {
+            appendFailedCounter.increment();
+            logger.warn("Failed to append reading of customer {} to its history: {}",
+                    reading.getCustomerId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves a citizen's reading history for a range of days.
+     * Days without readings are left out.
+     *
+     * @param id the unique identifier of the citizen
+     * @param from the first day, inclusive
+     * @param to the last day, inclusive
+     * @param includeReadings whether to include the individual readings of each day
+     * @return the history of the days with readings, ordered by day
+     * @throws IllegalArgumentException if the citizen ID or the range is invalid
+     */
+    public List<DailyReadingHistory> getHistory(String id, LocalDate from, LocalDate to, boolean includeReadings) {
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid ObjectId for Citizen ID: " + id);
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end of the range must not be before its start.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("The range must not cover more than " + maxRangeDays + " days.");
+        }
+
+        List<DailyReadingHistory> history = new ArrayList<>();
+        Double previousClosing = null;
+        for (ReadingHistoryBucket bucket : readingHistoryRepository.findDays(id, from, to, includeReadings)) {
+            double opening = bucket.getOpeningConsumption();
+            double closing = bucket.getClosingConsumption();
+            double usage = closing - (previousClosing != null ? previousClosing : opening);
+            history.add(new DailyReadingHistory(bucket.getDay(), opening, closing, usage, bucket.getReadingCount(),
+                    includeReadings ? toSmartMeterData(bucket.getReadings()) : null));
+            previousClosing = closing;
+        }
+        return history;
+    }
+
+    private List<SmartMeterData> toSmartMeterData(List<ReadingHistoryBucket.Reading> readings) {
+        List<SmartMeterData> data = new ArrayList<>(readings.size());
+        for (ReadingHistoryBucket.Reading reading : readings) {
+            data.add(new SmartMeterData(reading.getConsumption(), reading.getTimestamp(), false,
+                    reading.isAutomatedEntryMethod()));
+        }
+        return data;
+    }
+}
@@ -1,27 +1,35 @@
 package com.example.citizen.service;
 
 import com.example.citizen.dto.SmartMeterData;
+import com.example.citizen.model.OutboxEvent;
 import com.example.citizen.model.smartMeterModel;
-import com.example.citizen.publisher.SmartMeterPublisher;
+import com.example.citizen.publisher.OutboxRelay;
+import com.example.citizen.repository.OutboxRepository;
 import com.example.citizen.repository.SmartMeterRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Random;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * Service for managing and processing smart meter data for every citizen.
  * This class provides methods for registering, retrieving, updating, and publishing
  * smart meter readings. It interacts with the MongoDB database for data storage
- * and RabbitMQ for message publishing.
+ * and hands readings to RabbitMQ through the reading outbox.
  * Responsibilities:
  * Registers new smart meters for citizens.
  * Retrieves and updates smart meter readings.
- * Publishes updated smart meter data to RabbitMQ.
+ * Writes updated smart meter data to the outbox relayed to RabbitMQ.
  * Validates ObjectId fields to ensure data integrity.
  *
  */
@@ -37,20 +45,54 @@ public class SmartMeterService {
     private final SmartMeterRepository smartMeterRepository;
 
     /**
-     * Publisher for sending smart meter data to RabbitMQ.
+     * Repository of the readings waiting to be published, and the relay publishing them to RabbitMQ.
      */
-    private final SmartMeterPublisher smartMeterPublisher;
+    private final OutboxRepository outboxRepository;
+    private final OutboxRelay outboxRelay;
+
+    /**
+     * Transaction around a reading update and its outbox event, see OutboxConfig.
+     */
+    private final TransactionOperations readingTransactions;
+
+    /**
+     * Service appending every reading to the citizen's reading history.
+     */
+    private final ReadingHistoryService readingHistoryService;
+
+    /**
+     * Timers for the atomic MongoDB reading updates and outbox inserts on the reading pipeline.
+     */
+    private final Timer mongoFindAndModifyTimer;
+    private final Timer mongoOutboxInsertTimer;
 
     /**
      * Constructs a new instance of the `SmartMeterService`.
      *
      * @param smartMeterRepository the repository for MongoDB operations
-     * @param smartMeterPublisher the publisher for RabbitMQ operations
+     * @param outboxRepository the repository of the reading outbox
+     * @param outboxRelay the relay publishing the outbox to RabbitMQ
+     * @param readingTransactions the transaction around a reading and its outbox event
+     * @param readingHistoryService the service recording the reading history
+     * @param meterRegistry the registry the pipeline timers are published to
      */
     @Autowired
-    public SmartMeterService(SmartMeterRepository smartMeterRepository, SmartMeterPublisher smartMeterPublisher) {
+    public SmartMeterService(SmartMeterRepository smartMeterRepository, OutboxRepository outboxRepository,
+                             OutboxRelay outboxRelay, TransactionOperations readingTransactions,
+                             ReadingHistoryService readingHistoryService, MeterRegistry meterRegistry) {
         this.smartMeterRepository = smartMeterRepository;
-        this.smartMeterPublisher = smartMeterPublisher;
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
+        this.readingTransactions = readingTransactions;
+        this.readingHistoryService = readingHistoryService;
+        this.mongoFindAndModifyTimer = Timer.builder("smartmeter.pipeline.mongo")
+                .description("Latency of MongoDB operations on the reading pipeline")
+                .tag("operation", "findAndModify")
+                .register(meterRegistry);
+        this.mongoOutboxInsertTimer = Timer.builder("smartmeter.pipeline.mongo")
+                .description("Latency of MongoDB operations on the reading pipeline")
+                .tag("operation", "outboxInsert")
+                .register(meterRegistry);
     }
 
     /**
@@ -88,31 +130,42 @@ public class SmartMeterService {
 
     /**
      * Automates the smart meter reading process and publishes the updated data to RabbitMQ.
-     * This method retrieves the smart meter reading based on customerId, generates an incremental
-     * consumption value, updates the reading, and publishes the updated data.
+     * This method generates an incremental consumption value and adds it to the customer's
+     * reading in a single atomic update, then writes the updated data to the outbox.
      *
      * @param id the unique identifier of the citizen
      * @throws IllegalArgumentException if the citizen ID is invalid or no data is found
      */
     public void automateAndPublishSmartMeter(String id) {
         validateObjectId(id, "Citizen ID");
-        smartMeterModel latestReading = smartMeterRepository.findByCustomerId(id)
-                    .orElseThrow(() -> new IllegalArgumentException("No readings found for customer ID: " + id));
-        System.out.println("latestReading: " + latestReading.toString());
 
         // Generate a random increment between 0.01 and 0.3 kWh
-        Random random = new Random();
-        double increment = 0.01 + (0.3 - 0.01) * random.nextDouble();
-
-        //Update smart Meter data with the incremented consumption
-        latestReading.setReadingTimestamp(LocalDateTime.now());
-        latestReading.setAutomatedEntryMethod(true);
-        latestReading.setCurrentConsumption(latestReading.getCurrentConsumption() + increment);
-        latestReading.setAlertFlag(false);
-
-        smartMeterModel newData=smartMeterRepository.save(latestReading);
-        // Publish the data to RabbitMQ
-        smartMeterPublisher.publishSmartMeterData(newData);
+        double increment = 0.01 + (0.3 - 0.01) * ThreadLocalRandom.current().nextDouble();
+
+        smartMeterModel newData = updateAndEnqueue(
+                () -> smartMeterRepository.incrementConsumption(id, increment, LocalDateTime.now()),
+                () -> new IllegalArgumentException("No readings found for customer ID: " + id));
+        logger.debug("Latest reading for customer {}: {} kWh", id, newData.getCurrentConsumption());
+    }
+
+    /**
+     * Applies a reading update and writes the updated data to the outbox, in one transaction if enabled.
+     * The reading is then appended to the history and the relay is signalled to publish it.
+     *
+     * @param update the atomic update of the smart meter data
+     * @param rejection the exception thrown if the update matched no smart meter
+     * @return the updated smart meter data
+     */
+    private smartMeterModel updateAndEnqueue(Supplier<Optional<smartMeterModel>> update,
+                                             Supplier<IllegalArgumentException> rejection) {
+        smartMeterModel data = readingTransactions.execute(status -> {
+            smartMeterModel updated = mongoFindAndModifyTimer.record(update).orElseThrow(rejection);
+            mongoOutboxInsertTimer.record(() -> outboxRepository.insert(new OutboxEvent(updated, Instant.now())));
+            return updated;
+        });
+        readingHistoryService.record(data);
+        outboxRelay.signal();
+        return data;
     }
 
     /**
@@ -160,8 +213,9 @@ public class SmartMeterService {
     /**
      * Submits a manual reading for a smart meter.
      *
-     * <p>This method validates the new reading, updates the smart meter data,
-     * and publishes the updated data to RabbitMQ.</p>
+     * <p>This method updates the smart meter data only if the new reading is above the
+     * current consumption, checked and applied in one atomic update, and writes the
+     * updated data to the outbox. The current data is only read to explain a rejection.</p>
      *
      * @param id the unique identifier of the citizen
      * @param smartMeterData the new smart meter reading data
@@ -172,17 +226,11 @@ public class SmartMeterService {
 
         try {
             double newConsumption = smartMeterData.getCurrentConsumption();
-            smartMeterModel latestReading = smartMeterRepository.findByCustomerId(id).orElseThrow(() -> new IllegalArgumentException("No readings found for customer ID: " + id));
-            if (newConsumption <= latestReading.getCurrentConsumption()) {
-                throw new IllegalArgumentException("New consumption value must be greater than the current consumption.");
-            }
-            latestReading.setCurrentConsumption(newConsumption);
-            latestReading.setReadingTimestamp(LocalDateTime.now());
-            latestReading.setAutomatedEntryMethod(false);
-            smartMeterModel data =smartMeterRepository.save(latestReading);
-
-            //publish the updated data to RabbitMQ
-            smartMeterPublisher.publishSmartMeterData(data);
+            updateAndEnqueue(
+                    () -> smartMeterRepository.advanceConsumption(id, newConsumption, LocalDateTime.now()),
+                    () -> smartMeterRepository.findByCustomerId(id).isPresent()
+                            ? new IllegalArgumentException("New consumption value must be greater than the current consumption.")
+                            : new IllegalArgumentException("No readings found for customer ID: " + id));
         } catch (Exception e) {
             throw new IllegalArgumentException("Error submitting manual reading: " + e.getMessage());
         }
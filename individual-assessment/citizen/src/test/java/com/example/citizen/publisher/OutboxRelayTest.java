@@ -0,0 +1,186 @@
+package com.example.citizen.publisher;
+
+import com.example.citizen.model.OutboxEvent;
+import com.example.citizen.model.smartMeterModel;
+import com.example.citizen.repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxRelayTest {
+
+    private OutboxRepository outboxRepository;
+
+    private SmartMeterPublisher smartMeterPublisher;
+
+    private OutboxRelay relay;
+
+    private final Map<String, CorrelationData> published = new ConcurrentHashMap<>();
+
+    private final List<String> publishOrder = new CopyOnWriteArrayList<>();
+
+    private final Map<String, String> customers = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = Mockito.mock(OutboxRepository.class);
+        smartMeterPublisher = Mockito.mock(SmartMeterPublisher.class);
+        Mockito.when(outboxRepository.acquireRelayLease(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(true);
+        relay = new OutboxRelay(outboxRepository, smartMeterPublisher, new SimpleMeterRegistry(), 10,
+                Duration.ofMinutes(1), Duration.ofMillis(200), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.destroy();
+    }
+
+    @Test
+    void testRelay_PublishesCustomerEventAfterConfirmOfPrevious() {
+        Mockito.when(outboxRepository.findAllByOrderByIdAsc(ArgumentMatchers.any(Limit.class)))
+                .thenReturn(List.of(event("1", "a"), event("2", "b"), event("3", "a"), event("4", "a")))
+                .thenReturn(List.of());
+        Mockito.doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(1);
+            // Every earlier event of the customer must be confirmed by now
+            for (String id : publishOrder) {
+                if (customers.get(id).equals(invocation.<smartMeterModel>getArgument(0).getCustomerId())) {
+                    assertTrue(published.get(id).getFuture().isDone(), "published before event " + id + " was confirmed");
+                }
+            }
+            publishOrder.add(correlationData.getId());
+            published.put(correlationData.getId(), correlationData);
+            new Thread(() -> correlationData.getFuture().complete(new CorrelationData.Confirm(true, null))).start();
+            return null;
+        }).when(smartMeterPublisher).publishSmartMeterData(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        relay.signal();
+
+        assertEquals(Set.of("1", "2", "3", "4"), Set.copyOf(deleted()));
+        assertEquals(List.of("1", "2", "3", "4"), publishOrder);
+    }
+
+    @Test
+    void testRelay_StopsCustomerAtUnconfirmedEvent() {
+        Mockito.when(outboxRepository.findAllByOrderByIdAsc(ArgumentMatchers.any(Limit.class)))
+                .thenReturn(List.of(event("1", "a"), event("2", "b"), event("3", "a"), event("4", "b")))
+                .thenReturn(List.of());
+        Mockito.doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(1);
+            publishOrder.add(correlationData.getId());
+            correlationData.getFuture().complete(new CorrelationData.Confirm(!correlationData.getId().equals("1"),
+                    "nack"));
+            return null;
+        }).when(smartMeterPublisher).publishSmartMeterData(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        relay.signal();
+
+        assertEquals(Set.of("2", "4"), Set.copyOf(deleted()));
+        assertEquals(List.of("1", "2", "4"), publishOrder);
+    }
+
+    @Test
+    void testRelay_KeepsReturnedEvents() {
+        Mockito.when(outboxRepository.findAllByOrderByIdAsc(ArgumentMatchers.any(Limit.class)))
+                .thenReturn(List.of(event("1", "a"), event("2", "b"), event("3", "a")))
+                .thenReturn(List.of());
+        Mockito.doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(1);
+            publishOrder.add(correlationData.getId());
+            if (correlationData.getId().equals("1")) {
+                // The broker acks unroutable mandatory messages after returning them
+                correlationData.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()),
+                        312, "NO_ROUTE", "citizen-exchange", "smart-meter.shard.1"));
+            }
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(smartMeterPublisher).publishSmartMeterData(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        relay.signal();
+
+        assertEquals(Set.of("2"), Set.copyOf(deleted()));
+        assertEquals(List.of("1", "2"), publishOrder);
+    }
+
+    @Test
+    void testRelay_PublishesNothingWithoutTheLease() {
+        Mockito.when(outboxRepository.acquireRelayLease(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(false);
+
+        relay.signal();
+
+        Mockito.verify(outboxRepository, Mockito.timeout(5000)).acquireRelayLease(ArgumentMatchers.anyString(),
+                ArgumentMatchers.eq(Duration.ofSeconds(1)));
+        Mockito.verify(outboxRepository, Mockito.after(200).never()).findAllByOrderByIdAsc(ArgumentMatchers.any());
+        Mockito.verifyNoInteractions(smartMeterPublisher);
+    }
+
+    @Test
+    void testRelay_StopsPublishingWhenTheLeaseIsLost() {
+        // Held for the batch and its first round, then taken over by another relay
+        Mockito.when(outboxRepository.acquireRelayLease(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(true, true, false);
+        Mockito.when(outboxRepository.findAllByOrderByIdAsc(ArgumentMatchers.any(Limit.class)))
+                .thenReturn(List.of(event("1", "a"), event("2", "b"), event("3", "a")))
+                .thenReturn(List.of());
+        Mockito.doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(1);
+            publishOrder.add(correlationData.getId());
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(smartMeterPublisher).publishSmartMeterData(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        relay.signal();
+
+        assertEquals(Set.of("1", "2"), Set.copyOf(deleted()));
+        assertEquals(List.of("1", "2"), publishOrder);
+    }
+
+    @Test
+    void testConstructor_LeaseTimeMustExceedConfirmTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> new OutboxRelay(outboxRepository, smartMeterPublisher,
+                new SimpleMeterRegistry(), 10, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofSeconds(5)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> deleted() {
+        ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+        Mockito.verify(outboxRepository, Mockito.timeout(5000)).deleteAllById(ids.capture());
+        List<String> result = new ArrayList<>();
+        ids.getValue().forEach(result::add);
+        return result;
+    }
+
+    private OutboxEvent event(String id, String customerId) {
+        smartMeterModel reading = new smartMeterModel();
+        reading.setCustomerId(customerId);
+        OutboxEvent event = new OutboxEvent(reading, Instant.now());
+        event.setId(id);
+        customers.put(id, customerId);
+        return event;
+    }
+}
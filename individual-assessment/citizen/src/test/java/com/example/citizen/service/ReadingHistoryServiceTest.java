@@ -0,0 +1,53 @@
+package com.example.citizen.service;
+
+import com.example.citizen.model.smartMeterModel;
+import com.example.citizen.repository.ReadingHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadingHistoryServiceTest {
+
+    private final ReadingHistoryRepository readingHistoryRepository = Mockito.mock(ReadingHistoryRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReadingHistoryService readingHistoryService =
+            new ReadingHistoryService(readingHistoryRepository, meterRegistry, 366);
+
+    @Test
+    void testRecord_AppendsTheReading() {
+        smartMeterModel reading = reading();
+
+        readingHistoryService.record(reading);
+
+        Mockito.verify(readingHistoryRepository).append(reading);
+        assertEquals(0, meterRegistry.counter("smartmeter.history.append.failures").count());
+    }
+
+    @Test
+    void testRecord_FailedAppendIsCounted() {
+        Mockito.doThrow(new DataAccessResourceFailureException("MongoDB unavailable"))
+                .when(readingHistoryRepository).append(ArgumentMatchers.any());
+
+        assertDoesNotThrow(() -> readingHistoryService.record(reading()));
+
+        assertEquals(1, meterRegistry.counter("smartmeter.history.append.failures").count());
+    }
+
+    private static smartMeterModel reading() {
+        smartMeterModel reading = new smartMeterModel();
+        reading.setCustomerId("65f0c0ffee0000000000000a");
+        reading.setProviderId("65f0c0ffee0000000000000b");
+        reading.setReadingTimestamp(LocalDateTime.of(2024, 2, 1, 12, 0));
+        reading.setCurrentConsumption(120.0);
+        return reading;
+    }
+}
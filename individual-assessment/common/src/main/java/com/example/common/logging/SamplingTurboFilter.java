@@ -0,0 +1,53 @@
+package com.example.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter keeping one in every {@code rate} INFO events carrying a given marker.
+ * <p>
+ * Hot message paths tag their per-message log statements with a marker, and one filter per marker
+ * is declared in {@code logback-spring.xml}, so each path is sampled at its own rate. The decision is
+ * taken before the message is formatted, so dropped events cost no string building. WARN and ERROR
+ * events are never sampled, and DEBUG/TRACE are left to the usual logger levels.
+ * </p>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String markerName;
+
+    private int rate = 1;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isXxxEnabled() check rather than an actual event, so it is not counted
+        if (!isStarted() || format == null || level != Level.INFO || marker == null || !marker.contains(markerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (markerName == null || rate < 1) {
+            addError("SamplingTurboFilter needs a markerName and a rate of at least 1");
+            return;
+        }
+        super.start();
+    }
+
+    public void setMarkerName(String markerName) {
+        this.markerName = markerName;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
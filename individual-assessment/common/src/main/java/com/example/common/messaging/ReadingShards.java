@@ -0,0 +1,57 @@
+package com.example.common.messaging;
+
+/**
+ * The shard layout of the reading queues: every reading of a customer goes to the same shard, so a meter's
+ * readings are consumed in the order they were published.
+ * <p>
+ * Everything publishing readings, the citizen publisher, the load tester and the dead-letter replay of the
+ * electrical provider, must pick the shard with this function.
+ * </p>
+ */
+public final class ReadingShards {
+
+    private ReadingShards() {
+    }
+
+    /**
+     * Picks the shard of a customer with a jump consistent hash of the customer ID.
+     * Changing the number of shards moves only the customers of the added or removed shards.
+     *
+     * @param customerId the customer ID
+     * @param shards the number of shards
+     * @return the shard, from 0 to {@code shards - 1}
+     * @throws IllegalArgumentException if the number of shards is not positive
+     */
+    public static int shardOf(String customerId, int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive");
+        }
+        return jump(fnv1a(customerId), shards);
+    }
+
+    /**
+     * Hashes an ID with 64-bit FNV-1a over its characters, since String.hashCode is too weak a key for the
+     * jump hash.
+     */
+    static long fnv1a(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Maps a key to one of a number of buckets with Lamping and Veach's jump consistent hash.
+     */
+    static int jump(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
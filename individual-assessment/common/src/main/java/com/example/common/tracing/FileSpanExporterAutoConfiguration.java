@@ -0,0 +1,33 @@
+package com.example.common.tracing;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Registers the {@link FileSpanExporter} when {@code tracing.exporter.file.enabled} is true, writing to
+ * {@code tracing.exporter.file.path}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(SpanExporter.class)
+@ConditionalOnProperty(name = "tracing.exporter.file.enabled", havingValue = "true")
+public class FileSpanExporterAutoConfiguration {
+
+    /**
+     * Creates the file span exporter.
+     *
+     * @param path the file the spans are appended to
+     * @return the FileSpanExporter bean
+     * @throws IOException if the file cannot be opened
+     */
+    @Bean
+    public FileSpanExporter fileSpanExporter(@Value("${tracing.exporter.file.path}") Path path) throws IOException {
+        return new FileSpanExporter(path);
+    }
+}
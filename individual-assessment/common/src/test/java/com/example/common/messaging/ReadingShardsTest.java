@@ -0,0 +1,83 @@
+package com.example.common.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadingShardsTest {
+
+    @Test
+    void testJump_ReferenceVectors() {
+        // From the reference implementations of the jump consistent hash
+        assertEquals(0, ReadingShards.jump(1L, 1));
+        assertEquals(43, ReadingShards.jump(42L, 57));
+        assertEquals(0, ReadingShards.jump(0xDEAD10CCL, 1));
+        assertEquals(361, ReadingShards.jump(0xDEAD10CCL, 666));
+        assertEquals(520, ReadingShards.jump(256L, 1024));
+    }
+
+    @Test
+    void testFnv1a_ReferenceVectors() {
+        assertEquals(0xcbf29ce484222325L, ReadingShards.fnv1a(""));
+        assertEquals(0xaf63dc4c8601ec8cL, ReadingShards.fnv1a("a"));
+        assertEquals(0x85944171f73967e8L, ReadingShards.fnv1a("foobar"));
+    }
+
+    @Test
+    void testShardOf_StableMapping() {
+        // Publishers and the dead-letter replay must keep agreeing on these
+        assertEquals(3, ReadingShards.shardOf("65f0c0ffee0000000000000a", 4));
+        assertEquals(5, ReadingShards.shardOf("65f0c0ffee0000000000000a", 16));
+        assertEquals(966, ReadingShards.shardOf("65f0c0ffee0000000000000a", 1000));
+        assertEquals(1, ReadingShards.shardOf("65f0c0ffee0000000000000b", 4));
+        assertEquals(670, ReadingShards.shardOf("65f0c0ffee0000000000000b", 1000));
+        assertEquals(212, ReadingShards.shardOf("customer-7", 1000));
+    }
+
+    @Test
+    void testShardOf_InRangeAndBalanced() {
+        for (int shards : new int[] {1, 2, 3, 4, 7, 16, 100}) {
+            int[] counts = new int[shards];
+            for (int i = 0; i < 100_000; i++) {
+                int shard = ReadingShards.shardOf(String.format("65f0c0ffee%014x", i), shards);
+                assertTrue(shard >= 0 && shard < shards, shard + " out of range for " + shards + " shards");
+                counts[shard]++;
+            }
+            for (int count : counts) {
+                // Within 25% of an even share
+                assertTrue(Math.abs(count - 100_000.0 / shards) <= 0.25 * 100_000 / shards,
+                        "uneven shards: " + Arrays.toString(counts));
+            }
+        }
+    }
+
+    @Test
+    void testShardOf_AddingAShardMovesAboutOneInNPlusOneKeys() {
+        int keys = 20_000;
+        for (int shards = 1; shards <= 16; shards++) {
+            int moved = 0;
+            for (int i = 0; i < keys; i++) {
+                String customerId = "customer-" + i;
+                int before = ReadingShards.shardOf(customerId, shards);
+                int after = ReadingShards.shardOf(customerId, shards + 1);
+                if (before != after) {
+                    // Keys only ever move to the new shard
+                    assertEquals(shards, after);
+                    moved++;
+                }
+            }
+            double expected = (double) keys / (shards + 1);
+            assertTrue(Math.abs(moved - expected) <= 0.1 * expected,
+                    moved + " of " + keys + " keys moved going to " + (shards + 1) + " shards");
+        }
+    }
+
+    @Test
+    void testShardOf_InvalidShards() {
+        assertThrows(IllegalArgumentException.class, () -> ReadingShards.shardOf("customer-7", 0));
+    }
+}
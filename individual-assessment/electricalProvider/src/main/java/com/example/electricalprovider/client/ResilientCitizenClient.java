@@ -0,0 +1,117 @@
+package com.example.electricalprovider.client;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * {@link CitizenClient} decorator that guards every call to the Citizen Microservice.
+ * <p>
+ * Calls run on a thread-pool bulkhead, are bounded by a time limiter and pass through a
+ * circuit breaker, in that order from the inside out (the same order the Resilience4j
+ * annotations use).
+ * </p>
+ * <p>
+ * The only call, registering a smart meter, changes state, so it is made once: it is not
+ * retried, since a retry after a timeout may repeat a registration that already happened,
+ * and not answered from a cache, since a cached success would hide a rejection or an outage.
+ * Its failures, including 4xx responses, reach the caller unchanged.
+ * </p>
+ */
+public class ResilientCitizenClient implements CitizenClient, AutoCloseable {
+
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOT_FACTORY = ContextSnapshotFactory.builder().build();
+
+    private final CitizenClient delegate;
+    private final ThreadPoolBulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "citizen-client-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for ResilientCitizenClient.
+     *
+     * @param delegate the HTTP proxy performing the actual calls
+     * @param bulkhead the thread-pool bulkhead isolating citizen calls from request threads
+     * @param timeLimiter the time limiter bounding a single attempt
+     * @param circuitBreaker the circuit breaker tracking citizen failures
+     */
+    public ResilientCitizenClient(CitizenClient delegate, ThreadPoolBulkhead bulkhead, TimeLimiter timeLimiter,
+                                  CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+        this.timeLimiter = timeLimiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String registerSmartMeter(String providerId, String id) {
+        return execute("registerSmartMeter:" + providerId + ":" + id,
+                () -> delegate.registerSmartMeter(providerId, id));
+    }
+
+    /**
+     * Runs a call through the bulkhead, time limiter and circuit breaker, once.
+     *
+     * @param description the call, for the error message of a timeout
+     * @param call the call to the citizen service
+     * @return the response
+     * @throws RuntimeException the failure of the call; a timeout is reported as an
+     *         {@link IllegalStateException}, since the call may still have taken effect
+     */
+    private String execute(String description, Supplier<String> call) {
+        Supplier<CompletionStage<String>> decorated = CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                TimeLimiter.decorateCompletionStage(timeLimiter, scheduler,
+                        ThreadPoolBulkhead.decorateSupplier(bulkhead, withContext(call))));
+        try {
+            return decorated.get().toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling the citizen service", e);
+        } catch (ExecutionException | CompletionException e) {
+            throw unwrap(description, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static RuntimeException unwrap(String description, Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            return new IllegalStateException("Citizen service did not answer " + description
+                    + " in time, it may still have been applied", failure);
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException("Citizen service unavailable: " + failure.getMessage(), failure);
+    }
+
+    /**
+     * Carries the caller's thread-local context, including the current trace, over to the bulkhead thread.
+     */
+    private static <T> Supplier<T> withContext(Supplier<T> call) {
+        ContextSnapshot snapshot = CONTEXT_SNAPSHOT_FACTORY.captureAll();
+        return () -> {
+            try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                return call.get();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
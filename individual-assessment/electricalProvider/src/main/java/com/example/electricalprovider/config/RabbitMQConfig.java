@@ -1,20 +1,40 @@
 package com.example.electricalprovider.config;
 
-import org.springframework.amqp.core.Binding;
+import com.example.electricalprovider.consumer.ListenerTuner;
+import com.example.electricalprovider.consumer.ReadingFailureHandler;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.HeadersExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.DirectRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.DirectRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration which will be used to accept citizen microservices informations asynchronously
  * Configuration class for RabbitMQ.
+ * <p>
+ * Readings that fail are not requeued in place. Retryable failures are republished by the
+ * {@link ReadingFailureHandler} to one retry queue per backoff
+ * delay; each retry queue expires its messages into the headers exchange {@code rabbitmq.retry.return-exchange.name},
+ * which routes them back to the queue named in their {@code original-queue} header. Readings that
+ * cannot succeed, or that ran out of retries, go to the dead-letter queue, as do messages the listener
+ * rejects outright, such as unreadable JSON, through the queue's dead-letter exchange.
+ * </p>
  */
 @Configuration
 public class RabbitMQConfig {
@@ -25,17 +45,76 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.exchange.name}")
     private String exchangeName;
 
-    @Value("${rabbitmq.routing.key}")
-    private String routingKey;
+    @Value("${rabbitmq.routing.key-prefix}")
+    private String routingKeyPrefix;
+
+    @Value("${rabbitmq.shards}")
+    private int shards;
+
+    @Value("${rabbitmq.retry.queue-prefix}")
+    private String retryQueuePrefix;
+
+    @Value("${rabbitmq.retry.delays}")
+    private List<Duration> retryDelays;
+
+    @Value("${rabbitmq.retry.return-exchange.name}")
+    private String retryReturnExchangeName;
+
+    @Value("${rabbitmq.dead-letter.exchange.name}")
+    private String deadLetterExchangeName;
+
+    @Value("${rabbitmq.dead-letter.queue.name}")
+    private String deadLetterQueueName;
+
+    /**
+     * Names the shard queues, {@code <rabbitmq.queue.name>.<shard>}, for the listener to consume.
+     *
+     * @return the names of the shard queues
+     */
+    @Bean
+    public String[] shardQueueNames() {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("rabbitmq.shards must be positive");
+        }
+        String[] names = new String[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            names[shard] = queueName + "." + shard;
+        }
+        return names;
+    }
 
     /**
-     * Creates the queue.
+     * Creates one queue per shard, bound with {@code <rabbitmq.routing.key-prefix><shard>}.
+     * <p>
+     * Publishers pick the shard from the customer ID, so all readings of a meter share a queue. Each shard
+     * queue has a single active consumer: every provider instance subscribes to every shard, the broker
+     * delivers a shard to one of them at a time and fails over when it goes away. Shards are spread over
+     * the instances, and a meter's readings are still processed in publish order.
+     * Shard queues dead-letter rejected messages to the dead-letter queue and receive their expired retries
+     * from the retry return exchange.
+     * </p>
      *
-     * @return the Queue bean
+     * @return the shard queues and their bindings
      */
     @Bean
-    public Queue queue() {
-        return new Queue(queueName, true); // Durable queue
+    public Declarables shardTopology() {
+        TopicExchange exchange = exchange();
+        HeadersExchange returnExchange = new HeadersExchange(retryReturnExchangeName);
+        List<Declarable> declarables = new ArrayList<>();
+        String[] names = shardQueueNames();
+        for (int shard = 0; shard < names.length; shard++) {
+            Queue queue = QueueBuilder.durable(names[shard])
+                    .singleActiveConsumer()
+                    .deadLetterExchange(deadLetterExchangeName)
+                    .deadLetterRoutingKey(deadLetterQueueName)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange)
+                    .with(routingKeyPrefix + shard));
+            declarables.add(BindingBuilder.bind(queue).to(returnExchange)
+                    .where(ReadingFailureHandler.ORIGINAL_QUEUE_HEADER).matches(names[shard]));
+        }
+        return new Declarables(declarables);
     }
 
     /**
@@ -49,13 +128,55 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Creates a binding between the queue and the exchange using the routing key.
+     * Creates the dead-letter exchange and queue, holding readings until they are replayed.
      *
-     * @return the Binding bean
+     * @return the dead-letter exchange, queue and binding
+     */
+    @Bean
+    public Declarables deadLetterTopology() {
+        DirectExchange deadLetterExchange = new DirectExchange(deadLetterExchangeName);
+        Queue deadLetterQueue = QueueBuilder.durable(deadLetterQueueName).build();
+        return new Declarables(deadLetterExchange, deadLetterQueue,
+                BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(deadLetterQueueName));
+    }
+
+    /**
+     * Creates one retry queue per backoff delay and the exchange routing expired retries back to their queue.
+     * A retry queue has no consumer; its messages wait out the queue's TTL and are then dead-lettered.
+     *
+     * @return the retry queues and the return exchange
+     */
+    @Bean
+    public Declarables retryTopology() {
+        HeadersExchange returnExchange = new HeadersExchange(retryReturnExchangeName);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(returnExchange);
+        for (int attempt = 1; attempt <= retryDelays.size(); attempt++) {
+            declarables.add(QueueBuilder.durable(retryQueuePrefix + attempt)
+                    .ttl((int) retryDelays.get(attempt - 1).toMillis())
+                    .deadLetterExchange(retryReturnExchangeName)
+                    .build());
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Creates the listener container factory of the smart meter listener: Spring Boot's direct container
+     * settings, with the consumers and prefetch handed over to the {@link ListenerTuner}.
+     *
+     * @param configurer the configurer applying the {@code spring.rabbitmq.listener.direct} properties
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param listenerTuner the tuner adjusting the prefetch of the containers at runtime
+     * @return the listener container factory
      */
     @Bean
-    public Binding binding() {
-        return BindingBuilder.bind(queue()).to(exchange()).with(routingKey);
+    public DirectRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            DirectRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            ListenerTuner listenerTuner) {
+        DirectRabbitListenerContainerFactory factory = new DirectRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setContainerCustomizer(listenerTuner::register);
+        return factory;
     }
 
     /**
@@ -69,7 +190,7 @@ public class RabbitMQConfig {
     }
 
     /**
-     * Configures the RabbitTemplate to use JSON message conversion.
+     * Configures the RabbitTemplate to use JSON message conversion and observe every send.
      *
      * @param connectionFactory the RabbitMQ connection factory
      * @return the configured RabbitTemplate
@@ -78,6 +199,8 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // Propagates the trace context in the message headers
+        rabbitTemplate.setObservationEnabled(true);
         return rabbitTemplate;
     }
 }
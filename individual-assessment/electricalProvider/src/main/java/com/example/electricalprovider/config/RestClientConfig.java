@@ -1,15 +1,21 @@
 package com.example.electricalprovider.config;
 
 import com.example.electricalprovider.client.CitizenClient;
+import com.example.electricalprovider.client.ResilientCitizenClient;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.time.Duration;
 import java.util.UUID;
 
 /**
@@ -18,22 +24,44 @@ import java.util.UUID;
 @Configuration
 public class RestClientConfig {
 
+    private static final String CITIZEN_INSTANCE = "citizen";
+
     @Value("${citizenServiceUrl}")
     private String citizenServiceUrl;
 
+    @Value("${citizen.client.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${citizen.client.read-timeout}")
+    private Duration readTimeout;
+
     /**
      * Creates a CitizenClient bean configured with the base URL specified in the application properties.
+     * The HTTP proxy is wrapped in the "citizen" bulkhead, time limiter and circuit breaker, and the socket
+     * timeouts make sure an abandoned call eventually frees its bulkhead thread.
+     * The builder is Spring Boot's, so every call is observed and carries the trace context.
      *
      * @return the CitizenClient bean
      */
     @Bean
-    public CitizenClient citizenClient(){
-        RestClient restClient = RestClient.builder()
+    public CitizenClient citizenClient(RestClient.Builder restClientBuilder,
+                                       ThreadPoolBulkheadRegistry bulkheadRegistry,
+                                       TimeLimiterRegistry timeLimiterRegistry,
+                                       CircuitBreakerRegistry circuitBreakerRegistry){
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        RestClient restClient = restClientBuilder
                 .baseUrl(citizenServiceUrl)
+                .requestFactory(requestFactory)
                 .build();
         var restClientAdapter = RestClientAdapter.create(restClient);
         var httpServceProxyFactory= HttpServiceProxyFactory.builderFor(restClientAdapter).build();
-        return httpServceProxyFactory.createClient(CitizenClient.class);
+        CitizenClient proxy = httpServceProxyFactory.createClient(CitizenClient.class);
+        return new ResilientCitizenClient(proxy,
+                bulkheadRegistry.bulkhead(CITIZEN_INSTANCE),
+                timeLimiterRegistry.timeLimiter(CITIZEN_INSTANCE),
+                circuitBreakerRegistry.circuitBreaker(CITIZEN_INSTANCE));
     }
 
     /**
@@ -0,0 +1,265 @@
+package com.example.electricalprovider.consumer;
+
+import com.example.electricalprovider.dto.ListenerTuning;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the prefetch of the smart meter listener to the backlog and the consume latency.
+ * <p>
+ * Every shard queue has a single active consumer, so readings of a meter are processed in order and the
+ * concurrency of the pipeline is the number of shards, not a number of consumers per queue. What is left
+ * to tune is how many unacknowledged readings the broker pushes to each consumer. At every interval the
+ * tuner samples the depth of the shard queues and the mean consume latency since the last sample:
+ * </p>
+ * <ul>
+ *     <li>above the latency target, the prefetch is halved: readings would only wait in the consumer, and
+ *     are redelivered when it fails over;</li>
+ *     <li>otherwise, when the backlog per shard exceeds the prefetch, it is doubled so the consumers are
+ *     not kept waiting on the broker round trip.</li>
+ * </ul>
+ * <p>
+ * The broker applies a prefetch when a consumer subscribes, so a change restarts the consumers one shard
+ * queue at a time. With several instances, a restarted consumer goes to the back of the shard's standby
+ * consumers, so the shard can move to another instance.
+ * </p>
+ */
+@Component
+public class ListenerTuner implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenerTuner.class);
+
+    /**
+     * Consumers per shard queue. More would only be standby consumers of the single active one.
+     */
+    public static final int CONSUMERS_PER_QUEUE = 1;
+
+    private final AmqpAdmin amqpAdmin;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration latencyTarget;
+
+    private final Duration interval;
+
+    private final List<DirectMessageListenerContainer> containers = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "listener-tuner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean autoTune;
+
+    private int prefetch;
+
+    private int minPrefetch;
+
+    private int maxPrefetch;
+
+    private long queueDepth = -1;
+
+    private double meanLatencyMillis = Double.NaN;
+
+    private long lastCount;
+
+    private double lastTotalMillis;
+
+    /**
+     * Constructor for ListenerTuner.
+     *
+     * @param amqpAdmin the admin the shard queue depths are read through
+     * @param meterRegistry the registry holding the consume timer
+     * @param autoTune whether the prefetch is adjusted automatically
+     * @param initialPrefetch the prefetch the consumers start with
+     * @param minPrefetch the lowest prefetch the tuner uses
+     * @param maxPrefetch the highest prefetch the tuner uses
+     * @param latencyTarget the mean consume latency above which the prefetch is reduced
+     * @param interval the interval between two samples
+     */
+    @Autowired
+    public ListenerTuner(AmqpAdmin amqpAdmin, MeterRegistry meterRegistry,
+                         @Value("${rabbitmq.listener.tuning.enabled}") boolean autoTune,
+                         @Value("${rabbitmq.listener.tuning.initial-prefetch}") int initialPrefetch,
+                         @Value("${rabbitmq.listener.tuning.min-prefetch}") int minPrefetch,
+                         @Value("${rabbitmq.listener.tuning.max-prefetch}") int maxPrefetch,
+                         @Value("${rabbitmq.listener.tuning.latency-target}") Duration latencyTarget,
+                         @Value("${rabbitmq.listener.tuning.interval}") Duration interval) {
+        validateBounds(minPrefetch, maxPrefetch);
+        this.amqpAdmin = amqpAdmin;
+        this.meterRegistry = meterRegistry;
+        this.autoTune = autoTune;
+        this.minPrefetch = minPrefetch;
+        this.maxPrefetch = maxPrefetch;
+        this.prefetch = clamp(initialPrefetch);
+        this.latencyTarget = latencyTarget;
+        this.interval = interval;
+    }
+
+    /**
+     * Registers a listener container created by the listener container factory.
+     *
+     * @param container the container, configured with the current prefetch
+     */
+    public synchronized void register(DirectMessageListenerContainer container) {
+        container.setConsumersPerQueue(CONSUMERS_PER_QUEUE);
+        container.setPrefetchCount(prefetch);
+        containers.add(container);
+    }
+
+    /**
+     * Starts sampling once the application is ready and the listeners are consuming.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::tuneSafely, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the current settings and the last samples.
+     *
+     * @return the listener tuning
+     */
+    public synchronized ListenerTuning settings() {
+        return new ListenerTuning(autoTune, prefetch, minPrefetch, maxPrefetch, CONSUMERS_PER_QUEUE, queueDepth,
+                meanLatencyMillis, latencyTarget.toMillis());
+    }
+
+    /**
+     * Changes the settings at runtime. Absent values are left unchanged; a prefetch outside the new bounds
+     * is clamped to them.
+     *
+     * @param autoTune whether the prefetch is adjusted automatically
+     * @param prefetch the prefetch to apply now
+     * @param minPrefetch the lowest prefetch the tuner uses
+     * @param maxPrefetch the highest prefetch the tuner uses
+     * @return the settings after the change
+     * @throws IllegalArgumentException if the bounds are not positive or the minimum exceeds the maximum
+     */
+    public synchronized ListenerTuning update(Boolean autoTune, Integer prefetch, Integer minPrefetch,
+                                              Integer maxPrefetch) {
+        int min = minPrefetch != null ? minPrefetch : this.minPrefetch;
+        int max = maxPrefetch != null ? maxPrefetch : this.maxPrefetch;
+        validateBounds(min, max);
+        this.minPrefetch = min;
+        this.maxPrefetch = max;
+        if (autoTune != null) {
+            this.autoTune = autoTune;
+        }
+        apply(clamp(prefetch != null ? prefetch : this.prefetch));
+        return settings();
+    }
+
+    private void tuneSafely() {
+        try {
+            tune();
+        } catch (Exception e) {
+            logger.warn("Listener tuning skipped: {}", e.toString());
+        }
+    }
+
+    private synchronized void tune() {
+        List<String> queues = containers.stream().flatMap(container -> List.of(container.getQueueNames()).stream())
+                .toList();
+        queueDepth = queueDepth(queues);
+        meanLatencyMillis = sampleMeanLatencyMillis();
+        if (!autoTune || Double.isNaN(meanLatencyMillis)) {
+            return;
+        }
+        int next = prefetch;
+        if (meanLatencyMillis > latencyTarget.toMillis()) {
+            next = clamp(prefetch / 2);
+        } else if (!queues.isEmpty() && queueDepth / queues.size() > prefetch) {
+            next = clamp(prefetch * 2);
+        }
+        if (next != prefetch) {
+            logger.info("Changing listener prefetch from {} to {}: {} readings queued, mean consume latency {} ms",
+                    prefetch, next, queueDepth, String.format("%.1f", meanLatencyMillis));
+            apply(next);
+        }
+    }
+
+    /**
+     * Sets the prefetch and restarts the consumers of every shard queue in turn to apply it.
+     */
+    private void apply(int next) {
+        if (next == prefetch) {
+            return;
+        }
+        prefetch = next;
+        for (DirectMessageListenerContainer container : containers) {
+            container.setPrefetchCount(next);
+            if (!container.isRunning()) {
+                continue;
+            }
+            for (String queue : container.getQueueNames()) {
+                container.removeQueueNames(queue);
+                container.addQueueNames(queue);
+            }
+        }
+    }
+
+    private long queueDepth(List<String> queues) {
+        long depth = 0;
+        for (String queue : queues) {
+            QueueInformation information = amqpAdmin.getQueueInfo(queue);
+            if (information == null) {
+                return -1;
+            }
+            depth += information.getMessageCount();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the mean consume latency since the previous call, or NaN if no reading was consumed.
+     */
+    private double sampleMeanLatencyMillis() {
+        long count = 0;
+        double totalMillis = 0;
+        for (Timer timer : meterRegistry.find("smartmeter.pipeline.consume").timers()) {
+            count += timer.count();
+            totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+        long consumed = count - lastCount;
+        double mean = consumed > 0 ? (totalMillis - lastTotalMillis) / consumed : Double.NaN;
+        lastCount = count;
+        lastTotalMillis = totalMillis;
+        return mean;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minPrefetch, Math.min(maxPrefetch, value));
+    }
+
+    private static void validateBounds(int minPrefetch, int maxPrefetch) {
+        if (minPrefetch <= 0 || maxPrefetch < minPrefetch) {
+            throw new IllegalArgumentException("Prefetch bounds must be positive with the minimum not above the maximum");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.electricalprovider.consumer;
+
+import com.example.electricalprovider.dto.ListenerTuning;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the smart meter listener settings at {@code /actuator/listenertuning}.
+ * A POST with any of {@code autoTune}, {@code prefetch}, {@code minPrefetch} and {@code maxPrefetch}
+ * changes them at runtime, e.g. to pin the prefetch while measuring throughput.
+ */
+@Component
+@Endpoint(id = "listenertuning")
+public class ListenerTuningEndpoint {
+
+    private final ListenerTuner listenerTuner;
+
+    /**
+     * Constructor for ListenerTuningEndpoint.
+     *
+     * @param listenerTuner the tuner holding the settings
+     */
+    public ListenerTuningEndpoint(ListenerTuner listenerTuner) {
+        this.listenerTuner = listenerTuner;
+    }
+
+    /**
+     * Returns the current listener settings.
+     *
+     * @return the listener tuning
+     */
+    @ReadOperation
+    public ListenerTuning settings() {
+        return listenerTuner.settings();
+    }
+
+    /**
+     * Changes the listener settings.
+     *
+     * @param autoTune whether the prefetch is adjusted automatically
+     * @param prefetch the prefetch to apply now
+     * @param minPrefetch the lowest prefetch the tuner uses
+     * @param maxPrefetch the highest prefetch the tuner uses
+     * @return the settings after the change
+     */
+    @WriteOperation
+    public ListenerTuning update(@Nullable Boolean autoTune, @Nullable Integer prefetch,
+                                 @Nullable Integer minPrefetch, @Nullable Integer maxPrefetch) {
+        try {
+            return listenerTuner.update(autoTune, prefetch, minPrefetch, maxPrefetch);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.electricalprovider.consumer;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.ReturnListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides what happens to a reading the listener failed to process.
+ * <p>
+ * Validation failures, a {@link IllegalArgumentException} or an unreadable message, and readings missing
+ * a required value, which surface as a {@link NullPointerException}, fail the same way however often they
+ * are retried and go straight to the dead-letter queue. Any other failure, typically
+ * MongoDB being unavailable, is retried through the retry queues with growing delays, see
+ * {@code RabbitMQConfig}, and dead-lettered once the delays are used up. Either way the message is
+ * republished and the original acknowledged, so a poison message never blocks or spins the consumer.
+ * The republish is mandatory and waits for the broker's confirm, so the original is only acknowledged
+ * once the copy is safely in a queue.
+ * </p>
+ */
+@Component
+public class ReadingFailureHandler {
+
+    /**
+     * Header naming the queue a retried or dead-lettered message is returned to. It must not start with
+     * {@code x-}, since the headers exchange routing retries back ignores such headers.
+     */
+    public static final String ORIGINAL_QUEUE_HEADER = "original-queue";
+
+    /**
+     * Header counting the retries a message has been through.
+     */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    /**
+     * Headers describing the last failure of a message.
+     */
+    public static final String EXCEPTION_HEADER = "x-exception";
+    public static final String EXCEPTION_MESSAGE_HEADER = "x-exception-message";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingFailureHandler.class);
+
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    private final String retryQueuePrefix;
+
+    private final int maxRetries;
+
+    private final String deadLetterExchangeName;
+
+    private final String deadLetterQueueName;
+
+    private final Duration confirmTimeout;
+
+    private final Counter retried;
+
+    private final Counter deadLettered;
+
+    /**
+     * Constructor for ReadingFailureHandler.
+     *
+     * @param rabbitTemplate the template republishing failed messages, in publisher confirm mode
+     * @param retryQueuePrefix the name of the retry queues without the attempt number
+     * @param retryDelays the backoff delays, one retry queue each
+     * @param deadLetterExchangeName the exchange of the dead-letter queue
+     * @param deadLetterQueueName the dead-letter queue, also its routing key
+     * @param confirmTimeout the time to wait for the broker to confirm a republished message
+     * @param meterRegistry the registry the failure counters are published to
+     */
+    public ReadingFailureHandler(RabbitTemplate rabbitTemplate,
+                                 @Value("${rabbitmq.retry.queue-prefix}") String retryQueuePrefix,
+                                 @Value("${rabbitmq.retry.delays}") List<Duration> retryDelays,
+                                 @Value("${rabbitmq.dead-letter.exchange.name}") String deadLetterExchangeName,
+                                 @Value("${rabbitmq.dead-letter.queue.name}") String deadLetterQueueName,
+                                 @Value("${rabbitmq.republish.confirm-timeout}") Duration confirmTimeout,
+                                 MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryQueuePrefix = retryQueuePrefix;
+        this.maxRetries = retryDelays.size();
+        this.deadLetterExchangeName = deadLetterExchangeName;
+        this.deadLetterQueueName = deadLetterQueueName;
+        this.confirmTimeout = confirmTimeout;
+        this.retried = Counter.builder("smartmeter.pipeline.failures")
+                .description("Readings that failed processing, by what was done with them")
+                .tag("action", "retry")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("smartmeter.pipeline.failures")
+                .description("Readings that failed processing, by what was done with them")
+                .tag("action", "dead-letter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retries or dead-letters a failed message. Once this returns, the original may be acknowledged;
+     * if republishing fails the exception propagates and the original is requeued by the container.
+     *
+     * @param message the message as received
+     * @param failure the exception processing it threw
+     * @return "retry" or "dead-letter", depending on what was done with the message
+     * @throws AmqpException if the broker did not confirm the republished message in time, rejected it or
+     *         could not route it to a queue
+     */
+    public String handle(Message message, Exception failure) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        Integer retryCount = properties.getHeader(RETRY_COUNT_HEADER);
+        int attempt = retryCount == null ? 0 : retryCount;
+
+        properties.setHeader(ORIGINAL_QUEUE_HEADER, queue);
+        properties.setHeader(EXCEPTION_HEADER, failure.getClass().getName());
+        properties.setHeader(EXCEPTION_MESSAGE_HEADER, failure.getMessage());
+
+        if (isRetryable(failure) && attempt < maxRetries) {
+            properties.setHeader(RETRY_COUNT_HEADER, attempt + 1);
+            republish("", retryQueuePrefix + (attempt + 1), message);
+            retried.increment();
+            logger.warn("Reading from {} failed, retry {} of {}: {}", queue, attempt + 1, maxRetries, failure.getMessage());
+            return "retry";
+        }
+        republish(deadLetterExchangeName, deadLetterQueueName, message);
+        deadLettered.increment();
+        logger.warn("Reading from {} dead-lettered after {} retries: {}", queue, attempt, failure.getMessage());
+        return "dead-letter";
+    }
+
+    /**
+     * Publishes a message as mandatory and waits for the broker to confirm it, as the dead-letter replay does.
+     * The broker returns an unroutable mandatory message before confirming it.
+     */
+    private void republish(String exchange, String routingKey, Message message) {
+        AMQP.BasicProperties properties = propertiesConverter.fromMessageProperties(
+                message.getMessageProperties(), ENCODING);
+        rabbitTemplate.execute(channel -> {
+            AtomicBoolean returned = new AtomicBoolean();
+            ReturnListener returnListener = (replyCode, replyText, returnedExchange, returnedRoutingKey,
+                                             returnedProperties, body) -> returned.set(true);
+            channel.addReturnListener(returnListener);
+            try {
+                channel.basicPublish(exchange, routingKey, true, properties, message.getBody());
+                // Closes the channel on a nack or timeout
+                channel.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            } finally {
+                channel.removeReturnListener(returnListener);
+            }
+            if (returned.get()) {
+                throw new AmqpException("Failed reading could not be routed with " + routingKey
+                        + " on '" + exchange + "'");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether a failure may go away on its own.
+     *
+     * @param failure the exception processing the message threw
+     * @return false for validation failures and missing values, true otherwise
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException || cause instanceof MessageConversionException
+                    || cause instanceof NullPointerException) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,12 +2,22 @@ package com.example.electricalprovider.consumer;
 
 import com.example.electricalprovider.models.smartMeterModel;
 import com.example.electricalprovider.service.SmartMeterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * Service class responsible for routing smart meter data.
@@ -16,25 +26,96 @@ import org.springframework.stereotype.Service;
 @Service
 public class SmartMeterRouterService {
 
+    /**
+     * Header the citizen publisher stamps with the publish time in epoch milliseconds.
+     */
+    static final String PUBLISH_TIMESTAMP_HEADER = "x-publish-timestamp";
+
+    private static final Logger logger = LoggerFactory.getLogger(SmartMeterRouterService.class);
+
+    /**
+     * Marker of the per-message receive log, sampled by logback-spring.xml.
+     */
+    private static final Marker READING_RECEIVED = MarkerFactory.getMarker("reading-received");
+
     private final SmartMeterService smartMeterService;
 
+    private final ReadingFailureHandler readingFailureHandler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer queueDwellTimer;
+
+    private final Timer endToEndTimer;
+
     @Autowired
-    public SmartMeterRouterService(SmartMeterService smartMeterService) {
+    public SmartMeterRouterService(SmartMeterService smartMeterService, ReadingFailureHandler readingFailureHandler,
+                                   MeterRegistry meterRegistry) {
         this.smartMeterService = smartMeterService;
+        this.readingFailureHandler = readingFailureHandler;
+        this.meterRegistry = meterRegistry;
+        this.queueDwellTimer = Timer.builder("smartmeter.pipeline.queue.dwell")
+                .description("Time a reading spent between publish and consumption")
+                .register(meterRegistry);
+        this.endToEndTimer = Timer.builder("smartmeter.pipeline.end.to.end")
+                .description("Time from publish until a reading is persisted, scraped by the load tester")
+                .register(meterRegistry);
     }
 
     /**
-     * Listens for smart meter data messages from the queue and processes them.
+     * Listens for smart meter data messages from the shard queues and processes them.
+     * <p>
+     * Readings are written behind, so the listener returns a future, and the container acknowledges the
+     * message once it completes: a reading is never acknowledged before it is stored. A reading that
+     * fails is handed to the {@link ReadingFailureHandler} and acknowledged, rather than requeued in place
+     * where a poison message would be redelivered forever; only if that fails too does the future fail,
+     * and the message is rejected and requeued.
+     * </p>
      *
      * @param smartMeterData the received smart meter data
+     * @param message the received message, republished if processing fails
+     * @param publishedAt the publish time in epoch milliseconds, absent for messages from older publishers
+     * @return a future completed when the message may be acknowledged
      */
-    @RabbitListener(queues = "${rabbitmq.queue.name}")
-    public void routeToProviderQueue(smartMeterModel smartMeterData) {
-        System.out.println("Received smart meter data: " + smartMeterData);
-        smartMeterService.processSmartMeterData(smartMeterData);
+    @RabbitListener(queues = "#{shardQueueNames}")
+    public CompletableFuture<Void> routeToProviderQueue(smartMeterModel smartMeterData, Message message,
+                                                        @Header(name = PUBLISH_TIMESTAMP_HEADER, required = false) Long publishedAt) {
+        if (publishedAt != null) {
+            queueDwellTimer.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+        }
+        logger.info(READING_RECEIVED, "Received smart meter data for customer {} from provider {}",
+                smartMeterData.getCustomerId(), smartMeterData.getProviderId());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<Void> written;
+        try {
+            written = smartMeterService.processSmartMeterData(smartMeterData);
+        } catch (RuntimeException e) {
+            written = CompletableFuture.failedFuture(e);
+        }
+        return written.handle((ignored, failure) -> {
+            String outcome = "failure";
+            try {
+                if (failure == null) {
+                    outcome = "success";
+                    if (publishedAt != null) {
+                        endToEndTimer.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+                    }
+                } else {
+                    outcome = readingFailureHandler.handle(message, unwrap(failure));
+                }
+                return null;
+            } finally {
+                sample.stop(Timer.builder("smartmeter.pipeline.consume")
+                        .description("Latency of consuming a reading, from receipt to persistence")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        });
     }
-}
-
-
-
 
+    private static Exception unwrap(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        return cause instanceof Exception exception ? exception : new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.electricalprovider.controller;
+
+import com.example.electricalprovider.dto.DeadLetterStatus;
+import com.example.electricalprovider.service.DeadLetterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the readings that failed ingestion and were dead-lettered.
+ */
+@RestController
+@RequestMapping("/api/electricalProvider/deadLetters")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+
+    private final DeadLetterService deadLetterService;
+
+    /**
+     * Constructor for DeadLetterController.
+     *
+     * @param deadLetterService the service managing the dead-letter queue
+     */
+    public DeadLetterController(DeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    /**
+     * Retrieves the number of readings in the dead-letter queue.
+     *
+     * @return ResponseEntity with the dead-letter queue status or an error message
+     */
+    @GetMapping
+    public ResponseEntity<?> getDeadLetterStatus() {
+        try {
+            DeadLetterStatus status = deadLetterService.status();
+            return ResponseEntity.ok(status);
+        } catch (Exception e) {
+            logger.error("Error reading dead-letter queue: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error reading dead-letter queue: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays dead-lettered readings to the queue they failed on, once the cause has been fixed.
+     *
+     * @param limit the maximum number of readings to replay
+     * @return ResponseEntity with the number of readings replayed or an error message
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<String> replayDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        try {
+            int replayed = deadLetterService.replay(limit);
+            return ResponseEntity.ok("Replayed " + replayed + " dead-lettered readings");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error replaying dead-lettered readings: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error replaying dead-lettered readings: " + e.getMessage());
+        }
+    }
+}
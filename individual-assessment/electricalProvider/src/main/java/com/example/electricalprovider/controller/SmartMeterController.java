@@ -3,13 +3,21 @@ package com.example.electricalprovider.controller;
 import com.example.electricalprovider.dto.ProviderSmartMeterSummary;
 import com.example.electricalprovider.dto.UserSmartMeterReport;
 import com.example.electricalprovider.service.SmartMeterService;
+import com.example.electricalprovider.service.UserReportBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -21,15 +29,19 @@ public class SmartMeterController {
 
     public final SmartMeterService smartMeterService;
 
+    private final ObjectMapper objectMapper;
+
     /**
      * Constructor for SmartMeterController.
      *
      * @param smartMeterService the service for managing smart meter data
+     * @param objectMapper the mapper the streamed reports are written with
      */
     @Autowired
-    public SmartMeterController(SmartMeterService smartMeterService) {
+    public SmartMeterController(SmartMeterService smartMeterService, ObjectMapper objectMapper) {
 
         this.smartMeterService = smartMeterService;
+        this.objectMapper = objectMapper;
     }
 
     private static final Logger logger = LoggerFactory.getLogger(SmartMeterController.class);
@@ -60,12 +72,16 @@ public class SmartMeterController {
      *
      * @param providerId the ID of the provider
      * @param customerId the ID of the customer
+     * @param month the month to summarize, as yyyy-MM; the current month if not given
      * @return ResponseEntity with the summary data or error message
      */
     @GetMapping("/users/{customerId}/summary")
-    public ResponseEntity<?> getSummarySmartMeterDataByUser(@PathVariable String providerId, @PathVariable String customerId) {
+    public ResponseEntity<?> getSummarySmartMeterDataByUser(@PathVariable String providerId, @PathVariable String customerId,
+                                                            @RequestParam(required = false) YearMonth month) {
         try {
-            UserSmartMeterReport message = smartMeterService.summarySmartMeterDataByUser(providerId, customerId);
+            UserSmartMeterReport message = month == null
+                    ? smartMeterService.summarySmartMeterDataByUser(providerId, customerId)
+                    : smartMeterService.summarySmartMeterDataByUser(providerId, customerId, month);
             return ResponseEntity.ok(message);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -75,6 +91,48 @@ public class SmartMeterController {
         }
     }
 
+    /**
+     * Streams summary smart meter data for every user of the provider, for billing runs.
+     * <p>
+     * The reports are written as newline-delimited JSON, one per line, as they are computed, so neither side
+     * holds all of them. Errors found before the first report are returned as usual; an error after that
+     * ends the stream early, so a billing run should check it got a report for every customer it expects.
+     * </p>
+     *
+     * @param providerId the ID of the provider
+     * @param month the month to summarize, as yyyy-MM; the current month if not given
+     * @return ResponseEntity with the streamed summary data or error message
+     */
+    @GetMapping("/users/summary")
+    public ResponseEntity<StreamingResponseBody> getSummarySmartMeterDataByUsers(@PathVariable String providerId,
+                                                                                 @RequestParam(required = false) YearMonth month) {
+        try {
+            UserReportBatch reports = smartMeterService.summarySmartMeterDataByUsers(providerId,
+                    month == null ? YearMonth.now() : month);
+            StreamingResponseBody body = outputStream -> reports.forEach(report -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(report));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        } catch (IllegalArgumentException e) {
+            return streamedMessage(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return streamedMessage(HttpStatus.INTERNAL_SERVER_ERROR, "An error occurred. Please try again later.");
+        }
+    }
+
+    /**
+     * Wraps an error message, since a streaming endpoint can only return a streamed body.
+     */
+    private static ResponseEntity<StreamingResponseBody> streamedMessage(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN)
+                .body(outputStream -> outputStream.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
     /**
      * Retrieves summary smart meter data for an electrical provider.
      *
@@ -0,0 +1,55 @@
+package com.example.electricalprovider.controller;
+
+import com.example.electricalprovider.dto.TestDataGenerationRequest;
+import com.example.electricalprovider.dto.TestDataGenerationStatus;
+import com.example.electricalprovider.service.TestDataGeneratorService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for generating synthetic smart meter data at capacity-test scale.
+ */
+@RestController
+@RequestMapping("/api/electricalProvider/generator")
+public class TestDataGeneratorController {
+
+    private final TestDataGeneratorService testDataGeneratorService;
+
+    /**
+     * Constructor for TestDataGeneratorController.
+     *
+     * @param testDataGeneratorService the service generating the synthetic data
+     */
+    public TestDataGeneratorController(TestDataGeneratorService testDataGeneratorService) {
+        this.testDataGeneratorService = testDataGeneratorService;
+    }
+
+    /**
+     * Starts a generation run in the background.
+     *
+     * @param request the run's settings, any of which may be omitted
+     * @return ResponseEntity with the initial status of the run or an error message
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> startGeneration(@RequestBody(required = false) TestDataGenerationRequest request) {
+        try {
+            testDataGeneratorService.generate(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(testDataGeneratorService.status());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the progress and throughput of the current or last generation run.
+     *
+     * @return ResponseEntity with the status of the run
+     */
+    @GetMapping("/status")
+    public ResponseEntity<TestDataGenerationStatus> getGenerationStatus() {
+        return ResponseEntity.ok(testDataGeneratorService.status());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.electricalprovider.dto;
+
+/**
+ * Data Transfer Object (DTO) for the readings waiting in the dead-letter queue.
+ * This class is used to transfer data between processes.
+ */
+public class DeadLetterStatus {
+
+    private String queue;
+
+    private long messageCount;
+
+    /**
+     * Default constructor.
+     */
+    public DeadLetterStatus() {
+    }
+
+    /**
+     * Parameterized constructor.
+     *
+     * @param queue the name of the dead-letter queue
+     * @param messageCount the number of readings waiting in it
+     */
+    public DeadLetterStatus(String queue, long messageCount) {
+        this.queue = queue;
+        this.messageCount = messageCount;
+    }
+
+    public String getQueue() {
+        return queue;
+    }
+
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(long messageCount) {
+        this.messageCount = messageCount;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.electricalprovider.dto;
+
+/**
+ * Data Transfer Object (DTO) for the current settings of the smart meter listener and the samples they are tuned on.
+ * This class is used to transfer data between processes.
+ */
+public class ListenerTuning {
+
+    private boolean autoTune;
+
+    private int prefetch;
+
+    private int minPrefetch;
+
+    private int maxPrefetch;
+
+    private int consumersPerQueue;
+
+    private long queueDepth;
+
+    private double meanLatencyMillis;
+
+    private long latencyTargetMillis;
+
+    /**
+     * Default constructor.
+     */
+    public ListenerTuning() {
+    }
+
+    /**
+     * Parameterized constructor.
+     *
+     * @param autoTune whether the prefetch is adjusted automatically
+     * @param prefetch the prefetch of every shard consumer
+     * @param minPrefetch the lowest prefetch the tuner uses
+     * @param maxPrefetch the highest prefetch the tuner uses
+     * @param consumersPerQueue the consumers per shard queue on this instance
+     * @param queueDepth the readings waiting in all shard queues at the last sample, -1 if unknown
+     * @param meanLatencyMillis the mean consume latency over the last sample interval, NaN without readings
+     * @param latencyTargetMillis the consume latency above which the prefetch is reduced
+     */
+    public ListenerTuning(boolean autoTune, int prefetch, int minPrefetch, int maxPrefetch, int consumersPerQueue,
+                          long queueDepth, double meanLatencyMillis, long latencyTargetMillis) {
+        this.autoTune = autoTune;
+        this.prefetch = prefetch;
+        this.minPrefetch = minPrefetch;
+        this.maxPrefetch = maxPrefetch;
+        this.consumersPerQueue = consumersPerQueue;
+        this.queueDepth = queueDepth;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.latencyTargetMillis = latencyTargetMillis;
+    }
+
+    public boolean isAutoTune() {
+        return autoTune;
+    }
+
+    public void setAutoTune(boolean autoTune) {
+        this.autoTune = autoTune;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public int getMinPrefetch() {
+        return minPrefetch;
+    }
+
+    public void setMinPrefetch(int minPrefetch) {
+        this.minPrefetch = minPrefetch;
+    }
+
+    public int getMaxPrefetch() {
+        return maxPrefetch;
+    }
+
+    public void setMaxPrefetch(int maxPrefetch) {
+        this.maxPrefetch = maxPrefetch;
+    }
+
+    public int getConsumersPerQueue() {
+        return consumersPerQueue;
+    }
+
+    public void setConsumersPerQueue(int consumersPerQueue) {
+        this.consumersPerQueue = consumersPerQueue;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(long queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public double getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    public void setMeanLatencyMillis(double meanLatencyMillis) {
+        this.meanLatencyMillis = meanLatencyMillis;
+    }
+
+    public long getLatencyTargetMillis() {
+        return latencyTargetMillis;
+    }
+
+    public void setLatencyTargetMillis(long latencyTargetMillis) {
+        this.latencyTargetMillis = latencyTargetMillis;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.electricalprovider.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for starting a synthetic smart meter data generation run.
+ * Every field is optional; a missing field falls back to the {@code generator.*} application properties.
+ */
+public class TestDataGenerationRequest {
+
+    private List<String> providerIds;
+
+    private Integer providers;
+
+    private Integer customersPerProvider;
+
+    private Integer readingsPerCustomer;
+
+    private Integer months;
+
+    private Integer chunkSize;
+
+    private Integer parallelism;
+
+    private Long seed;
+
+    private LocalDateTime end;
+
+    private Double diurnalAmplitude;
+
+    private Double seasonalAmplitude;
+
+    private Double providerSkew;
+
+    private Double customerSkew;
+
+    private Double burstProbability;
+
+    private Double lateProbability;
+
+    /**
+     * Default constructor.
+     */
+    public TestDataGenerationRequest() {
+    }
+
+    public List<String> getProviderIds() {
+        return providerIds;
+    }
+
+    /**
+     * Sets the providers to generate data for. When set, no providers are created and {@code providers} is ignored.
+     *
+     * @param providerIds the IDs of existing providers
+     */
+    public void setProviderIds(List<String> providerIds) {
+        this.providerIds = providerIds;
+    }
+
+    public Integer getProviders() {
+        return providers;
+    }
+
+    public void setProviders(Integer providers) {
+        this.providers = providers;
+    }
+
+    public Integer getCustomersPerProvider() {
+        return customersPerProvider;
+    }
+
+    public void setCustomersPerProvider(Integer customersPerProvider) {
+        this.customersPerProvider = customersPerProvider;
+    }
+
+    public Integer getReadingsPerCustomer() {
+        return readingsPerCustomer;
+    }
+
+    public void setReadingsPerCustomer(Integer readingsPerCustomer) {
+        this.readingsPerCustomer = readingsPerCustomer;
+    }
+
+    public Integer getMonths() {
+        return months;
+    }
+
+    public void setMonths(Integer months) {
+        this.months = months;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Sets the UTC time the readings end at. Together with the seed it makes a run replayable;
+     * when omitted, readings end at the start of the current day.
+     *
+     * @param end the time of the latest readings
+     */
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+
+    public Double getDiurnalAmplitude() {
+        return diurnalAmplitude;
+    }
+
+    public void setDiurnalAmplitude(Double diurnalAmplitude) {
+        this.diurnalAmplitude = diurnalAmplitude;
+    }
+
+    public Double getSeasonalAmplitude() {
+        return seasonalAmplitude;
+    }
+
+    public void setSeasonalAmplitude(Double seasonalAmplitude) {
+        this.seasonalAmplitude = seasonalAmplitude;
+    }
+
+    public Double getProviderSkew() {
+        return providerSkew;
+    }
+
+    /**
+     * Sets the Zipf exponent of the number of customers per provider; zero spreads customers evenly.
+     *
+     * @param providerSkew the skew of the provider sizes
+     */
+    public void setProviderSkew(Double providerSkew) {
+        this.providerSkew = providerSkew;
+    }
+
+    public Double getCustomerSkew() {
+        return customerSkew;
+    }
+
+    /**
+     * Sets the Zipf exponent of the number of readings per customer; zero gives every customer the same count.
+     *
+     * @param customerSkew the skew of the customer reading counts
+     */
+    public void setCustomerSkew(Double customerSkew) {
+        this.customerSkew = customerSkew;
+    }
+
+    public Double getBurstProbability() {
+        return burstProbability;
+    }
+
+    public void setBurstProbability(Double burstProbability) {
+        this.burstProbability = burstProbability;
+    }
+
+    public Double getLateProbability() {
+        return lateProbability;
+    }
+
+    public void setLateProbability(Double lateProbability) {
+        this.lateProbability = lateProbability;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.electricalprovider.dto;
+
+/**
+ * Data Transfer Object (DTO) for the progress of a synthetic smart meter data generation run.
+ * This class is used to transfer data between processes.
+ */
+public class TestDataGenerationStatus {
+
+    private String state;
+
+    private long totalReadings;
+
+    private long insertedReadings;
+
+    private long insertedUsers;
+
+    private double elapsedSeconds;
+
+    private double readingsPerSecond;
+
+    private String error;
+
+    /**
+     * Default constructor.
+     */
+    public TestDataGenerationStatus() {
+    }
+
+    /**
+     * Parameterized constructor.
+     *
+     * @param state the state of the run: RUNNING, COMPLETED or FAILED
+     * @param totalReadings the number of readings the run generates in total
+     * @param insertedReadings the number of readings inserted so far
+     * @param insertedUsers the number of customers inserted so far
+     * @param elapsedSeconds the time since the run started
+     * @param readingsPerSecond the average insert rate since the run started
+     * @param error the reason the run failed, or null
+     */
+    public TestDataGenerationStatus(String state, long totalReadings, long insertedReadings, long insertedUsers,
+                                    double elapsedSeconds, double readingsPerSecond, String error) {
+        this.state = state;
+        this.totalReadings = totalReadings;
+        this.insertedReadings = insertedReadings;
+        this.insertedUsers = insertedUsers;
+        this.elapsedSeconds = elapsedSeconds;
+        this.readingsPerSecond = readingsPerSecond;
+        this.error = error;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getTotalReadings() {
+        return totalReadings;
+    }
+
+    public void setTotalReadings(long totalReadings) {
+        this.totalReadings = totalReadings;
+    }
+
+    public long getInsertedReadings() {
+        return insertedReadings;
+    }
+
+    public void setInsertedReadings(long insertedReadings) {
+        this.insertedReadings = insertedReadings;
+    }
+
+    public long getInsertedUsers() {
+        return insertedUsers;
+    }
+
+    public void setInsertedUsers(long insertedUsers) {
+        this.insertedUsers = insertedUsers;
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    public void setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    public double getReadingsPerSecond() {
+        return readingsPerSecond;
+    }
+
+    public void setReadingsPerSecond(double readingsPerSecond) {
+        this.readingsPerSecond = readingsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.electricalprovider.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One hour or day of a customer's smart meter readings, the bucketed alternative to {@link smartMeterModel}.
+ * This class is mapped to the "smartMeterBuckets" collection in MongoDB.
+ *
+ * The readings are kept in parallel arrays, the n-th timestamp, value, entry method and alert flag belonging
+ * to the n-th reading, in the order they were stored. The document ID is {@code <customerId>:<bucket start>},
+ * so a customer's buckets are a range of the ID index and no secondary index is needed for them.
+ * Field names are kept short since they are repeated in every document.
+ */
+@Document(value = "smartMeterBuckets")
+public class ReadingBucket {
+
+    /**
+     * The bucket ID, {@code <customerId>:<bucket start>}.
+     */
+    @Id
+    private String id;
+
+    @Field("c")
+    private String customerId;
+
+    @Field("p")
+    private String providerId;
+
+    /**
+     * The start of the hour or day the readings were taken in.
+     */
+    @Field("start")
+    private LocalDateTime start;
+
+    @Field("n")
+    private int count;
+
+    @Field("ts")
+    private List<LocalDateTime> timestamps = new ArrayList<>();
+
+    /**
+     * The consumption of each reading in kWh.
+     */
+    @Field("v")
+    private List<Double> values = new ArrayList<>();
+
+    /**
+     * Whether each reading was an automated entry.
+     */
+    @Field("a")
+    private List<Boolean> automated = new ArrayList<>();
+
+    /**
+     * Whether each reading raised an alert. Buckets stored before alert flags were kept lack them for their
+     * first readings, so the flags belong to the last readings of the bucket.
+     */
+    @Field("al")
+    private List<Boolean> alerts = new ArrayList<>();
+
+    /**
+     * The lowest consumption in the bucket in kWh.
+     */
+    @Field("min")
+    private Double min;
+
+    /**
+     * The highest consumption in the bucket in kWh. Since readings only increase, this is also the last one.
+     */
+    @Field("max")
+    private Double max;
+
+    @Field("first")
+    private LocalDateTime firstTimestamp;
+
+    @Field("last")
+    private LocalDateTime lastTimestamp;
+
+    /**
+     * Default constructor required for MongoDB persistence.
+     */
+    public ReadingBucket() {
+    }
+
+    /**
+     * Builds the ID of a customer's bucket.
+     *
+     * @param customerId the ID of the customer
+     * @param start the start of the bucket
+     * @return the bucket ID
+     */
+    public static String bucketId(String customerId, LocalDateTime start) {
+        return customerId + ":" + start;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public List<LocalDateTime> getTimestamps() {
+        return timestamps;
+    }
+
+    public void setTimestamps(List<LocalDateTime> timestamps) {
+        this.timestamps = timestamps;
+    }
+
+    public List<Double> getValues() {
+        return values;
+    }
+
+    public void setValues(List<Double> values) {
+        this.values = values;
+    }
+
+    public List<Boolean> getAutomated() {
+        return automated;
+    }
+
+    public void setAutomated(List<Boolean> automated) {
+        this.automated = automated;
+    }
+
+    public List<Boolean> getAlerts() {
+        return alerts;
+    }
+
+    public void setAlerts(List<Boolean> alerts) {
+        this.alerts = alerts;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public LocalDateTime getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public void setFirstTimestamp(LocalDateTime firstTimestamp) {
+        this.firstTimestamp = firstTimestamp;
+    }
+
+    public LocalDateTime getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(LocalDateTime lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.ReadingBucket;
+import com.example.electricalprovider.models.smartMeterModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link ReadingStore} keeping one {@link ReadingBucket} per customer and hour or day.
+ * <p>
+ * A reading is appended to its bucket with an upsert filtered on the reading's timestamp not being in the
+ * bucket yet. For a reading already stored the filter matches nothing, and the upsert fails inserting
+ * a second document with the bucket's ID: a duplicate key error, as with one document per reading.
+ * A customer reading every hour adds 8,760 ID index entries a year with one document per reading, and
+ * 365 with daily buckets. The lowest and highest consumption of a bucket are kept up to date on every append.
+ * </p>
+ * <p>
+ * The granularity is part of the bucket IDs and cannot be changed once buckets are stored. Provider
+ * queries filter on the {@code p} field; an index on it is worth creating for large collections.
+ * </p>
+ */
+@Repository
+@ConditionalOnProperty(name = "storage.model", havingValue = "bucket")
+public class BucketedReadingStore implements ReadingStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ChronoUnit granularity;
+
+    private final IdDictionary idDictionary;
+
+    /**
+     * Constructor for BucketedReadingStore.
+     *
+     * @param mongoTemplate the template the buckets are read and written through
+     * @param granularity the period of one bucket, HOURS or DAYS
+     * @param idDictionary the dictionary the IDs of the returned readings are shared through
+     */
+    public BucketedReadingStore(MongoTemplate mongoTemplate,
+                                @Value("${storage.bucket.granularity}") ChronoUnit granularity,
+                                IdDictionary idDictionary) {
+        if (granularity != ChronoUnit.HOURS && granularity != ChronoUnit.DAYS) {
+            throw new IllegalArgumentException("storage.bucket.granularity must be HOURS or DAYS");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.granularity = granularity;
+        this.idDictionary = idDictionary;
+    }
+
+    @Override
+    public void insertAll(List<smartMeterModel> readings) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReadingBucket.class);
+        for (smartMeterModel reading : readings) {
+            LocalDateTime timestamp = reading.getReadingTimestamp();
+            LocalDateTime start = timestamp.truncatedTo(granularity);
+            double consumption = reading.getCurrentConsumption();
+            Query query = Query.query(Criteria.where("id").is(ReadingBucket.bucketId(reading.getCustomerId(), start))
+                    .and("timestamps").ne(timestamp));
+            Update update = new Update()
+                    .setOnInsert("customerId", reading.getCustomerId())
+                    .setOnInsert("start", start)
+                    .set("providerId", reading.getProviderId())
+                    .push("timestamps", timestamp)
+                    .push("values", consumption)
+                    .push("automated", reading.isAutomatedEntryMethod())
+                    .push("alerts", reading.isAlertFlag())
+                    .inc("count", 1)
+                    .min("min", consumption)
+                    .max("max", consumption)
+                    .min("firstTimestamp", timestamp)
+                    .max("lastTimestamp", timestamp);
+            bulk.upsert(query, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public boolean contains(smartMeterModel reading) {
+        LocalDateTime timestamp = reading.getReadingTimestamp();
+        String bucketId = ReadingBucket.bucketId(reading.getCustomerId(), timestamp.truncatedTo(granularity));
+        return mongoTemplate.exists(Query.query(Criteria.where("id").is(bucketId).and("timestamps").is(timestamp)),
+                ReadingBucket.class);
+    }
+
+    @Override
+    public Optional<Double> findHighestConsumption(String customerId) {
+        Query query = Query.query(customerBuckets(customerId))
+                .with(Sort.by(Sort.Direction.DESC, "max"))
+                .limit(1);
+        query.fields().include("max");
+        return Optional.ofNullable(mongoTemplate.findOne(query, ReadingBucket.class)).map(ReadingBucket::getMax);
+    }
+
+    @Override
+    public List<smartMeterModel> findByCustomerAndProviderBetween(String customerId, String providerId,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        // Bucket IDs sort by start time, so the period is a range of the ID index
+        Criteria period = Criteria.where("id")
+                .gte(ReadingBucket.bucketId(customerId, from.truncatedTo(granularity)))
+                .lte(ReadingBucket.bucketId(customerId, to.truncatedTo(granularity)));
+        return readings(mongoTemplate.find(Query.query(period.and("providerId").is(providerId)), ReadingBucket.class))
+                .stream()
+                .filter(reading -> !reading.getReadingTimestamp().isBefore(from)
+                        && reading.getReadingTimestamp().isBefore(to))
+                .toList();
+    }
+
+    @Override
+    public Optional<smartMeterModel> findLatestBefore(String customerId, String providerId, LocalDateTime before) {
+        // The bucket holding the time may have no earlier reading, the one before it has only earlier ones
+        Query query = Query.query(Criteria.where("id")
+                        .gte(customerId + ":")
+                        .lte(ReadingBucket.bucketId(customerId, before.truncatedTo(granularity)))
+                        .and("providerId").is(providerId))
+                .with(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(2);
+        return readings(mongoTemplate.find(query, ReadingBucket.class)).stream()
+                .filter(reading -> reading.getReadingTimestamp().isBefore(before))
+                .findFirst();
+    }
+
+    @Override
+    public List<String> findCustomersBetween(String providerId, LocalDateTime from, LocalDateTime to) {
+        // Buckets are matched by their start, so with a period not ending on a bucket boundary a customer may
+        // be listed whose readings in the last bucket are all after the period
+        Query query = Query.query(Criteria.where("providerId").is(providerId)
+                .and("start").gte(from.truncatedTo(granularity)).lt(to));
+        List<String> customerIds = new ArrayList<>(
+                mongoTemplate.findDistinct(query, "customerId", ReadingBucket.class, String.class));
+        customerIds.sort(Comparator.naturalOrder());
+        return customerIds;
+    }
+
+    @Override
+    public void forEachOfCustomersBetween(String providerId, String firstCustomerId, String lastCustomerId,
+                                          LocalDateTime from, LocalDateTime to, Consumer<smartMeterModel> action) {
+        // The customers' buckets are a range of the ID index, in customer order
+        Query query = Query.query(Criteria.where("id").gte(firstCustomerId + ":").lt(lastCustomerId + ";")
+                        .and("providerId").is(providerId)
+                        .and("start").gte(from.truncatedTo(granularity)).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "id"));
+        try (Stream<ReadingBucket> buckets = mongoTemplate.stream(query, ReadingBucket.class)) {
+            buckets.forEach(bucket -> readings(List.of(bucket)).stream()
+                    .filter(reading -> !reading.getReadingTimestamp().isBefore(from)
+                            && reading.getReadingTimestamp().isBefore(to))
+                    .forEach(action));
+        }
+    }
+
+    @Override
+    public void forEachByProvider(String providerId, Consumer<smartMeterModel> action) {
+        // By bucket start, so the readings are out of order within one hour or day only
+        Query query = Query.query(Criteria.where("providerId").is(providerId))
+                .with(Sort.by(Sort.Direction.ASC, "start"));
+        try (Stream<ReadingBucket> buckets = mongoTemplate.stream(query, ReadingBucket.class)) {
+            buckets.forEach(bucket -> readings(List.of(bucket)).forEach(action));
+        }
+    }
+
+    @Override
+    public void forEachSince(LocalDateTime from, Consumer<smartMeterModel> action) {
+        Query query = Query.query(Criteria.where("start").gte(from.truncatedTo(granularity)));
+        try (Stream<ReadingBucket> buckets = mongoTemplate.stream(query, ReadingBucket.class)) {
+            buckets.forEach(bucket -> readings(List.of(bucket)).stream()
+                    .filter(reading -> !reading.getReadingTimestamp().isBefore(from))
+                    .forEach(action));
+        }
+    }
+
+    /**
+     * Matches all buckets of a customer: the IDs starting with {@code <customerId>:}, a range of the ID index.
+     */
+    private static Criteria customerBuckets(String customerId) {
+        // ';' follows ':', so the range ends right after the customer's last bucket
+        return Criteria.where("id").gte(customerId + ":").lt(customerId + ";");
+    }
+
+    /**
+     * Unpacks buckets into one reading each, newest first.
+     */
+    private List<smartMeterModel> readings(List<ReadingBucket> buckets) {
+        List<smartMeterModel> readings = new ArrayList<>();
+        for (ReadingBucket bucket : buckets) {
+            String customerId = idDictionary.canonical(bucket.getCustomerId());
+            String providerId = idDictionary.canonical(bucket.getProviderId());
+            List<Boolean> alerts = bucket.getAlerts() == null ? List.of() : bucket.getAlerts();
+            // Readings stored before alert flags were kept have none, and come first
+            int withoutAlert = bucket.getTimestamps().size() - alerts.size();
+            for (int i = 0; i < bucket.getTimestamps().size(); i++) {
+                boolean alert = i >= withoutAlert && alerts.get(i - withoutAlert);
+                smartMeterModel reading = new smartMeterModel(providerId, bucket.getValues().get(i),
+                        bucket.getTimestamps().get(i), alert, bucket.getAutomated().get(i));
+                reading.setCustomerId(customerId);
+                reading.setId(customerId + ":" + bucket.getTimestamps().get(i));
+                readings.add(reading);
+            }
+        }
+        readings.sort(Comparator.comparing(smartMeterModel::getReadingTimestamp).reversed());
+        return readings;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link ReadingStore} keeping one {@link smartMeterModel} document per reading, the default layout.
+ * <p>
+ * The queries of a customer's readings in a period, and of a range of customers' readings for the batch
+ * reports, are served by an index on customer, provider and reading time, created at startup if missing.
+ * </p>
+ */
+@Repository
+@ConditionalOnProperty(name = "storage.model", havingValue = "document", matchIfMissing = true)
+public class DocumentReadingStore implements ReadingStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentReadingStore.class);
+
+    private final SmartMeterRepository smartMeterRepository;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final IdDictionary idDictionary;
+
+    /**
+     * Constructor for DocumentReadingStore.
+     *
+     * @param smartMeterRepository the repository of the reading documents
+     * @param mongoTemplate the template the index is created through
+     * @param idDictionary the dictionary the IDs of the returned readings are shared through
+     */
+    public DocumentReadingStore(SmartMeterRepository smartMeterRepository, MongoTemplate mongoTemplate,
+                                IdDictionary idDictionary) {
+        this.smartMeterRepository = smartMeterRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.idDictionary = idDictionary;
+    }
+
+    /**
+     * Creates the index of the period queries, unless it exists. Readings are still served without it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            mongoTemplate.indexOps(smartMeterModel.class).ensureIndex(new Index()
+                    .on("Customer ID", Sort.Direction.ASC)
+                    .on("Provider ID", Sort.Direction.ASC)
+                    .on("readingTimestamp", Sort.Direction.DESC)
+                    .named("customer_provider_readingTimestamp"));
+        } catch (Exception e) {
+            logger.warn("Could not create the reading index: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void insertAll(List<smartMeterModel> readings) {
+        smartMeterRepository.insertUnordered(readings);
+    }
+
+    @Override
+    public boolean contains(smartMeterModel reading) {
+        return smartMeterRepository.existsById(reading.getId());
+    }
+
+    @Override
+    public Optional<Double> findHighestConsumption(String customerId) {
+        return smartMeterRepository.findTopByCustomerIdOrderByCurrentConsumptionDesc(customerId)
+                .map(smartMeterModel::getCurrentConsumption);
+    }
+
+    @Override
+    public List<smartMeterModel> findByCustomerAndProviderBetween(String customerId, String providerId,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        return canonicalize(smartMeterRepository.findAllByCustomerIdAndProviderIdAndReadingTimestampBetween(
+                customerId, providerId, Range.rightOpen(from, to)));
+    }
+
+    @Override
+    public Optional<smartMeterModel> findLatestBefore(String customerId, String providerId, LocalDateTime before) {
+        return smartMeterRepository
+                .findFirstByCustomerIdAndProviderIdAndReadingTimestampLessThanOrderByReadingTimestampDesc(
+                        customerId, providerId, before)
+                .map(idDictionary::canonicalize);
+    }
+
+    @Override
+    public List<String> findCustomersBetween(String providerId, LocalDateTime from, LocalDateTime to) {
+        Query query = Query.query(Criteria.where("providerId").is(providerId)
+                .and("readingTimestamp").gte(from).lt(to));
+        List<String> customerIds = new ArrayList<>(
+                mongoTemplate.findDistinct(query, "customerId", smartMeterModel.class, String.class));
+        Collections.sort(customerIds);
+        return customerIds;
+    }
+
+    @Override
+    public void forEachOfCustomersBetween(String providerId, String firstCustomerId, String lastCustomerId,
+                                          LocalDateTime from, LocalDateTime to, Consumer<smartMeterModel> action) {
+        Query query = Query.query(Criteria.where("customerId").gte(firstCustomerId).lte(lastCustomerId)
+                        .and("providerId").is(providerId)
+                        .and("readingTimestamp").gte(from).lt(to))
+                // The order of the reading index, so nothing is sorted in memory
+                .with(Sort.by(Sort.Order.asc("customerId"), Sort.Order.asc("providerId"),
+                        Sort.Order.desc("readingTimestamp")));
+        try (Stream<smartMeterModel> readings = mongoTemplate.stream(query, smartMeterModel.class)) {
+            readings.map(idDictionary::canonicalize).forEach(action);
+        }
+    }
+
+    @Override
+    public void forEachByProvider(String providerId, Consumer<smartMeterModel> action) {
+        Query query = Query.query(Criteria.where("providerId").is(providerId))
+                .with(Sort.by(Sort.Direction.ASC, "readingTimestamp"));
+        try (Stream<smartMeterModel> readings = mongoTemplate.stream(query, smartMeterModel.class)) {
+            readings.map(idDictionary::canonicalize).forEach(action);
+        }
+    }
+
+    private List<smartMeterModel> canonicalize(List<smartMeterModel> readings) {
+        readings.forEach(idDictionary::canonicalize);
+        return readings;
+    }
+
+    @Override
+    public void forEachSince(LocalDateTime from, Consumer<smartMeterModel> action) {
+        try (Stream<smartMeterModel> readings = smartMeterRepository.streamAllByReadingTimestampGreaterThanEqual(from)) {
+            readings.forEach(action);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the customer and provider IDs, shared by the reading stores and the summaries.
+ * <p>
+ * Every document read from MongoDB comes with its own copy of the 24-character customer and provider IDs,
+ * some 64 bytes each, so a provider's million readings hold two million strings of a few thousand distinct
+ * values. The reading stores replace them with the dictionary's instance, and the columnar snapshots keep
+ * the dictionary's int handle instead of the string. Handles are dense, starting at 0, and never reused.
+ * </p>
+ * <p>
+ * An ID stays in the dictionary for the life of the application, so it grows with the number of customers
+ * and providers, not readings. Lookups of known IDs take no lock.
+ * </p>
+ */
+@Component
+public class IdDictionary {
+
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+
+    private volatile String[] ids = new String[1024];
+
+    private int size;
+
+    /**
+     * Returns the handle of an ID, adding the ID if it is new.
+     *
+     * @param id the ID
+     * @return the handle of the ID
+     */
+    public int handle(String id) {
+        Integer handle = handles.get(id);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (this) {
+            handle = handles.get(id);
+            if (handle == null) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                handle = size;
+                // The handle is only looked up once the ID is in place
+                ids[size++] = id;
+                handles.put(id, handle);
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * Returns the ID of a handle.
+     *
+     * @param handle a handle returned by {@link #handle(String)}
+     * @return the ID
+     */
+    public String id(int handle) {
+        return ids[handle];
+    }
+
+    /**
+     * Returns the dictionary's instance of an ID, adding the ID if it is new.
+     *
+     * @param id the ID, or null
+     * @return an equal string shared with every other caller, or null if the ID is null
+     */
+    public String canonical(String id) {
+        if (id == null) {
+            return null;
+        }
+        // The handle first: adding the ID may replace the array
+        int handle = handle(id);
+        return ids[handle];
+    }
+
+    /**
+     * Replaces the customer and provider IDs of a reading with the dictionary's instances.
+     *
+     * @param reading the reading
+     * @return the reading
+     */
+    public smartMeterModel canonicalize(smartMeterModel reading) {
+        reading.setCustomerId(canonical(reading.getCustomerId()));
+        reading.setProviderId(canonical(reading.getProviderId()));
+        return reading;
+    }
+
+    /**
+     * Returns the number of IDs, one more than the highest handle.
+     *
+     * @return the number of IDs
+     */
+    public int size() {
+        return handles.size();
+    }
+}
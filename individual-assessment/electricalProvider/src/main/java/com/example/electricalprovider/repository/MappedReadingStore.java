@@ -0,0 +1,423 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Optional local copy of the readings of the current and the previous month, the range the user reports
+ * query, kept off the heap in memory-mapped files.
+ * <p>
+ * Each provider and month has a segment file of fixed-width records, appended to as readings are stored.
+ * Each record links back to the previous record of its customer, and the segment keeps the latest record of
+ * every customer on the heap, so a customer's month is read by following its chain: only that customer's
+ * records are touched, however many customers the provider has, and no objects are created per reading.
+ * A record is 32 bytes:
+ * </p>
+ * <ul>
+ *     <li>0: the reading time in epoch seconds, the local time taken as UTC;</li>
+ *     <li>8: the consumption in kWh;</li>
+ *     <li>16: the 12 bytes of the customer's ObjectId;</li>
+ *     <li>28: bit 0 set for a manual entry, bits 1 to 31 the index of the customer's previous record plus one,
+ *     or 0 for its first.</li>
+ * </ul>
+ * <p>
+ * The files are a cache, not a second database: they are deleted and rebuilt from the reading store after
+ * every start. Until the rebuild is done queries are not served, and readings stored meanwhile are queued and
+ * added afterwards unless the rebuild already found them. Segments of older months are dropped when the
+ * month changes. After the rebuild only the readings this instance ingests are appended, so the store is
+ * only up to date where one instance consumes all shard queues, which is why it is off by default.
+ * </p>
+ */
+@Component
+public class MappedReadingStore implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedReadingStore.class);
+
+    private static final int RECORD_SIZE = 32;
+
+    private static final int MAX_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private enum State { DISABLED, REBUILDING, READY, FAILED }
+
+    /**
+     * Receives the readings of a scan.
+     */
+    @FunctionalInterface
+    public interface ReadingVisitor {
+
+        /**
+         * Called with each reading.
+         *
+         * @param epochSecond the reading time in epoch seconds, the local time taken as UTC
+         * @param consumption the consumption in kWh
+         * @param manualEntry whether the reading was entered manually
+         */
+        void visit(long epochSecond, double consumption, boolean manualEntry);
+    }
+
+    private final ReadingStore readingStore;
+
+    private final Path directory;
+
+    private final int initialRecords;
+
+    private final Map<SegmentKey, Segment> segments = new ConcurrentHashMap<>();
+
+    private final Queue<smartMeterModel> storedWhileRebuilding = new ConcurrentLinkedQueue<>();
+
+    private final Object rebuildLock = new Object();
+
+    private volatile State state;
+
+    private volatile YearMonth currentMonth = YearMonth.now();
+
+    /**
+     * Constructor for MappedReadingStore.
+     *
+     * @param readingStore the store the segments are rebuilt from
+     * @param enabled whether the store is used
+     * @param directory the directory of the segment files
+     * @param initialSegmentSize the size a segment file is mapped with first; it doubles when full
+     */
+    public MappedReadingStore(ReadingStore readingStore,
+                              @Value("${analytics.mapped.enabled}") boolean enabled,
+                              @Value("${analytics.mapped.directory}") Path directory,
+                              @Value("${analytics.mapped.initial-segment-size}") DataSize initialSegmentSize) {
+        if (initialSegmentSize.toBytes() < RECORD_SIZE || initialSegmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("analytics.mapped.initial-segment-size must be between "
+                    + RECORD_SIZE + " bytes and 2GB");
+        }
+        this.readingStore = readingStore;
+        this.directory = directory;
+        this.initialRecords = (int) (initialSegmentSize.toBytes() / RECORD_SIZE);
+        this.state = enabled ? State.REBUILDING : State.DISABLED;
+    }
+
+    /**
+     * Rebuilds the segments in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != State.REBUILDING) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "mapped-reading-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        try {
+            deleteSegmentFiles();
+            LocalDateTime from = YearMonth.now().minusMonths(1).atDay(1).atStartOfDay();
+            readingStore.forEachSince(from, this::append);
+            synchronized (rebuildLock) {
+                addStoredWhileRebuilding();
+                state = State.READY;
+            }
+            logger.info("Rebuilt {} reading segments in {} ms", segments.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (Exception e) {
+            synchronized (rebuildLock) {
+                state = State.FAILED;
+                storedWhileRebuilding.clear();
+            }
+            logger.error("Rebuilding the reading segments failed, user reports are served from MongoDB: {}",
+                    e.toString());
+        }
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+            return;
+        }
+        // Only what this store creates: <providerId>/<yyyy-MM>.seg
+        try (Stream<Path> providers = Files.list(directory)) {
+            for (Path provider : providers.filter(path -> ObjectId.isValid(path.getFileName().toString())).toList()) {
+                try (Stream<Path> files = Files.list(provider)) {
+                    for (Path file : files.filter(path -> path.toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the readings stored during the rebuild that the rebuild did not find, with one scan per segment.
+     */
+    private void addStoredWhileRebuilding() {
+        Map<SegmentKey, Set<RecordKey>> queued = new HashMap<>();
+        List<smartMeterModel> readings = new ArrayList<>(storedWhileRebuilding);
+        storedWhileRebuilding.clear();
+        for (smartMeterModel reading : readings) {
+            SegmentKey segmentKey = SegmentKey.of(reading);
+            if (segmentKey != null && isObjectId(reading.getCustomerId())) {
+                queued.computeIfAbsent(segmentKey, key -> new HashSet<>()).add(RecordKey.of(reading));
+            }
+        }
+        queued.forEach((segmentKey, missing) -> {
+            Segment segment = segments.get(segmentKey);
+            if (segment != null) {
+                segment.removeStored(missing);
+            }
+        });
+        for (smartMeterModel reading : readings) {
+            SegmentKey segmentKey = SegmentKey.of(reading);
+            Set<RecordKey> missing = segmentKey == null ? null : queued.get(segmentKey);
+            // Removing the key also skips a reading queued twice
+            if (missing != null && isObjectId(reading.getCustomerId()) && missing.remove(RecordKey.of(reading))) {
+                append(reading);
+            }
+        }
+    }
+
+    /**
+     * Appends a stored reading to the segment of its provider and month. Readings older than the previous
+     * month, or without valid provider and customer ObjectIds, are left out.
+     *
+     * @param reading the stored reading
+     */
+    public void add(smartMeterModel reading) {
+        if (state == State.READY) {
+            append(reading);
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (state == State.REBUILDING) {
+                storedWhileRebuilding.add(reading);
+                return;
+            }
+        }
+        if (state == State.READY) {
+            append(reading);
+        }
+    }
+
+    private void append(smartMeterModel reading) {
+        SegmentKey key = SegmentKey.of(reading);
+        if (key == null || !isObjectId(reading.getCustomerId()) || !isHot(key.month())) {
+            return;
+        }
+        try {
+            segments.computeIfAbsent(key, this::openSegment).append(reading);
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("Could not add reading of customer {} to its segment: {}", reading.getCustomerId(),
+                    e.toString());
+        }
+    }
+
+    /**
+     * Passes a customer's readings in a month to a visitor.
+     *
+     * @param providerId the ID of the provider
+     * @param customerId the ID of the customer
+     * @param month the month, the current or the previous one
+     * @param visitor the visitor called with each reading, latest stored first
+     * @return false, without calling the visitor, if the store does not hold the month: when it is disabled,
+     *         not rebuilt yet, or the month is neither the current nor the previous one
+     */
+    public boolean forEachReading(String providerId, String customerId, YearMonth month, ReadingVisitor visitor) {
+        if (state != State.READY || !isHot(month) || !isObjectId(customerId)) {
+            return false;
+        }
+        Segment segment = segments.get(new SegmentKey(providerId, month));
+        if (segment != null) {
+            segment.forEach(CustomerKey.of(customerId), visitor);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a month is the current or the previous one, dropping older segments when the month changes.
+     */
+    private boolean isHot(YearMonth month) {
+        YearMonth now = YearMonth.now();
+        if (!now.equals(currentMonth)) {
+            currentMonth = now;
+            segments.entrySet().removeIf(segment -> {
+                if (segment.getKey().month().isBefore(now.minusMonths(1))) {
+                    segment.getValue().close();
+                    return true;
+                }
+                return false;
+            });
+        }
+        return !month.isAfter(now) && !month.isBefore(now.minusMonths(1));
+    }
+
+    private static boolean isObjectId(String id) {
+        return id != null && ObjectId.isValid(id);
+    }
+
+    private Segment openSegment(SegmentKey key) {
+        try {
+            Path file = directory.resolve(key.providerId()).resolve(key.month() + SEGMENT_SUFFIX);
+            Files.createDirectories(file.getParent());
+            return new Segment(file, initialRecords);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open segment " + key, e);
+        }
+    }
+
+    /**
+     * Unmaps and deletes the segment files.
+     */
+    @Override
+    public void destroy() {
+        segments.values().forEach(Segment::close);
+        segments.clear();
+    }
+
+    private record SegmentKey(String providerId, YearMonth month) {
+
+        /**
+         * Returns the segment of a reading, or null if its provider ID cannot name a directory.
+         */
+        static SegmentKey of(smartMeterModel reading) {
+            if (!isObjectId(reading.getProviderId()) || reading.getReadingTimestamp() == null) {
+                return null;
+            }
+            return new SegmentKey(reading.getProviderId(), YearMonth.from(reading.getReadingTimestamp()));
+        }
+    }
+
+    private record CustomerKey(long high, int low) {
+
+        static CustomerKey of(String customerId) {
+            ByteBuffer customer = ByteBuffer.wrap(new ObjectId(customerId).toByteArray());
+            return new CustomerKey(customer.getLong(0), customer.getInt(8));
+        }
+    }
+
+    private record RecordKey(long customerHigh, int customerLow, long epochSecond) {
+
+        static RecordKey of(smartMeterModel reading) {
+            ByteBuffer customer = ByteBuffer.wrap(new ObjectId(reading.getCustomerId()).toByteArray());
+            return new RecordKey(customer.getLong(0), customer.getInt(8),
+                    reading.getReadingTimestamp().toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * One segment file, appended to under its lock and read without it: a record is complete before the count
+     * and the customer's latest record include it.
+     */
+    private static final class Segment {
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        private volatile MappedByteBuffer records;
+
+        private volatile int count;
+
+        /**
+         * The index of each customer's latest record.
+         */
+        private final Map<CustomerKey, Integer> latest = new ConcurrentHashMap<>();
+
+        Segment(Path file, int initialRecords) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.records = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) initialRecords * RECORD_SIZE);
+        }
+
+        synchronized void append(smartMeterModel reading) throws IOException {
+            if (count == records.capacity() / RECORD_SIZE) {
+                if (count == MAX_RECORDS) {
+                    throw new IllegalStateException("Segment " + file + " is full");
+                }
+                // The old mapping stays valid for running scans and is released by the garbage collector
+                long capacity = Math.min((long) count * 2, MAX_RECORDS);
+                records = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity * RECORD_SIZE);
+            }
+            CustomerKey customer = CustomerKey.of(reading.getCustomerId());
+            Integer previous = latest.get(customer);
+            int index = count;
+            int offset = index * RECORD_SIZE;
+            records.putLong(offset, reading.getReadingTimestamp().toEpochSecond(ZoneOffset.UTC));
+            records.putDouble(offset + 8, reading.getCurrentConsumption());
+            records.putLong(offset + 16, customer.high());
+            records.putInt(offset + 24, customer.low());
+            records.putInt(offset + 28, (previous == null ? 0 : (previous + 1) << 1)
+                    | (reading.isAutomatedEntryMethod() ? 0 : 1));
+            count++;
+            latest.put(customer, index);
+        }
+
+        void forEach(CustomerKey customer, ReadingVisitor visitor) {
+            Integer index = latest.get(customer);
+            if (index == null) {
+                return;
+            }
+            // Read after the latest record, so the mapping holds it
+            ByteBuffer buffer = records;
+            int offset = index * RECORD_SIZE;
+            while (true) {
+                int link = buffer.getInt(offset + 28);
+                visitor.visit(buffer.getLong(offset), buffer.getDouble(offset + 8), (link & 1) != 0);
+                if (link >>> 1 == 0) {
+                    return;
+                }
+                offset = ((link >>> 1) - 1) * RECORD_SIZE;
+            }
+        }
+
+        /**
+         * Removes the records of this segment from a set of record keys.
+         */
+        void removeStored(Set<RecordKey> keys) {
+            int n = count;
+            ByteBuffer buffer = records;
+            for (int offset = 0; offset < n * RECORD_SIZE && !keys.isEmpty(); offset += RECORD_SIZE) {
+                keys.remove(new RecordKey(buffer.getLong(offset + 16), buffer.getInt(offset + 24),
+                        buffer.getLong(offset)));
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete segment {}: {}", file, e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage of the smart meter readings, independent of how they are laid out in MongoDB.
+ *
+ * {@code storage.model} selects the implementation: {@code document} stores one document per reading,
+ * see {@link DocumentReadingStore}, and {@code bucket} one document per customer and hour or day, see
+ * {@link BucketedReadingStore}. Both return readings as {@link smartMeterModel}s, so the services work
+ * the same on either.
+ */
+public interface ReadingStore {
+
+    /**
+     * Stores readings in one unordered batch. Every reading is attempted even when some fail.
+     *
+     * @param readings the readings to store, with their IDs set
+     * @throws org.springframework.data.mongodb.BulkOperationException if any reading was not stored, listing
+     *         the position and error code of each; a reading already stored fails with a duplicate key error
+     */
+    void insertAll(List<smartMeterModel> readings);
+
+    /**
+     * Checks whether a reading is stored.
+     *
+     * @param reading the reading, with its ID and timestamp set
+     * @return true if the reading is stored
+     */
+    boolean contains(smartMeterModel reading);
+
+    /**
+     * Finds the highest consumption stored for a customer.
+     *
+     * @param customerId the ID of the customer
+     * @return the highest consumption, or empty if the customer has no readings
+     */
+    Optional<Double> findHighestConsumption(String customerId);
+
+    /**
+     * Finds a customer's readings with a provider taken in a period.
+     *
+     * @param customerId the ID of the customer
+     * @param providerId the ID of the provider
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @return the readings, in no particular order
+     */
+    List<smartMeterModel> findByCustomerAndProviderBetween(String customerId, String providerId,
+                                                           LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds a customer's last reading with a provider taken before a time.
+     *
+     * @param customerId the ID of the customer
+     * @param providerId the ID of the provider
+     * @param before the time, exclusive
+     * @return the reading, or empty if the customer has none before the time
+     */
+    Optional<smartMeterModel> findLatestBefore(String customerId, String providerId, LocalDateTime before);
+
+    /**
+     * Finds the customers with readings with a provider taken in a period.
+     *
+     * @param providerId the ID of the provider
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @return the IDs of the customers, in ascending order
+     */
+    List<String> findCustomersBetween(String providerId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams the readings with a provider taken in a period of the customers in a range of IDs, without
+     * holding them in memory. The readings are grouped by customer, the customers in ascending ID order;
+     * a customer's readings are in no particular order.
+     *
+     * @param providerId the ID of the provider
+     * @param firstCustomerId the ID of the first customer, inclusive
+     * @param lastCustomerId the ID of the last customer, inclusive
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @param action the action called with each reading
+     */
+    void forEachOfCustomersBetween(String providerId, String firstCustomerId, String lastCustomerId,
+                                   LocalDateTime from, LocalDateTime to, Consumer<smartMeterModel> action);
+
+    /**
+     * Streams all readings of a provider's customers, without holding them in memory. The readings come
+     * roughly oldest first, exactly so for the document layout.
+     *
+     * @param providerId the ID of the provider
+     * @param action the action called with each reading
+     */
+    void forEachByProvider(String providerId, Consumer<smartMeterModel> action);
+
+    /**
+     * Streams all readings taken at or after a time, without holding them in memory, in no particular order.
+     *
+     * @param from the time of the oldest reading to include
+     * @param action the action called with each reading
+     */
+    void forEachSince(LocalDateTime from, Consumer<smartMeterModel> action);
+}
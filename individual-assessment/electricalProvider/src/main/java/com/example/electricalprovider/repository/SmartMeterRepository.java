@@ -1,17 +1,26 @@
 package com.example.electricalprovider.repository;
 
 import com.example.electricalprovider.models.smartMeterModel;
+import org.springframework.data.domain.Range;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SmartMeterRepository extends MongoRepository<smartMeterModel, String> {
+public interface SmartMeterRepository extends MongoRepository<smartMeterModel, String>, SmartMeterRepositoryCustom {
     Optional<smartMeterModel> findTopByCustomerIdOrderByCurrentConsumptionDesc(String customerId);
 
     Optional<List<smartMeterModel>> findAllByCustomerIdAndProviderIdOrderByReadingTimestampDesc(String customerId, String providerId);
 
     Optional<List<smartMeterModel>> findAllByProviderIdOrderByReadingTimestampDesc(String providerId);
+
+    Stream<smartMeterModel> streamAllByReadingTimestampGreaterThanEqual(LocalDateTime from);
+
+    List<smartMeterModel> findAllByCustomerIdAndProviderIdAndReadingTimestampBetween(String customerId, String providerId, Range<LocalDateTime> period);
+
+    Optional<smartMeterModel> findFirstByCustomerIdAndProviderIdAndReadingTimestampLessThanOrderByReadingTimestampDesc(String customerId, String providerId, LocalDateTime before);
 }
@@ -0,0 +1,23 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+
+import java.util.List;
+
+/**
+ * Batched reading writes of the smart meter repository.
+ *
+ * @see SmartMeterRepositoryCustomImpl
+ */
+public interface SmartMeterRepositoryCustom {
+
+    /**
+     * Inserts readings with a single unordered {@code insertMany}. The server attempts every document
+     * even when some fail, so one duplicate does not hold back the rest of the batch.
+     *
+     * @param readings the readings to insert, with their IDs set
+     * @throws org.springframework.data.mongodb.BulkOperationException if any reading was not inserted,
+     *         listing the position and error code of each; the other readings are stored
+     */
+    void insertUnordered(List<smartMeterModel> readings);
+}
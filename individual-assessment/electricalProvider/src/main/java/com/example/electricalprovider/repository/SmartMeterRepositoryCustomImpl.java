@@ -0,0 +1,29 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * {@link MongoTemplate} implementation of {@link SmartMeterRepositoryCustom}, picked up by Spring Data
+ * as a fragment of {@link SmartMeterRepository}.
+ */
+public class SmartMeterRepositoryCustomImpl implements SmartMeterRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public SmartMeterRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void insertUnordered(List<smartMeterModel> readings) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, smartMeterModel.class)
+                .insert(readings)
+                .execute();
+    }
+}
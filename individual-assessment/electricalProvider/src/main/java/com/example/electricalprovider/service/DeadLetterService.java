@@ -0,0 +1,211 @@
+package com.example.electricalprovider.service;
+
+import com.example.common.messaging.ReadingShards;
+import com.example.electricalprovider.consumer.ReadingFailureHandler;
+import com.example.electricalprovider.dto.DeadLetterStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service for inspecting the dead-letter queue and replaying its readings once the cause is fixed.
+ */
+@Service
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+
+    private static final String ENCODING = StandardCharsets.UTF_8.name();
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final AmqpAdmin amqpAdmin;
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    private final ObjectMapper objectMapper;
+
+    private final String deadLetterQueueName;
+
+    private final String exchangeName;
+
+    private final String routingKeyPrefix;
+
+    private final int shards;
+
+    private final Duration confirmTimeout;
+
+    /**
+     * Constructor for DeadLetterService.
+     *
+     * @param rabbitTemplate the template whose channel moves the messages, in publisher confirm mode
+     * @param amqpAdmin the admin reading the dead-letter queue's depth
+     * @param objectMapper the mapper reading the customer ID of a reading
+     * @param deadLetterQueueName the dead-letter queue
+     * @param exchangeName the exchange the publishers send readings to
+     * @param routingKeyPrefix the prefix of the shard routing keys
+     * @param shards the number of shard queues
+     * @param confirmTimeout the time to wait for the broker to confirm a replayed reading
+     */
+    public DeadLetterService(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, ObjectMapper objectMapper,
+                             @Value("${rabbitmq.dead-letter.queue.name}") String deadLetterQueueName,
+                             @Value("${rabbitmq.exchange.name}") String exchangeName,
+                             @Value("${rabbitmq.routing.key-prefix}") String routingKeyPrefix,
+                             @Value("${rabbitmq.shards}") int shards,
+                             @Value("${rabbitmq.republish.confirm-timeout}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.objectMapper = objectMapper;
+        this.deadLetterQueueName = deadLetterQueueName;
+        this.exchangeName = exchangeName;
+        this.routingKeyPrefix = routingKeyPrefix;
+        this.shards = shards;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Retrieves the number of readings waiting in the dead-letter queue.
+     *
+     * @return the dead-letter queue and its depth
+     * @throws IllegalStateException if the dead-letter queue does not exist
+     */
+    public DeadLetterStatus status() {
+        QueueInformation information = amqpAdmin.getQueueInfo(deadLetterQueueName);
+        if (information == null) {
+            throw new IllegalStateException("Dead-letter queue " + deadLetterQueueName + " does not exist");
+        }
+        return new DeadLetterStatus(deadLetterQueueName, information.getMessageCount());
+    }
+
+    /**
+     * Moves readings from the dead-letter queue back to their shard queue, oldest first, with their retry
+     * count and failure headers cleared so they get the full set of retries again.
+     * <p>
+     * A reading goes to the current shard of its customer, through the exchange the publishers use, so it
+     * joins the customer's other readings even if the number of shards changed since it failed. Each
+     * reading is published as mandatory and only acknowledged on the dead-letter queue once the broker
+     * confirmed it was routed to a queue, so a failure part way leaves it in the dead-letter queue, or at
+     * worst in both queues, never in neither. A reading the broker could not route, or without a customer
+     * ID and a known original queue, is left in the dead-letter queue.
+     * </p>
+     *
+     * @param limit the maximum number of readings to take from the dead-letter queue
+     * @return the number of readings replayed
+     * @throws IllegalArgumentException if the limit is not positive
+     * @throws org.springframework.amqp.AmqpException if a reading was not confirmed in time or was rejected by
+     *         the broker; the readings replayed until then stay replayed
+     */
+    public int replay(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            // The broker returns an unroutable mandatory message before confirming it
+            AtomicBoolean returned = new AtomicBoolean();
+            ReturnListener returnListener = (replyCode, replyText, exchange, routingKey, properties, body) ->
+                    returned.set(true);
+            channel.addReturnListener(returnListener);
+            List<Long> kept = new ArrayList<>();
+            try {
+                int count = 0;
+                int taken = 0;
+                GetResponse response;
+                while (taken < limit && (response = channel.basicGet(deadLetterQueueName, false)) != null) {
+                    taken++;
+                    long deliveryTag = response.getEnvelope().getDeliveryTag();
+                    MessageProperties properties = propertiesConverter.toMessageProperties(
+                            response.getProps(), response.getEnvelope(), ENCODING);
+                    Route route = route(properties, response.getBody());
+                    if (route == null) {
+                        logger.warn("Dead-lettered message {} has no customer ID or original queue, kept",
+                                properties.getMessageId());
+                        kept.add(deliveryTag);
+                        continue;
+                    }
+                    properties.getHeaders().remove(ReadingFailureHandler.ORIGINAL_QUEUE_HEADER);
+                    properties.getHeaders().remove(ReadingFailureHandler.RETRY_COUNT_HEADER);
+                    properties.getHeaders().remove(ReadingFailureHandler.EXCEPTION_HEADER);
+                    properties.getHeaders().remove(ReadingFailureHandler.EXCEPTION_MESSAGE_HEADER);
+                    properties.getHeaders().remove("x-death");
+                    AMQP.BasicProperties basicProperties = propertiesConverter.fromMessageProperties(properties, ENCODING);
+                    returned.set(false);
+                    channel.basicPublish(route.exchange(), route.routingKey(), true, basicProperties, response.getBody());
+                    // Closes the channel on a nack or timeout, which puts the unacknowledged readings back
+                    channel.waitForConfirmsOrDie(confirmTimeout.toMillis());
+                    if (returned.get()) {
+                        logger.warn("Replayed reading could not be routed with {} on '{}', kept", route.routingKey(),
+                                route.exchange());
+                        kept.add(deliveryTag);
+                        continue;
+                    }
+                    channel.basicAck(deliveryTag, false);
+                    count++;
+                }
+                // Only now, or basicGet would take them again
+                for (long deliveryTag : kept) {
+                    channel.basicNack(deliveryTag, false, true);
+                }
+                return count;
+            } finally {
+                channel.removeReturnListener(returnListener);
+            }
+        });
+        logger.info("Replayed {} readings from {}", replayed, deadLetterQueueName);
+        return replayed == null ? 0 : replayed;
+    }
+
+    /**
+     * Picks where a dead-lettered reading is replayed to: the shard of its customer, or for a message whose
+     * customer ID cannot be read, the queue it failed on, as set by the failure handler or, for messages the
+     * listener rejected, recorded by the broker when dead-lettering them.
+     *
+     * @return the route, or null if there is neither
+     */
+    private Route route(MessageProperties properties, byte[] body) {
+        String customerId = customerId(body);
+        if (customerId != null) {
+            return new Route(exchangeName, routingKeyPrefix + ReadingShards.shardOf(customerId, shards));
+        }
+        String queue = properties.getHeader(ReadingFailureHandler.ORIGINAL_QUEUE_HEADER);
+        if (queue != null) {
+            return new Route("", queue);
+        }
+        List<Map<String, ?>> deaths = properties.getXDeathHeader();
+        if (deaths != null && !deaths.isEmpty() && deaths.get(0).get("queue") != null) {
+            return new Route("", deaths.get(0).get("queue").toString());
+        }
+        return null;
+    }
+
+    private String customerId(byte[] body) {
+        try {
+            JsonNode customerId = objectMapper.readTree(body).path("customerId");
+            return customerId.isTextual() ? customerId.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private record Route(String exchange, String routingKey) {
+    }
+}
@@ -1,22 +1,17 @@
 package com.example.electricalprovider.service;
 
 import com.example.electricalprovider.dto.ElectricalProviderUpdateDTO;
+import com.example.electricalprovider.dto.TestDataGenerationRequest;
 import com.example.electricalprovider.models.ElectricalProviderModel;
-import com.example.electricalprovider.models.UserModel;
-import com.example.electricalprovider.models.smartMeterModel;
 import com.example.electricalprovider.repository.ElectricalProviderRepository;
 import com.example.electricalprovider.repository.SmartMeterRepository;
 import com.example.electricalprovider.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.UUID;
 
 /**
  * Service class responsible for handling electrical provider data.
@@ -24,20 +19,27 @@ import java.util.UUID;
 @Service
 public class ElectricalProviderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ElectricalProviderService.class);
+
     private final ElectricalProviderRepository ElectricalProviderRepository;
     private final SmartMeterRepository smartMeterRepository;
 
     private final UserRepository UserRepository;
+
+    private final TestDataGeneratorService testDataGeneratorService;
     /**
      * Constructor for ElectricalProviderService.
      *
      * @param ElectricalProviderRepository the repository for electrical provider data
+     * @param testDataGeneratorService the generator of the sample customers and readings
      */
     @Autowired
-    public ElectricalProviderService(ElectricalProviderRepository ElectricalProviderRepository, SmartMeterRepository smartMeterRepository, UserRepository UserRepository) {
+    public ElectricalProviderService(ElectricalProviderRepository ElectricalProviderRepository, SmartMeterRepository smartMeterRepository, UserRepository UserRepository,
+                                     TestDataGeneratorService testDataGeneratorService) {
         this.ElectricalProviderRepository = ElectricalProviderRepository;
         this.smartMeterRepository = smartMeterRepository;
         this.UserRepository = UserRepository;
+        this.testDataGeneratorService = testDataGeneratorService;
     }
 
     /**
@@ -161,65 +163,15 @@ public class ElectricalProviderService {
         generateTestData();
     }
 
+    /**
+     * Generates readings and customers for the three sample providers through the test data generator.
+     */
     public void generateTestData() {
-        List<smartMeterModel> testData = new ArrayList<>();
-        List<UserModel> userData = new ArrayList<>();
-        Random random = new Random();
-        String[] providerIds = {"507f1f77bcf86cd799439010", "507f1f77bcf86cd799439011", "507f1f77bcf86cd799439012"};
-        int customersPerProvider = 50;
-        int months = 6;
-        int dataPerMonth = 50;
-
-        for (String providerId : providerIds) {
-            for (int customerIndex = 1; customerIndex <= customersPerProvider; customerIndex++) {
-                String customerId = "customer" + customerIndex;
-                UserModel user = new UserModel();
-                user.setId(UUID.randomUUID().toString());
-                user.setProviderId(providerId);
-                user.setDatabaseNo(random.nextInt(100));
-                user.setName("Customer " + customerIndex);
-                user.setEmail("customer" + customerIndex + "@example.com");
-                user.setPhone("123-456-789" + customerIndex);
-                user.setCity("City" + customerIndex);
-                user.setState("State" + customerIndex);
-                user.setCountry("Country" + customerIndex);
-                user.setPostalCode("PostalCode" + customerIndex);
-                user.setAddress("Address" + customerIndex);
-                userData.add(user);
-
-                for (int month = 0; month < months; month++) {
-                    LocalDateTime startOfMonth = LocalDateTime.now().minusMonths(month).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
-                    LocalDateTime endOfMonth = startOfMonth.plusMonths(1).minusSeconds(1);
-                    int iterations = (int) Math.ceil((double) dataPerMonth / (customersPerProvider * months));
-                    System.out.println("Generating for provider: " + providerId + " Month: " + startOfMonth.getMonth());
-
-                    for (int i = 0; i < iterations; i++) {
-                        smartMeterModel dataEntry = new smartMeterModel();
-                        dataEntry.setId(UUID.randomUUID().toString());
-                        dataEntry.setProviderId(providerId);
-                        dataEntry.setCustomerId(customerId);
-                        dataEntry.setCurrentConsumption(50 + (150 * random.nextDouble()));
-                        dataEntry.setReadingTimestamp(randomDateTimeBetween(startOfMonth, endOfMonth, random));
-                        dataEntry.setAutomatedEntryMethod(random.nextBoolean());
-                        dataEntry.setAlertFlag(random.nextBoolean());
-                        testData.add(dataEntry);
-                    }
-                }
-            }
-        }
-
-        System.out.println("Total smart meter entries: " + testData.size());
-        System.out.println("Total user entries: " + userData.size());
-
-        smartMeterRepository.saveAll(testData);
-        UserRepository.saveAll(userData);
-    }
-
-
-    private LocalDateTime randomDateTimeBetween(LocalDateTime start, LocalDateTime end, Random random) {
-        long startEpoch = start.toEpochSecond(ZoneOffset.UTC);
-        long endEpoch = end.toEpochSecond(ZoneOffset.UTC);
-        long randomEpoch = startEpoch + (long) (random.nextDouble() * (endEpoch - startEpoch));
-        return LocalDateTime.ofEpochSecond(randomEpoch, 0, ZoneOffset.UTC);
+        TestDataGenerationRequest request = new TestDataGenerationRequest();
+        request.setProviderIds(List.of("507f1f77bcf86cd799439010", "507f1f77bcf86cd799439011", "507f1f77bcf86cd799439012"));
+        request.setCustomersPerProvider(50);
+        request.setReadingsPerCustomer(6);
+        request.setMonths(6);
+        testDataGeneratorService.generate(request).join();
     }
 }
@@ -0,0 +1,93 @@
+package com.example.electricalprovider.service;
+
+/**
+ * Household demand curve used by the test data generator to shape consumption over time.
+ * <p>
+ * The diurnal curve follows a typical residential day: a night trough, a morning peak and a larger evening
+ * peak. The seasonal curve is a cosine peaking in mid-January. Both are scaled by their amplitude around a
+ * mean of one, so an amplitude of zero gives flat demand and the long-run average rate is unchanged.
+ * </p>
+ * Demand is integrated over the hourly table through prefix sums and over the seasonal cosine in closed form,
+ * so the energy between two timestamps costs the same whether they are seconds or months apart.
+ */
+public final class LoadProfile {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final double DAYS_PER_YEAR = 365.25;
+
+    /**
+     * Relative demand per UTC hour of day, normalized to a mean of one by the constructor.
+     */
+    private static final double[] DIURNAL_SHAPE = {
+            0.55, 0.50, 0.48, 0.47, 0.50, 0.62,
+            0.95, 1.30, 1.35, 1.10, 0.95, 0.92,
+            0.95, 0.92, 0.88, 0.92, 1.10, 1.45,
+            1.80, 1.85, 1.70, 1.40, 1.00, 0.72
+    };
+
+    private final double[] hourly = new double[24];
+
+    private final double[] cumulative = new double[25];
+
+    private final double seasonalAmplitude;
+
+    /**
+     * Constructor for LoadProfile.
+     *
+     * @param diurnalAmplitude how strongly demand follows the time of day, from 0 (flat) to 1
+     * @param seasonalAmplitude how strongly demand follows the time of year, from 0 (flat) to below 1
+     * @throws IllegalArgumentException if an amplitude is out of range
+     */
+    public LoadProfile(double diurnalAmplitude, double seasonalAmplitude) {
+        if (diurnalAmplitude < 0 || diurnalAmplitude > 1) {
+            throw new IllegalArgumentException("diurnalAmplitude must be between 0 and 1");
+        }
+        if (seasonalAmplitude < 0 || seasonalAmplitude >= 1) {
+            throw new IllegalArgumentException("seasonalAmplitude must be at least 0 and below 1");
+        }
+        double mean = 0;
+        for (double value : DIURNAL_SHAPE) {
+            mean += value / DIURNAL_SHAPE.length;
+        }
+        for (int hour = 0; hour < 24; hour++) {
+            hourly[hour] = 1 + diurnalAmplitude * (DIURNAL_SHAPE[hour] / mean - 1);
+            cumulative[hour + 1] = cumulative[hour] + hourly[hour];
+        }
+        this.seasonalAmplitude = seasonalAmplitude;
+    }
+
+    /**
+     * Returns the demand between two timestamps in average-demand hours: a household with an average rate
+     * of {@code r} kWh per hour consumes {@code r * energy(from, to)} kWh.
+     *
+     * @param fromEpochSecond the start of the interval, in UTC epoch seconds
+     * @param toEpochSecond the end of the interval, in UTC epoch seconds
+     * @return the weighted number of hours in the interval
+     */
+    public double energy(long fromEpochSecond, long toEpochSecond) {
+        double diurnalHours = diurnalHours(toEpochSecond) - diurnalHours(fromEpochSecond);
+        return diurnalHours * seasonalMean(fromEpochSecond, toEpochSecond);
+    }
+
+    private double diurnalHours(long epochSecond) {
+        long day = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        long secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        int hour = (int) (secondOfDay / 3600);
+        return day * cumulative[24] + cumulative[hour] + (secondOfDay % 3600) / 3600.0 * hourly[hour];
+    }
+
+    /**
+     * Returns the mean of the seasonal curve over an interval, integrated exactly so that long gaps
+     * between readings average over the seasons they span.
+     */
+    private double seasonalMean(long fromEpochSecond, long toEpochSecond) {
+        double omega = 2 * Math.PI / DAYS_PER_YEAR;
+        double fromPhase = omega * (fromEpochSecond / (double) SECONDS_PER_DAY - 15);
+        double toPhase = omega * (toEpochSecond / (double) SECONDS_PER_DAY - 15);
+        if (toPhase - fromPhase < 1e-6) {
+            return 1 + seasonalAmplitude * Math.cos((fromPhase + toPhase) / 2);
+        }
+        return 1 + seasonalAmplitude * (Math.sin(toPhase) - Math.sin(fromPhase)) / (toPhase - fromPhase);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.electricalprovider.service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Figures of one customer's readings in one month, accumulated a reading at a time and in any order.
+ * <p>
+ * Nothing is kept per reading: the latest reading, the count, the peak and the manual entry flag are
+ * running values, and the days with readings are bits of a mask indexed by the day of the month.
+ * </p>
+ */
+public final class MonthlyReadingStats {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final long start;
+
+    private final long end;
+
+    private int readings;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private double lastConsumption;
+
+    private double peakConsumption = Double.NEGATIVE_INFINITY;
+
+    private int days;
+
+    private boolean manualEntry;
+
+    /**
+     * Constructor for MonthlyReadingStats.
+     *
+     * @param month the month the readings are taken in
+     */
+    public MonthlyReadingStats(YearMonth month) {
+        this.start = month.atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.end = month.plusMonths(1).atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Adds a reading. Readings outside the month are ignored.
+     *
+     * @param epochSecond the reading time in epoch seconds, the local time taken as UTC
+     * @param consumption the consumption in kWh
+     * @param manual whether the reading was entered manually
+     */
+    public void add(long epochSecond, double consumption, boolean manual) {
+        if (epochSecond < start || epochSecond >= end) {
+            return;
+        }
+        readings++;
+        if (epochSecond >= lastTimestamp) {
+            lastTimestamp = epochSecond;
+            lastConsumption = consumption;
+        }
+        peakConsumption = Math.max(peakConsumption, consumption);
+        days |= 1 << (int) ((epochSecond - start) / SECONDS_PER_DAY);
+        manualEntry |= manual;
+    }
+
+    /**
+     * Returns the number of readings.
+     *
+     * @return the number of readings in the month
+     */
+    public int readings() {
+        return readings;
+    }
+
+    /**
+     * Returns the consumption of the latest reading.
+     *
+     * @param otherwise the value returned if there are no readings
+     * @return the latest consumption in kWh
+     */
+    public double lastConsumption(double otherwise) {
+        return readings > 0 ? lastConsumption : otherwise;
+    }
+
+    /**
+     * Returns the highest consumption.
+     *
+     * @param otherwise the value returned if there are no readings
+     * @return the highest consumption in kWh
+     */
+    public double peakConsumption(double otherwise) {
+        return readings > 0 ? peakConsumption : otherwise;
+    }
+
+    /**
+     * Returns the number of days with readings.
+     *
+     * @return the number of days
+     */
+    public int days() {
+        return Integer.bitCount(days);
+    }
+
+    /**
+     * Returns whether a reading was entered manually.
+     *
+     * @return true if any reading was entered manually
+     */
+    public boolean hasManualEntry() {
+        return manualEntry;
+    }
+}
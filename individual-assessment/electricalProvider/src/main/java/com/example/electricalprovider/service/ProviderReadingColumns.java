@@ -0,0 +1,353 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.IdDictionary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented copy of one provider's readings, scanned by the provider summaries.
+ * <p>
+ * The readings are kept in ascending time order in parallel primitive arrays: the reading time in epoch
+ * seconds (UTC), the consumption and the {@link IdDictionary} handle of the customer ID, with a bit set
+ * of the manual entries. A reading takes about 20 bytes instead of a {@link smartMeterModel}
+ * with its boxed consumption, timestamp and strings, and the summaries run over index ranges without
+ * allocating per reading. Since the readings are sorted, a month or day is a contiguous range found by
+ * binary search.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; {@link ReadingSnapshots} guards them.
+ * </p>
+ */
+public final class ProviderReadingColumns {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private long[] timestamps;
+
+    private double[] consumption;
+
+    private int[] customers;
+
+    private BitSet manualEntries = new BitSet();
+
+    private int size;
+
+    private final IdDictionary idDictionary;
+
+    /**
+     * The customers with readings, by handle.
+     */
+    private final BitSet customerHandles = new BitSet();
+
+    private ProviderReadingColumns(IdDictionary idDictionary) {
+        this.idDictionary = idDictionary;
+        this.timestamps = new long[16];
+        this.consumption = new double[16];
+        this.customers = new int[16];
+    }
+
+    /**
+     * Builds the columns from a provider's readings, streamed in any order without being held in memory.
+     * Readings arriving in time order are appended, others are sorted once all have arrived.
+     *
+     * @param source called once with the action taking each reading, such as a
+     *        {@link com.example.electricalprovider.repository.ReadingStore#forEachByProvider} call; readings
+     *        without a timestamp are left out
+     * @param idDictionary the dictionary the customer IDs are encoded with
+     * @return the columns
+     */
+    public static ProviderReadingColumns load(Consumer<Consumer<smartMeterModel>> source, IdDictionary idDictionary) {
+        ProviderReadingColumns columns = new ProviderReadingColumns(idDictionary);
+        boolean[] sorted = {true};
+        source.accept(reading -> {
+            if (reading.getReadingTimestamp() == null) {
+                return;
+            }
+            columns.ensureCapacity();
+            columns.set(columns.size, reading);
+            if (columns.size > 0 && columns.timestamps[columns.size] < columns.timestamps[columns.size - 1]) {
+                sorted[0] = false;
+            }
+            columns.size++;
+        });
+        if (!sorted[0]) {
+            columns.sortByTime();
+        }
+        return columns;
+    }
+
+    /**
+     * Reorders the columns by reading time, keeping readings of the same second in the order they arrived.
+     */
+    private void sortByTime() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, new int[size], 0, size);
+        long[] sortedTimestamps = new long[timestamps.length];
+        double[] sortedConsumption = new double[consumption.length];
+        int[] sortedCustomers = new int[customers.length];
+        BitSet sortedManualEntries = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            sortedTimestamps[i] = timestamps[order[i]];
+            sortedConsumption[i] = consumption[order[i]];
+            sortedCustomers[i] = customers[order[i]];
+            sortedManualEntries.set(i, manualEntries.get(order[i]));
+        }
+        timestamps = sortedTimestamps;
+        consumption = sortedConsumption;
+        customers = sortedCustomers;
+        manualEntries = sortedManualEntries;
+    }
+
+    /**
+     * Sorts a range of reading indexes by reading time, stable.
+     */
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, buffer, from, middle);
+        mergeSort(order, buffer, middle, to);
+        if (timestamps[order[middle - 1]] <= timestamps[order[middle]]) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && timestamps[buffer[left]] <= timestamps[buffer[right]])) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == timestamps.length) {
+            int capacity = size + (size >> 1);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            consumption = Arrays.copyOf(consumption, capacity);
+            customers = Arrays.copyOf(customers, capacity);
+        }
+    }
+
+    /**
+     * Adds a reading in time order, unless the customer already has a reading at that time.
+     *
+     * @param reading the reading, with its timestamp set
+     * @return true if the reading was added
+     */
+    public boolean add(smartMeterModel reading) {
+        long timestamp = epochSecond(reading.getReadingTimestamp());
+        int position = indexAfter(timestamp);
+        int customer = idDictionary.handle(reading.getCustomerId());
+        for (int i = position - 1; i >= 0 && timestamps[i] == timestamp; i--) {
+            if (customers[i] == customer) {
+                return false;
+            }
+        }
+        ensureCapacity();
+        // Readings normally arrive newest last, so this is rarely more than an append
+        if (position < size) {
+            System.arraycopy(timestamps, position, timestamps, position + 1, size - position);
+            System.arraycopy(consumption, position, consumption, position + 1, size - position);
+            System.arraycopy(customers, position, customers, position + 1, size - position);
+            for (int i = size - 1; i >= position; i--) {
+                manualEntries.set(i + 1, manualEntries.get(i));
+            }
+        }
+        set(position, reading);
+        size++;
+        return true;
+    }
+
+    private void set(int i, smartMeterModel reading) {
+        timestamps[i] = epochSecond(reading.getReadingTimestamp());
+        consumption[i] = reading.getCurrentConsumption();
+        customers[i] = idDictionary.handle(reading.getCustomerId());
+        customerHandles.set(customers[i]);
+        manualEntries.set(i, !reading.isAutomatedEntryMethod());
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the number of readings.
+     *
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the time of the oldest reading.
+     *
+     * @return the oldest reading time
+     * @throws IllegalStateException if there are no readings
+     */
+    public LocalDateTime firstTimestamp() {
+        return timestampAt(0);
+    }
+
+    /**
+     * Returns the time of the newest reading.
+     *
+     * @return the newest reading time
+     * @throws IllegalStateException if there are no readings
+     */
+    public LocalDateTime lastTimestamp() {
+        return timestampAt(size - 1);
+    }
+
+    private LocalDateTime timestampAt(int i) {
+        if (size == 0) {
+            throw new IllegalStateException("No readings");
+        }
+        return LocalDateTime.ofEpochSecond(timestamps[i], 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Finds the first reading taken at or after a time, the start of the range of readings from that time on.
+     *
+     * @param time the time
+     * @return the index of the first reading at or after the time, or the number of readings if there is none
+     */
+    public int indexOf(LocalDateTime time) {
+        // Readings at the same second as the time belong to the range
+        return indexAfter(epochSecond(time) - 1);
+    }
+
+    /**
+     * Returns the index of the first reading after an epoch second.
+     */
+    private int indexAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sums the consumption of the readings in a range.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return the total consumption in kWh
+     */
+    public double sumConsumption(int from, int to) {
+        double total = 0.0;
+        // Newest first, the order the summaries have always added in
+        for (int i = to - 1; i >= from; i--) {
+            total += consumption[i];
+        }
+        return total;
+    }
+
+    /**
+     * Sums the consumption of the last reading of each day in a range.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return the total of the daily last readings in kWh
+     */
+    public double sumLastReadingPerDay(int from, int to) {
+        double total = 0.0;
+        long day = Long.MIN_VALUE;
+        for (int i = to - 1; i >= from; i--) {
+            long readingDay = Math.floorDiv(timestamps[i], SECONDS_PER_DAY);
+            if (readingDay != day) {
+                total += consumption[i];
+                day = readingDay;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counts the days with readings in a range.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return the number of days
+     */
+    public int countDays(int from, int to) {
+        int days = 0;
+        long day = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            long readingDay = Math.floorDiv(timestamps[i], SECONDS_PER_DAY);
+            if (readingDay != day) {
+                days++;
+                day = readingDay;
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Finds the largest increase in consumption between consecutive readings in a range, whichever
+     * customers they belong to.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return the largest increase in kWh, or 0 if the range holds fewer than two readings
+     */
+    public double peakIncrease(int from, int to) {
+        if (to - from < 2) {
+            return 0.0;
+        }
+        double peak = Double.NEGATIVE_INFINITY;
+        for (int i = from + 1; i < to; i++) {
+            peak = Math.max(peak, consumption[i] - consumption[i - 1]);
+        }
+        return peak;
+    }
+
+    /**
+     * Counts the customers with readings in a range.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return the number of distinct customers
+     */
+    public int countCustomers(int from, int to) {
+        if (from == 0 && to == size) {
+            return customerHandles.cardinality();
+        }
+        BitSet seen = new BitSet(customerHandles.length());
+        for (int i = from; i < to; i++) {
+            seen.set(customers[i]);
+        }
+        return seen.cardinality();
+    }
+
+    /**
+     * Checks whether a range holds a manually entered reading.
+     *
+     * @param from the index of the first reading
+     * @param to the index after the last reading
+     * @return true if a reading in the range was entered manually
+     */
+    public boolean hasManualEntry(int from, int to) {
+        int manual = manualEntries.nextSetBit(from);
+        return manual >= 0 && manual < to;
+    }
+}
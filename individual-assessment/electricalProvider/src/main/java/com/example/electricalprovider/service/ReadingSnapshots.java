@@ -0,0 +1,198 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.IdDictionary;
+import com.example.electricalprovider.repository.ReadingStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory {@link ProviderReadingColumns} of the providers whose summaries are queried.
+ * <p>
+ * A provider's snapshot is loaded from the reading store on its first query, and kept up to date by the
+ * readings this instance ingests: each stored reading is queued with the snapshot of its provider, and the
+ * queue is merged into the columns before the next query. Ingest therefore never waits for a query. Readings
+ * ingested by other instances, or stored by the test data generator, are only seen once the snapshot is
+ * reloaded after {@code max-age}. A snapshot whose queue outgrows {@code max-pending}, because its provider
+ * is no longer queried, is dropped and loaded again when needed.
+ * </p>
+ * <p>
+ * Loading streams the store into new columns without holding the snapshot's lock, and swaps them in when
+ * done. One query of a provider loads at a time; the queries arriving meanwhile keep using the old columns,
+ * and only a provider's first queries wait for its load.
+ * </p>
+ */
+@Component
+public class ReadingSnapshots {
+
+    private final ReadingStore readingStore;
+
+    private final IdDictionary idDictionary;
+
+    private final long maxAgeNanos;
+
+    private final int maxPending;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for ReadingSnapshots.
+     *
+     * @param readingStore the store the snapshots are loaded from
+     * @param idDictionary the dictionary of the customer IDs in the snapshots
+     * @param maxAge the age after which a snapshot is reloaded
+     * @param maxPending the number of queued readings after which an unqueried snapshot is dropped
+     */
+    public ReadingSnapshots(ReadingStore readingStore, IdDictionary idDictionary,
+                            @Value("${analytics.snapshot.max-age}") Duration maxAge,
+                            @Value("${analytics.snapshot.max-pending}") int maxPending) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("analytics.snapshot.max-pending must be positive");
+        }
+        this.readingStore = readingStore;
+        this.idDictionary = idDictionary;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Runs a query on a provider's snapshot, loading or refreshing it first if needed.
+     *
+     * @param providerId the ID of the provider
+     * @param query the query, which must not keep the columns
+     * @param <T> the type of the result
+     * @return the result of the query
+     */
+    public <T> T query(String providerId, Function<ProviderReadingColumns, T> query) {
+        Snapshot snapshot = snapshots.computeIfAbsent(providerId, id -> new Snapshot());
+        if (isStale(snapshot)) {
+            reload(providerId, snapshot);
+        }
+        ProviderReadingColumns columns;
+        snapshot.lock.writeLock().lock();
+        try {
+            smartMeterModel reading;
+            while ((reading = snapshot.pending.poll()) != null) {
+                snapshot.pendingCount.decrementAndGet();
+                snapshot.columns.add(reading);
+                if (snapshot.mergedWhileLoading != null) {
+                    snapshot.mergedWhileLoading.add(reading);
+                }
+            }
+            columns = snapshot.columns;
+            snapshot.lock.readLock().lock();
+        } finally {
+            snapshot.lock.writeLock().unlock();
+        }
+        try {
+            return query.apply(columns);
+        } finally {
+            snapshot.lock.readLock().unlock();
+        }
+    }
+
+    private boolean isStale(Snapshot snapshot) {
+        return snapshot.columns == null || System.nanoTime() - snapshot.loadedAt > maxAgeNanos;
+    }
+
+    /**
+     * Loads a provider's readings into new columns and swaps them in, unless another query is already
+     * loading them and there are old columns to use meanwhile.
+     */
+    private void reload(String providerId, Snapshot snapshot) {
+        if (snapshot.columns == null) {
+            snapshot.loading.lock();
+        } else if (!snapshot.loading.tryLock()) {
+            return;
+        }
+        try {
+            if (!isStale(snapshot)) {
+                // Loaded by the query this one waited for
+                return;
+            }
+            snapshot.lock.writeLock().lock();
+            try {
+                snapshot.mergedWhileLoading = new ArrayList<>();
+            } finally {
+                snapshot.lock.writeLock().unlock();
+            }
+            ProviderReadingColumns loaded = null;
+            try {
+                loaded = ProviderReadingColumns.load(action -> readingStore.forEachByProvider(providerId, action),
+                        idDictionary);
+            } finally {
+                snapshot.lock.writeLock().lock();
+                try {
+                    if (loaded != null) {
+                        // Taken from the queue into the old columns, maybe after the load passed them; readings
+                        // stored while loading and still queued are merged by the query, duplicates are skipped
+                        for (smartMeterModel reading : snapshot.mergedWhileLoading) {
+                            loaded.add(reading);
+                        }
+                        snapshot.columns = loaded;
+                        snapshot.loadedAt = System.nanoTime();
+                    }
+                    snapshot.mergedWhileLoading = null;
+                } finally {
+                    snapshot.lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            snapshot.loading.unlock();
+        }
+    }
+
+    /**
+     * Queues a stored reading for the snapshot of its provider, if there is one.
+     *
+     * @param reading the stored reading
+     */
+    public void add(smartMeterModel reading) {
+        if (reading.getProviderId() == null) {
+            return;
+        }
+        Snapshot snapshot = snapshots.get(reading.getProviderId());
+        if (snapshot == null) {
+            return;
+        }
+        snapshot.pending.add(reading);
+        if (snapshot.pendingCount.incrementAndGet() > maxPending) {
+            snapshots.remove(reading.getProviderId(), snapshot);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Held by the query loading the snapshot.
+         */
+        private final ReentrantLock loading = new ReentrantLock();
+
+        private final Queue<smartMeterModel> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private volatile ProviderReadingColumns columns;
+
+        private volatile long loadedAt;
+
+        /**
+         * The readings merged into the old columns during a load, added to the new ones once loaded.
+         */
+        private List<smartMeterModel> mergedWhileLoading;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.ReadingStore;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer of validated readings.
+ * <p>
+ * Readings are collected and written with one unordered {@code insertMany} once {@code batch-size} of them
+ * are waiting or {@code flush-interval} has passed, whichever comes first. Each reading's future completes
+ * when its batch is written, and the listener acknowledges the message only then: a reading lost with the
+ * buffer, on a crash, is redelivered by the broker. A reading already stored counts as written, since
+ * redeliveries are expected.
+ * </p>
+ * <p>
+ * Until it is written, a reading is invisible to queries, so the buffer also answers for the readings it
+ * holds: the highest pending consumption of a customer for the monotonic check, and whether a reading is
+ * pending for the duplicate check. Both stay correct because a meter's readings all arrive at one
+ * instance, see the shard queues in {@code RabbitMQConfig}.
+ * </p>
+ */
+@Component
+public class ReadingWriteBuffer implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingWriteBuffer.class);
+
+    private final ReadingStore readingStore;
+
+    private final int batchSize;
+
+    private final Timer insertManyTimer;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter indexDuplicates;
+
+    private final Object lock = new Object();
+
+    private List<PendingReading> pending = new ArrayList<>();
+
+    private final Map<String, Double> pendingConsumption = new ConcurrentHashMap<>();
+
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reading-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for ReadingWriteBuffer.
+     *
+     * @param readingStore the store the readings are inserted into
+     * @param batchSize the number of waiting readings that triggers a flush; unacknowledged readings are
+     *        limited by the listener prefetch, so this should not exceed the shards times the prefetch
+     * @param flushInterval the longest a reading waits before it is written
+     * @param meterRegistry the registry the write metrics are published to
+     */
+    @Autowired
+    public ReadingWriteBuffer(ReadingStore readingStore,
+                              @Value("${ingest.write-behind.batch-size}") int batchSize,
+                              @Value("${ingest.write-behind.flush-interval}") Duration flushInterval,
+                              MeterRegistry meterRegistry) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("ingest.write-behind.batch-size must be positive");
+        }
+        this.readingStore = readingStore;
+        this.batchSize = batchSize;
+        this.insertManyTimer = Timer.builder("smartmeter.pipeline.mongo")
+                .description("Latency of MongoDB operations on the reading pipeline")
+                .tag("operation", "insertMany")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("smartmeter.pipeline.write.batch")
+                .description("Readings written per insertMany")
+                .register(meterRegistry);
+        this.indexDuplicates = Counter.builder("smartmeter.pipeline.duplicates")
+                .description("Redelivered readings dropped as already stored")
+                .tag("detectedBy", "index")
+                .register(meterRegistry);
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a validated reading to the next batch.
+     *
+     * @param reading the reading, with its ID set
+     * @return a future completed with true once the reading is stored, with false if it was already stored,
+     *         or completed exceptionally with the failure of its batch
+     */
+    public CompletableFuture<Boolean> add(smartMeterModel reading) {
+        PendingReading pendingReading = new PendingReading(reading, new CompletableFuture<>());
+        boolean full;
+        synchronized (lock) {
+            pending.add(pendingReading);
+            pendingIds.add(reading.getId());
+            pendingConsumption.merge(reading.getCustomerId(), reading.getCurrentConsumption(), Math::max);
+            full = pending.size() >= batchSize;
+        }
+        if (full && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushSafely);
+        }
+        return pendingReading.written();
+    }
+
+    /**
+     * Returns the highest consumption among a customer's readings waiting to be written.
+     *
+     * @param customerId the ID of the customer
+     * @return the highest pending consumption, or empty if none of the customer's readings is pending
+     */
+    public OptionalDouble pendingConsumption(String customerId) {
+        Double consumption = pendingConsumption.get(customerId);
+        return consumption == null ? OptionalDouble.empty() : OptionalDouble.of(consumption);
+    }
+
+    /**
+     * Checks whether a reading is waiting to be written.
+     *
+     * @param readingId the ID of the reading
+     * @return true if the reading is pending
+     */
+    public boolean isPending(String readingId) {
+        return pendingIds.contains(readingId);
+    }
+
+    private void flushSafely() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Reading write-behind flush failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * Writes the waiting readings and completes their futures. Readings added meanwhile go to the next batch.
+     */
+    private void flush() {
+        List<PendingReading> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>(batchSize);
+        }
+        List<smartMeterModel> readings = batch.stream().map(PendingReading::reading).toList();
+        Map<Integer, RuntimeException> failures = new HashMap<>();
+        Set<Integer> duplicates = new HashSet<>();
+        try {
+            insertManyTimer.record(() -> readingStore.insertAll(readings));
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    indexDuplicates.increment();
+                    duplicates.add(error.getIndex());
+                } else {
+                    failures.put(error.getIndex(), e);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                failures.put(i, e);
+            }
+        }
+        batchSizes.record(batch.size());
+        if (!failures.isEmpty()) {
+            logger.warn("{} of {} readings could not be written: {}", failures.size(), batch.size(),
+                    failures.values().iterator().next().toString());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            smartMeterModel reading = batch.get(i).reading();
+            // Written readings are visible to queries from here on
+            pendingConsumption.remove(reading.getCustomerId(), reading.getCurrentConsumption());
+            pendingIds.remove(reading.getId());
+            RuntimeException failure = failures.get(i);
+            if (failure == null) {
+                batch.get(i).written().complete(!duplicates.contains(i));
+            } else {
+                batch.get(i).written().completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Writes what is left before shutting down. Readings whose acknowledgement can no longer be sent are
+     * redelivered and then dropped as duplicates.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+    private record PendingReading(smartMeterModel reading, CompletableFuture<Boolean> written) {
+    }
+}
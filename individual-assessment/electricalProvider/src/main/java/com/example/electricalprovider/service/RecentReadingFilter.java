@@ -0,0 +1,149 @@
+package com.example.electricalprovider.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-memory filter of the reading IDs ingested recently, used to tell redeliveries apart
+ * from new readings before going to MongoDB.
+ * <p>
+ * Two Bloom filters are kept, the current one and the one before it. IDs are added to the current one,
+ * and once it holds its capacity it replaces the previous one and a new, empty one is started. Memory is
+ * therefore fixed, and an ID is remembered for at least {@code capacity} further readings.
+ * </p>
+ * <p>
+ * A negative answer is certain for the remembered window, so new readings, the common case, skip the
+ * duplicate lookup entirely. A positive answer may be false with the configured probability and is
+ * confirmed against the unique reading ID in MongoDB. IDs that have fallen out of the window are still
+ * caught by the unique index on insert.
+ * </p>
+ */
+@Component
+public class RecentReadingFilter {
+
+    private final long capacity;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private volatile Generation current;
+
+    private volatile Generation previous;
+
+    /**
+     * Constructor for RecentReadingFilter.
+     *
+     * @param capacity the number of IDs each generation holds
+     * @param falsePositiveRate the targeted probability that a new ID is reported as seen
+     */
+    public RecentReadingFilter(@Value("${ingest.dedup.capacity}") long capacity,
+                               @Value("${ingest.dedup.false-positive-rate}") double falsePositiveRate) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("ingest.dedup.capacity must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("ingest.dedup.false-positive-rate must be between 0 and 1");
+        }
+        // Optimal Bloom filter size and number of hashes for the capacity and false positive rate
+        double bits = Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (bits > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ingest.dedup.capacity is too large for the false positive rate");
+        }
+        this.capacity = capacity;
+        this.bitCount = (int) bits;
+        this.hashCount = Math.max(1, (int) Math.round(bits / capacity * Math.log(2)));
+        this.current = new Generation(bitCount);
+        this.previous = new Generation(bitCount);
+    }
+
+    /**
+     * Checks whether a reading ID may have been ingested recently.
+     *
+     * @param id the reading ID
+     * @return false if the ID was certainly not added within the remembered window, true if it may have been
+     */
+    public boolean mightContain(String id) {
+        long hash = hash(id);
+        return current.contains(hash) || previous.contains(hash);
+    }
+
+    /**
+     * Remembers a reading ID as ingested.
+     *
+     * @param id the reading ID
+     */
+    public void add(String id) {
+        Generation generation = current;
+        if (generation.add(hash(id)) > capacity) {
+            synchronized (this) {
+                if (current == generation) {
+                    previous = generation;
+                    current = new Generation(bitCount);
+                }
+            }
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the ID, finished with the MurmurHash3 mix so both halves are well distributed.
+     */
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * One Bloom filter, probed with the double hashing scheme {@code h1 + i * h2}.
+     */
+    private final class Generation {
+
+        private final AtomicLongArray words;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private Generation(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+        }
+
+        private boolean contains(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Sets the bits of a hash.
+         *
+         * @return the number of IDs added to this generation so far
+         */
+        private long add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                words.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+            }
+            return count.incrementAndGet();
+        }
+    }
+}
@@ -3,42 +3,124 @@ package com.example.electricalprovider.service;
 import com.example.electricalprovider.client.CitizenClient;
 import com.example.electricalprovider.dto.ProviderSmartMeterSummary;
 import com.example.electricalprovider.dto.UserSmartMeterReport;
-import com.example.electricalprovider.models.UserModel;
 import com.example.electricalprovider.models.smartMeterModel;
-import com.example.electricalprovider.repository.SmartMeterRepository;
-import com.example.electricalprovider.repository.UserRepository;
+import com.example.electricalprovider.repository.MappedReadingStore;
+import com.example.electricalprovider.repository.ReadingStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.time.YearMonth;
 import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class responsible for handling smart meter data.
  */
 @Service
-public class SmartMeterService {
+public class SmartMeterService implements DisposableBean {
 
-    private final SmartMeterRepository smartMeterRepository;
+    private static final Logger logger = LoggerFactory.getLogger(SmartMeterService.class);
+
+    /**
+     * Marker of the per-message save log, sampled by logback-spring.xml.
+     */
+    private static final Marker READING_SAVED = MarkerFactory.getMarker("reading-saved");
+
+    private final ReadingStore readingStore;
 
     private final CitizenClient citizenClient;
 
+    private final Timer mongoFindTimer;
+
+    private final Timer validateTimer;
+
+    private final Counter nonMonotonicRejections;
+
+    private final RecentReadingFilter recentReadingFilter;
+
+    private final Counter filterDuplicates;
+
+    private final Counter validationDuplicates;
+
+    private final Counter bufferDuplicates;
+
+    private final ReadingWriteBuffer readingWriteBuffer;
+
+    private final ReadingSnapshots readingSnapshots;
+
+    private final MappedReadingStore mappedReadingStore;
+
+    private final ForkJoinPool batchPool;
+
+    private final int batchPartitionSize;
 
     /**
      * Constructor for SmartMeterService.
      *
-     * @param smartMeterRepository the repository to handle smart meter data
+     * @param readingStore the store of the smart meter readings
      * @param citizenClient the client to fetch data from the citizen microservice
+     * @param recentReadingFilter the filter of the reading IDs ingested recently
+     * @param readingWriteBuffer the buffer the validated readings are written through
+     * @param readingSnapshots the columnar snapshots the provider summaries are computed on
+     * @param mappedReadingStore the local copy of the recent readings the user reports are served from
+     * @param meterRegistry the registry the reading pipeline metrics are published to
+     * @param batchParallelism the number of partitions of a batch report queried at a time
+     * @param batchPartitionSize the highest number of customers of a batch report read in one query
      */
-    public SmartMeterService(SmartMeterRepository smartMeterRepository, CitizenClient citizenClient) {
-        this.smartMeterRepository = smartMeterRepository;
+    public SmartMeterService(ReadingStore readingStore, CitizenClient citizenClient,
+                             RecentReadingFilter recentReadingFilter, ReadingWriteBuffer readingWriteBuffer,
+                             ReadingSnapshots readingSnapshots, MappedReadingStore mappedReadingStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${analytics.batch.parallelism}") int batchParallelism,
+                             @Value("${analytics.batch.partition-size}") int batchPartitionSize) {
+        if (batchPartitionSize <= 0) {
+            throw new IllegalArgumentException("analytics.batch.partition-size must be positive");
+        }
+        // Its own pool, the partitions block on MongoDB; shut down with the service
+        this.batchPool = new ForkJoinPool(batchParallelism);
+        this.batchPartitionSize = batchPartitionSize;
+        this.readingStore = readingStore;
         this.citizenClient = citizenClient;
+        this.recentReadingFilter = recentReadingFilter;
+        this.readingWriteBuffer = readingWriteBuffer;
+        this.readingSnapshots = readingSnapshots;
+        this.mappedReadingStore = mappedReadingStore;
+        this.mongoFindTimer = Timer.builder("smartmeter.pipeline.mongo")
+                .description("Latency of MongoDB operations on the reading pipeline")
+                .tag("operation", "find")
+                .register(meterRegistry);
+        this.validateTimer = Timer.builder("smartmeter.pipeline.validate")
+                .description("Latency of validating a received reading against the last one")
+                .register(meterRegistry);
+        this.nonMonotonicRejections = Counter.builder("smartmeter.pipeline.rejected")
+                .description("Readings rejected by validation")
+                .tag("reason", "non-monotonic")
+                .register(meterRegistry);
+        this.filterDuplicates = duplicateCounter("filter", meterRegistry);
+        this.validationDuplicates = duplicateCounter("validation", meterRegistry);
+        this.bufferDuplicates = duplicateCounter("buffer", meterRegistry);
+    }
+
+    private static Counter duplicateCounter(String detectedBy, MeterRegistry meterRegistry) {
+        return Counter.builder("smartmeter.pipeline.duplicates")
+                .description("Redelivered readings dropped as already stored")
+                .tag("detectedBy", detectedBy)
+                .register(meterRegistry);
     }
 
 
@@ -61,7 +143,7 @@ public class SmartMeterService {
 
 
     /**
-     * Summarizes smart meter data for a specific user.
+     * Summarizes smart meter data for a specific user for the current month.
      *
      * @param providerId the ID of the provider
      * @param customerId the ID of the customer
@@ -69,80 +151,124 @@ public class SmartMeterService {
      * @throws IllegalArgumentException if an error occurs while fetching the data
      */
     public UserSmartMeterReport summarySmartMeterDataByUser(String providerId, String customerId) {
+        return summarySmartMeterDataByUser(providerId, customerId, YearMonth.now());
+    }
+
+    /**
+     * Summarizes smart meter data for a specific user for a month.
+     * <p>
+     * Only the customer's readings of the month are read, plus the last reading before it as the starting
+     * point of the month's consumption, so the report takes the same time however long the history is. Both
+     * queries are served by the reading index. For the current month, the readings are read from the
+     * {@link MappedReadingStore} instead when it holds them. A month without readings is reported with a
+     * zero consumption and no readings.
+     * </p>
+     *
+     * @param providerId the ID of the provider
+     * @param customerId the ID of the customer
+     * @param month the month to report on
+     * @return the report containing the summarized data
+     * @throws IllegalArgumentException if an error occurs while fetching the data
+     */
+    public UserSmartMeterReport summarySmartMeterDataByUser(String providerId, String customerId, YearMonth month) {
         validateObjectId(providerId, "Provider ID");
         validateObjectId(customerId, "Customer ID");
 
         try {
-            // Fetch all smart meter readings for the given customer and provider
-            List<smartMeterModel> smartMeterData = smartMeterRepository.findAllByCustomerIdAndProviderIdOrderByReadingTimestampDesc(customerId, providerId)
-                    .orElseThrow(() -> new IllegalArgumentException("No smart meter data found for the given user."));
-            System.out.println("Smart meter data: " + smartMeterData);
-            // Get the last entry of this month and last month
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime startOfThisMonth = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-            LocalDateTime startOfLastMonth = startOfThisMonth.minusMonths(1);
-
-            Double lastMonthLastReading = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().isBefore(startOfThisMonth) &&
-                            data.getReadingTimestamp().isAfter(startOfLastMonth))
-                    .max(Comparator.comparing(smartMeterModel::getReadingTimestamp)) // Find the latest by timestamp
-                    .map(smartMeterModel::getCurrentConsumption) // Get the consumption value
+            UserSmartMeterReport recentReport = recentReport(providerId, customerId, month);
+            if (recentReport != null) {
+                return recentReport;
+            }
+            LocalDateTime startOfMonth = month.atDay(1).atStartOfDay();
+            // One pass over the month's readings
+            MonthlyReadingStats stats = new MonthlyReadingStats(month);
+            List<smartMeterModel> smartMeterData = mongoFindTimer.record(() -> readingStore
+                    .findByCustomerAndProviderBetween(customerId, providerId, startOfMonth, startOfMonth.plusMonths(1)));
+            for (smartMeterModel data : smartMeterData) {
+                stats.add(data.getReadingTimestamp().toEpochSecond(ZoneOffset.UTC), data.getCurrentConsumption(),
+                        !data.isAutomatedEntryMethod());
+            }
+            if (stats.readings() == 0) {
+                // Nothing consumed, whatever the meter stood at
+                return report(customerId, stats, 0.0);
+            }
+            logger.debug("Found {} smart meter readings for customer {} in {}", stats.readings(), customerId, month);
+            // The month's consumption starts from the last reading before it, the meter starts at 0
+            double startingConsumption = mongoFindTimer.record(() -> readingStore
+                    .findLatestBefore(customerId, providerId, startOfMonth))
+                    .map(smartMeterModel::getCurrentConsumption)
                     .orElse(0.0);
+            return report(customerId, stats, startingConsumption);
 
-            Double thisMonthLastReading = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().isAfter(startOfThisMonth))
-                    .max(Comparator.comparing(smartMeterModel::getReadingTimestamp)) // Find the latest by timestamp
-                    .map(smartMeterModel::getCurrentConsumption) // Get the consumption value
-                    .orElse(0.0);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Error while fetching smart meter data: " + e.getMessage(), e);
+        }
+    }
 
-            // Calculate total monthly consumption
-            Double totalMonthlyConsumption = thisMonthLastReading - lastMonthLastReading;
-
-            // Calculate number of days in the current month with readings
-            long daysInMonth = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .map(smartMeterModel::getReadingTimestamp)
-                    .map(LocalDateTime::toLocalDate)
-                    .distinct()
-                    .count();
-
-            // Calculate daily average consumption
-            Double dailyAverageConsumption = daysInMonth > 0 ? totalMonthlyConsumption / daysInMonth : 0.0;
-
-            // Calculate peak hourly consumption
-            Double peakHourlyConsumption = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .mapToDouble(smartMeterModel::getCurrentConsumption)
-                    .max()
-                    .orElse(0.0);
+    /**
+     * Builds the user report from the {@link MappedReadingStore}, scanning the customer's readings of the
+     * month and the one before.
+     *
+     * @param providerId the ID of the provider
+     * @param customerId the ID of the customer
+     * @param month the month to report on
+     * @return the report, or null if the store does not hold these months or the customer has no readings
+     *         in either of them
+     */
+    private UserSmartMeterReport recentReport(String providerId, String customerId, YearMonth month) {
+        MonthlyReadingStats thisMonth = new MonthlyReadingStats(month);
+        MonthlyReadingStats lastMonth = new MonthlyReadingStats(month.minusMonths(1));
+        if (!mappedReadingStore.forEachReading(providerId, customerId, month, thisMonth::add)
+                || !mappedReadingStore.forEachReading(providerId, customerId, month.minusMonths(1), lastMonth::add)
+                || thisMonth.readings() == 0 || lastMonth.readings() == 0) {
+            return null;
+        }
+        return report(customerId, thisMonth, lastMonth.lastConsumption(0.0));
+    }
 
-            // Count the number of readings recorded this month
-            Integer numberOfReadingsRecorded = (int) smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .count();
-
-            // Check if there were any manual entries this month
-            boolean hasManualEntry = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .anyMatch(data -> !data.isAutomatedEntryMethod());
-
-            // Build the UserSmartMeterReport
-            UserSmartMeterReport report = new UserSmartMeterReport();
-            report.setCustomerId(customerId);
-            report.setTotalMonthlyConsumption(totalMonthlyConsumption);
-            report.setDailyAverageConsumption(dailyAverageConsumption);
-            report.setPeakHourlyConsumption(peakHourlyConsumption);
-            report.setNumberOfReadingsRecorded(numberOfReadingsRecorded);
-            report.setHasManualEntry(hasManualEntry);
-
-            return report;
+    static UserSmartMeterReport report(String customerId, MonthlyReadingStats month,
+                                       double startingConsumption) {
+        // Calculate total monthly consumption
+        Double totalMonthlyConsumption = month.lastConsumption(startingConsumption) - startingConsumption;
+
+        // Calculate daily average consumption over the days with readings
+        Double dailyAverageConsumption = month.days() > 0 ? totalMonthlyConsumption / month.days() : 0.0;
+
+        // Build the UserSmartMeterReport
+        UserSmartMeterReport report = new UserSmartMeterReport();
+        report.setCustomerId(customerId);
+        report.setTotalMonthlyConsumption(totalMonthlyConsumption);
+        report.setDailyAverageConsumption(dailyAverageConsumption);
+        report.setPeakHourlyConsumption(month.peakConsumption(0.0));
+        report.setNumberOfReadingsRecorded(month.readings());
+        report.setHasManualEntry(month.hasManualEntry());
+        return report;
+    }
 
+
+    /**
+     * Summarizes smart meter data for every customer of a provider for a month, for billing runs.
+     * <p>
+     * Only the customers with readings in the month are found here, so an invalid provider or an unavailable
+     * database is reported before any report is computed. The reports are computed by
+     * {@link UserReportBatch#forEach}, in one pass over the readings of the month and the one before, and
+     * equal those of {@link #summarySmartMeterDataByUser(String, String, YearMonth)}.
+     * </p>
+     *
+     * @param providerId the ID of the provider
+     * @param month the month to report on
+     * @return the batch of reports, one per customer with readings in the month
+     * @throws IllegalArgumentException if an error occurs while fetching the customers
+     */
+    public UserReportBatch summarySmartMeterDataByUsers(String providerId, YearMonth month) {
+        validateObjectId(providerId, "Provider ID");
+
+        try {
+            LocalDateTime startOfMonth = month.atDay(1).atStartOfDay();
+            List<String> customerIds = mongoFindTimer.record(() -> readingStore
+                    .findCustomersBetween(providerId, startOfMonth, startOfMonth.plusMonths(1)));
+            logger.debug("Reporting on {} customers of provider {} in {}", customerIds.size(), providerId, month);
+            return new UserReportBatch(readingStore, batchPool, batchPartitionSize, providerId, month, customerIds);
         } catch (Exception e) {
             throw new IllegalArgumentException("Error while fetching smart meter data: " + e.getMessage(), e);
         }
@@ -165,44 +291,112 @@ public class SmartMeterService {
     //Used in Asynchronous relationship to get data from citizen
     /**
      * Calls Citizen Microservice to fetch smart meter data and saves it to the repository.
+     * <p>
+     * Ingest is idempotent: the reading is stored under an ID derived from its identity, see
+     * {@link #readingId(smartMeterModel)}, and a reading already stored is dropped instead of being
+     * rejected as non-monotonic, so a redelivered message is acknowledged rather than requeued.
+     * Duplicates are recognised by the {@link RecentReadingFilter} and a lookup by ID, among the readings
+     * waiting in the {@link ReadingWriteBuffer}, on a failed monotonic check, or by the unique ID on
+     * insert, whichever comes first.
+     * </p>
+     * <p>
+     * Valid readings are written behind by the {@link ReadingWriteBuffer}; the message must only be
+     * acknowledged once the returned future completes.
+     * </p>
+     *
+     * @param smartMeterData the received smart meter data
+     * @return a future completed once the reading is stored or dropped as a duplicate, or completed
+     *         exceptionally if writing it failed
+     * @throws IllegalArgumentException if the reading is invalid, which retrying cannot fix; other
+     *         exceptions, such as MongoDB being unavailable, are passed on unchanged
      */
-    public void processSmartMeterData(smartMeterModel smartMeterData) {
+    public CompletableFuture<Void> processSmartMeterData(smartMeterModel smartMeterData) {
         try {
-            // Generate a new unique ID
-            smartMeterData.setId(UUID.randomUUID().toString());
+            if (smartMeterData.getCustomerId() == null) {
+                throw new IllegalArgumentException("Reading has no customer ID");
+            }
+            if (smartMeterData.getReadingTimestamp() == null) {
+                throw new IllegalArgumentException("Reading has no timestamp");
+            }
+            String readingId = readingId(smartMeterData);
+            smartMeterData.setId(readingId);
+            if (readingWriteBuffer.isPending(readingId)) {
+                dropDuplicate(readingId, bufferDuplicates);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (recentReadingFilter.mightContain(readingId)
+                    && mongoFindTimer.record(() -> readingStore.contains(smartMeterData))) {
+                dropDuplicate(readingId, filterDuplicates);
+                return CompletableFuture.completedFuture(null);
+            }
             String customerId =smartMeterData.getCustomerId();
-            smartMeterRepository.findTopByCustomerIdOrderByCurrentConsumptionDesc(customerId)
-                    .ifPresentOrElse(
-                            lastReading -> {
-                                // Ensure the new value is greater than the last reading
-                                if (smartMeterData.getCurrentConsumption() > lastReading.getCurrentConsumption()) {
-                                    smartMeterData.setCurrentConsumption(smartMeterData.getCurrentConsumption());
-                                } else {
-                                    throw new IllegalArgumentException(
-                                            "New currentConsumption value must be greater than the last recorded value. " +
-                                                    "Last recorded: " + lastReading.getCurrentConsumption() +
-                                                    ", Provided: " + smartMeterData.getCurrentConsumption());
-                                }
-                            },
-                            // Ignore if the database is empty
-                            () -> {
-                                // Optional: Log a message or initialize default values
-                                smartMeterData.setCurrentConsumption(0.0);
-                            }
-                    );
-            // Save as a new document
-            smartMeterRepository.save(smartMeterData);
-
-            System.out.println("Smart meter data saved successfully: " + smartMeterData);
-        } catch (Exception e) {
+            // A reading still waiting to be written is newer than anything stored
+            OptionalDouble pendingConsumption = readingWriteBuffer.pendingConsumption(customerId);
+            Optional<Double> lastConsumption = pendingConsumption.isPresent()
+                    ? Optional.of(pendingConsumption.getAsDouble())
+                    : mongoFindTimer.record(() -> readingStore.findHighestConsumption(customerId));
+            // Ensure the new value is greater than the last reading
+            boolean monotonic = validateTimer.record(() -> lastConsumption
+                    .map(last -> smartMeterData.getCurrentConsumption() > last)
+                    .orElse(true));
+            if (!monotonic) {
+                // A redelivery of a reading already stored is not an error
+                if (mongoFindTimer.record(() -> readingStore.contains(smartMeterData))) {
+                    dropDuplicate(readingId, validationDuplicates);
+                    return CompletableFuture.completedFuture(null);
+                }
+                nonMonotonicRejections.increment();
+                throw new IllegalArgumentException(
+                        "New currentConsumption value must be greater than the last recorded value. " +
+                                "Last recorded: " + lastConsumption.get() +
+                                ", Provided: " + smartMeterData.getCurrentConsumption());
+            }
+            if (lastConsumption.isEmpty()) {
+                // Ignore if the database is empty
+                smartMeterData.setCurrentConsumption(0.0);
+            }
+            // Insert as a new document, the unique ID catches a duplicate processed concurrently
+            return readingWriteBuffer.add(smartMeterData).thenAccept(stored -> {
+                recentReadingFilter.add(readingId);
+                if (stored) {
+                    readingSnapshots.add(smartMeterData);
+                    mappedReadingStore.add(smartMeterData);
+                }
+                logger.info(READING_SAVED, "Smart meter reading {} saved for customer {}", readingId, customerId);
+            });
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Error while processing smart meter data: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Derives the ID a reading is stored under from the customer and the time of the reading, which
+     * together identify a reading and are the same in every redelivery of its message.
+     * Readings without either get a random ID and are not deduplicated.
+     *
+     * @param smartMeterData the received smart meter data
+     * @return the reading ID
+     */
+    static String readingId(smartMeterModel smartMeterData) {
+        if (smartMeterData.getCustomerId() == null || smartMeterData.getReadingTimestamp() == null) {
+            return UUID.randomUUID().toString();
+        }
+        return smartMeterData.getCustomerId() + ":" + smartMeterData.getReadingTimestamp();
+    }
+
+    private void dropDuplicate(String readingId, Counter duplicates) {
+        duplicates.increment();
+        recentReadingFilter.add(readingId);
+        logger.debug("Dropped duplicate smart meter reading {}", readingId);
+    }
+
 
 
     /**
      * Summarizes smart meter data for a specific provider.
+     * <p>
+     * Computed on the provider's {@link ProviderReadingColumns} snapshot, see {@link ReadingSnapshots}.
+     * </p>
      *
      * @param providerId the ID of the provider
      * @return the summary containing the summarized data
@@ -212,69 +406,44 @@ public class SmartMeterService {
         validateObjectId(providerId, "Provider ID");
 
         try {
-            // Fetch all smart meter readings for the given provider in descending order
-            List<smartMeterModel> smartMeterData = smartMeterRepository.findAllByProviderIdOrderByReadingTimestampDesc(providerId)
-                    .orElse(null); // Return null if no data is found
-
-            // If no data is available, return null to indicate no response
-            if (smartMeterData == null || smartMeterData.isEmpty()) {
-                System.out.println("No smart meter data found for the given provider ID: " + providerId);
-                return null;
-            }
-            LocalDateTime now = LocalDateTime.now();
-
-            // Daily Average Consumption
-            Map<LocalDate, Double> highestReadingPerDay = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .collect(Collectors.toMap(
-                            data -> data.getReadingTimestamp().toLocalDate(),
-                            smartMeterModel::getCurrentConsumption,
-                            (existing, replacement) -> existing // Keep the first (highest) entry
-                    ));
-
-            Double totalHighestReadings = highestReadingPerDay.values().stream()
-                    .mapToDouble(Double::doubleValue)
-                    .sum();
-
-            long daysWithReadings = highestReadingPerDay.size();
-
-            Double dailyAverageConsumption = daysWithReadings > 0 ? totalHighestReadings / daysWithReadings : 0.0;
-
-            // Peak Demand
-            Double peakHourlyConsumption = IntStream.range(0, smartMeterData.size() - 1)
-                    .mapToDouble(i -> smartMeterData.get(i).getCurrentConsumption() - smartMeterData.get(i + 1).getCurrentConsumption())
-                    .max()
-                    .orElse(0.0);
+            return readingSnapshots.query(providerId, readings -> {
+                // If no data is available, return null to indicate no response
+                if (readings.size() == 0) {
+                    logger.info("No smart meter data found for provider {}", providerId);
+                    return null;
+                }
+                Month month = LocalDateTime.now().getMonth();
+
+                // The readings of this month in every year, newest first
+                double totalHighestReadings = 0.0;
+                long daysWithReadings = 0;
+                double totalMonthlyConsumption = 0.0;
+                for (int year = readings.lastTimestamp().getYear(); year >= readings.firstTimestamp().getYear(); year--) {
+                    LocalDateTime startOfMonth = LocalDate.of(year, month, 1).atStartOfDay();
+                    int from = readings.indexOf(startOfMonth);
+                    int to = readings.indexOf(startOfMonth.plusMonths(1));
+                    // Daily Average Consumption, from the last reading of each day
+                    totalHighestReadings += readings.sumLastReadingPerDay(from, to);
+                    daysWithReadings += readings.countDays(from, to);
+                    // Calculate total monthly consumption
+                    totalMonthlyConsumption += readings.sumConsumption(from, to);
+                }
+                Double dailyAverageConsumption = daysWithReadings > 0 ? totalHighestReadings / daysWithReadings : 0.0;
 
-            // Calculate total monthly consumption
-            Double totalMonthlyConsumption = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null &&
-                            data.getReadingTimestamp().getMonth().equals(now.getMonth()))
-                    .mapToDouble(smartMeterModel::getCurrentConsumption)
-                    .sum();
-
-            // Count distinct citizens
-            long citizenCount = smartMeterData.stream()
-                    .map(smartMeterModel::getCustomerId)
-                    .distinct()
-                    .count();
-
-            // Average consumption per citizen
-            Double averageConsumptionPerCitizen = citizenCount > 0 ? totalMonthlyConsumption / citizenCount : 0.0;
-
-            // Build the summary
-            ProviderSmartMeterSummary summary = new ProviderSmartMeterSummary();
-            summary.setProviderId(providerId);
-            summary.setTotalMonthlyConsumption(totalMonthlyConsumption);
-            summary.setDailyAverageConsumption(dailyAverageConsumption);
-            summary.setAverageConsumptionPerCitizen(averageConsumptionPerCitizen);
-            summary.setPeakHourlyConsumption(peakHourlyConsumption);
-            summary.setCitizenCount((int) citizenCount);
-            summary.setDate(LocalDateTime.now());
-
-            return summary;
+                // Peak Demand
+                Double peakHourlyConsumption = readings.peakIncrease(0, readings.size());
+
+                // Count distinct citizens
+                long citizenCount = readings.countCustomers(0, readings.size());
 
+                // Average consumption per citizen
+                Double averageConsumptionPerCitizen = citizenCount > 0 ? totalMonthlyConsumption / citizenCount : 0.0;
+
+                ProviderSmartMeterSummary summary = summary(providerId, totalMonthlyConsumption,
+                        dailyAverageConsumption, averageConsumptionPerCitizen, peakHourlyConsumption, citizenCount);
+                summary.setDate(LocalDateTime.now());
+                return summary;
+            });
         } catch (Exception e) {
             throw new IllegalArgumentException("Error while fetching smart meter data: " + e.getMessage(), e);
         }
@@ -285,81 +454,79 @@ public class SmartMeterService {
     public List<ProviderSmartMeterSummary> summaryAllSmartMeterDataByProvider(String providerId) {
         validateObjectId(providerId, "Provider ID");
         try {
-            // Fetch all smart meter readings for the given provider in descending order
-            List<smartMeterModel> smartMeterData = smartMeterRepository.findAllByProviderIdOrderByReadingTimestampDesc(providerId)
-                    .orElse(null); // Return null if no data is found
-
-            // If no data is available, return an empty list
-            if (smartMeterData == null || smartMeterData.isEmpty()) {
-                System.out.println("No smart meter data found for the given provider ID: " + providerId);
-                return Collections.emptyList();
-            }
-
-            // Group data by month
-            Map<YearMonth, List<smartMeterModel>> dataByMonth = smartMeterData.stream()
-                    .filter(data -> data.getReadingTimestamp() != null)
-                    .collect(Collectors.groupingBy(data -> YearMonth.from(data.getReadingTimestamp())));
-
-            List<ProviderSmartMeterSummary> summaries = new ArrayList<>();
-
-            // Calculate summary for each month
-            for (Map.Entry<YearMonth, List<smartMeterModel>> entry : dataByMonth.entrySet()) {
-                YearMonth month = entry.getKey();
-                List<smartMeterModel> monthlyData = entry.getValue();
-
-                // Daily Average Consumption
-                Map<LocalDate, Double> highestReadingPerDay = monthlyData.stream()
-                        .collect(Collectors.toMap(
-                                data -> data.getReadingTimestamp().toLocalDate(),
-                                smartMeterModel::getCurrentConsumption,
-                                (existing, replacement) -> existing // Keep the first (highest) entry
-                        ));
-
-                Double totalHighestReadings = highestReadingPerDay.values().stream()
-                        .mapToDouble(Double::doubleValue)
-                        .sum();
-
-                long daysWithReadings = highestReadingPerDay.size();
-
-                Double dailyAverageConsumption = daysWithReadings > 0 ? totalHighestReadings / daysWithReadings : 0.0;
-
-                // Peak Demand
-                Double peakHourlyConsumption = IntStream.range(0, monthlyData.size() - 1)
-                        .mapToDouble(i -> monthlyData.get(i).getCurrentConsumption() - monthlyData.get(i + 1).getCurrentConsumption())
-                        .max()
-                        .orElse(0.0);
-
-                // Calculate total monthly consumption
-                Double totalMonthlyConsumption = monthlyData.stream()
-                        .mapToDouble(smartMeterModel::getCurrentConsumption)
-                        .sum();
-
-                // Count distinct citizens
-                long citizenCount = monthlyData.stream()
-                        .map(smartMeterModel::getCustomerId)
-                        .distinct()
-                        .count();
-
-                // Average consumption per citizen
-                Double averageConsumptionPerCitizen = citizenCount > 0 ? totalMonthlyConsumption / citizenCount : 0.0;
-
-                // Build the summary
-                ProviderSmartMeterSummary summary = new ProviderSmartMeterSummary();
-                summary.setProviderId(providerId);
-                summary.setTotalMonthlyConsumption(totalMonthlyConsumption);
-                summary.setDailyAverageConsumption(dailyAverageConsumption);
-                summary.setAverageConsumptionPerCitizen(averageConsumptionPerCitizen);
-                summary.setPeakHourlyConsumption(peakHourlyConsumption);
-                summary.setCitizenCount((int) citizenCount);
-                summary.setDate(month.atEndOfMonth().atStartOfDay());
-
-                summaries.add(summary);
-            }
-
-            return summaries;
-
+            return readingSnapshots.query(providerId, readings -> {
+                // If no data is available, return an empty list
+                if (readings.size() == 0) {
+                    logger.info("No smart meter data found for provider {}", providerId);
+                    return Collections.<ProviderSmartMeterSummary>emptyList();
+                }
+
+                List<ProviderSmartMeterSummary> summaries = new ArrayList<>();
+
+                // Calculate summary for each month, a contiguous range of the readings
+                YearMonth lastMonth = YearMonth.from(readings.lastTimestamp());
+                for (YearMonth month = YearMonth.from(readings.firstTimestamp()); !month.isAfter(lastMonth);
+                     month = month.plusMonths(1)) {
+                    int from = readings.indexOf(month.atDay(1).atStartOfDay());
+                    int to = readings.indexOf(month.plusMonths(1).atDay(1).atStartOfDay());
+                    if (from == to) {
+                        continue;
+                    }
+
+                    // Daily Average Consumption
+                    long daysWithReadings = readings.countDays(from, to);
+                    Double dailyAverageConsumption = daysWithReadings > 0
+                            ? readings.sumLastReadingPerDay(from, to) / daysWithReadings : 0.0;
+
+                    // Peak Demand
+                    Double peakHourlyConsumption = readings.peakIncrease(from, to);
+
+                    // Calculate total monthly consumption
+                    Double totalMonthlyConsumption = readings.sumConsumption(from, to);
+
+                    // Count distinct citizens
+                    long citizenCount = readings.countCustomers(from, to);
+
+                    // Average consumption per citizen
+                    Double averageConsumptionPerCitizen = citizenCount > 0 ? totalMonthlyConsumption / citizenCount : 0.0;
+
+                    ProviderSmartMeterSummary summary = summary(providerId, totalMonthlyConsumption,
+                            dailyAverageConsumption, averageConsumptionPerCitizen, peakHourlyConsumption, citizenCount);
+                    summary.setDate(month.atEndOfMonth().atStartOfDay());
+                    summaries.add(summary);
+                }
+                return summaries;
+            });
         } catch (Exception e) {
             throw new IllegalArgumentException("Error while fetching smart meter data: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Shuts down the batch report pool, letting the partitions being reported on finish.
+     */
+    @Override
+    public void destroy() {
+        batchPool.shutdown();
+        try {
+            batchPool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ProviderSmartMeterSummary summary(String providerId, Double totalMonthlyConsumption,
+                                                     Double dailyAverageConsumption,
+                                                     Double averageConsumptionPerCitizen,
+                                                     Double peakHourlyConsumption, long citizenCount) {
+        // Build the summary
+        ProviderSmartMeterSummary summary = new ProviderSmartMeterSummary();
+        summary.setProviderId(providerId);
+        summary.setTotalMonthlyConsumption(totalMonthlyConsumption);
+        summary.setDailyAverageConsumption(dailyAverageConsumption);
+        summary.setAverageConsumptionPerCitizen(averageConsumptionPerCitizen);
+        summary.setPeakHourlyConsumption(peakHourlyConsumption);
+        summary.setCitizenCount((int) citizenCount);
+        return summary;
+    }
 }
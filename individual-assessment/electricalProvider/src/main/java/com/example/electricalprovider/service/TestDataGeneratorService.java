@@ -0,0 +1,622 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.dto.TestDataGenerationRequest;
+import com.example.electricalprovider.dto.TestDataGenerationStatus;
+import com.example.electricalprovider.models.ElectricalProviderModel;
+import com.example.electricalprovider.models.UserModel;
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.ReadingStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service class generating synthetic providers, customers and smart meter readings for capacity tests.
+ * <p>
+ * Customers are claimed in blocks by a fixed number of workers, and each worker streams its readings to
+ * MongoDB through the {@link ReadingStore} in unordered bulk writes of at most {@code chunkSize} readings. Memory therefore stays bounded
+ * by {@code parallelism * chunkSize} readings however large the run is. Every customer has its own random
+ * stream derived from the seed, so a run produces the same data whichever worker generates a customer.
+ * </p>
+ * <p>
+ * Each customer's readings are spread over the {@code months} months before {@code end}, one per time slot,
+ * with strictly increasing timestamps and cumulative consumption following the diurnal and seasonal
+ * {@link LoadProfile}. On top of that the load profile adds:
+ * </p>
+ * <ul>
+ *     <li>hot providers: customers are assigned to providers through a Zipf distribution;</li>
+ *     <li>hot customers: reading counts follow a Zipf distribution over a scrambled customer rank;</li>
+ *     <li>bursts: a meter occasionally reports a run of readings seconds apart;</li>
+ *     <li>late readings: a reading is occasionally inserted after some of the customer's later readings.</li>
+ * </ul>
+ * For example, 2000 providers with 1000 customers each and 50 readings per customer generate 100M readings.
+ */
+@Service
+public class TestDataGeneratorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestDataGeneratorService.class);
+
+    /**
+     * Leading bytes of the generated provider and customer IDs, keeping both valid ObjectIds and disjoint.
+     */
+    private static final int PROVIDER_ID_TAG = 0x50524f56;
+    private static final int CUSTOMER_ID_TAG = 0x43555354;
+
+    private static final int MAX_BURST_LENGTH = 20;
+
+    private static final int MAX_BURST_SPACING_SECONDS = 10;
+
+    /**
+     * The most later readings of the same customer a late reading is inserted after.
+     */
+    private static final int MAX_LATENESS = 10;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadingStore readingStore;
+
+    private final TestDataGenerationRequest defaults;
+
+    private final Duration progressInterval;
+
+    private final Counter insertedReadingsCounter;
+
+    private final Timer chunkInsertTimer;
+
+    private final AtomicReference<Run> currentRun = new AtomicReference<>();
+
+    private final ScheduledExecutorService progressReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "generator-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor for TestDataGeneratorService.
+     *
+     * @param mongoTemplate the template the bulk inserts of providers and users are issued through
+     * @param readingStore the store the readings are bulk inserted into, in its storage model
+     * @param meterRegistry the registry the generator metrics are published to
+     * @param providers the default number of providers to create
+     * @param customersPerProvider the default number of customers per provider
+     * @param readingsPerCustomer the default number of readings per customer
+     * @param months the default number of months the readings are spread over, ending now
+     * @param chunkSize the default number of readings per bulk insert
+     * @param parallelism the default number of workers inserting concurrently
+     * @param seed the default seed of the generated data
+     * @param progressInterval the interval between progress log lines
+     * @param diurnalAmplitude the default strength of the daily demand curve
+     * @param seasonalAmplitude the default strength of the yearly demand curve
+     * @param providerSkew the default Zipf exponent of the provider sizes
+     * @param customerSkew the default Zipf exponent of the customer reading counts
+     * @param burstProbability the default probability of a reading starting a burst
+     * @param lateProbability the default probability of a reading arriving late
+     */
+    public TestDataGeneratorService(MongoTemplate mongoTemplate, ReadingStore readingStore, MeterRegistry meterRegistry,
+                                    @Value("${generator.providers}") int providers,
+                                    @Value("${generator.customers-per-provider}") int customersPerProvider,
+                                    @Value("${generator.readings-per-customer}") int readingsPerCustomer,
+                                    @Value("${generator.months}") int months,
+                                    @Value("${generator.chunk-size}") int chunkSize,
+                                    @Value("${generator.parallelism}") int parallelism,
+                                    @Value("${generator.seed}") long seed,
+                                    @Value("${generator.progress-interval}") Duration progressInterval,
+                                    @Value("${generator.profile.diurnal-amplitude}") double diurnalAmplitude,
+                                    @Value("${generator.profile.seasonal-amplitude}") double seasonalAmplitude,
+                                    @Value("${generator.profile.provider-skew}") double providerSkew,
+                                    @Value("${generator.profile.customer-skew}") double customerSkew,
+                                    @Value("${generator.profile.burst-probability}") double burstProbability,
+                                    @Value("${generator.profile.late-probability}") double lateProbability) {
+        this.mongoTemplate = mongoTemplate;
+        this.readingStore = readingStore;
+        this.defaults = new TestDataGenerationRequest();
+        this.defaults.setProviders(providers);
+        this.defaults.setCustomersPerProvider(customersPerProvider);
+        this.defaults.setReadingsPerCustomer(readingsPerCustomer);
+        this.defaults.setMonths(months);
+        this.defaults.setChunkSize(chunkSize);
+        this.defaults.setParallelism(parallelism);
+        this.defaults.setSeed(seed);
+        this.defaults.setDiurnalAmplitude(diurnalAmplitude);
+        this.defaults.setSeasonalAmplitude(seasonalAmplitude);
+        this.defaults.setProviderSkew(providerSkew);
+        this.defaults.setCustomerSkew(customerSkew);
+        this.defaults.setBurstProbability(burstProbability);
+        this.defaults.setLateProbability(lateProbability);
+        this.progressInterval = progressInterval;
+        this.insertedReadingsCounter = Counter.builder("generator.readings.inserted")
+                .description("Synthetic smart meter readings inserted by the test data generator")
+                .register(meterRegistry);
+        this.chunkInsertTimer = Timer.builder("generator.chunk.insert")
+                .description("Latency of one bulk insert of the test data generator")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a generation run in the background.
+     *
+     * @param request the run's settings; missing settings fall back to the defaults
+     * @return a future completed with the final status of the run
+     * @throws IllegalArgumentException if a setting is invalid
+     * @throws IllegalStateException if another run is still in progress
+     */
+    public CompletableFuture<TestDataGenerationStatus> generate(TestDataGenerationRequest request) {
+        Spec spec = resolve(request == null ? new TestDataGenerationRequest() : request);
+        Run run = new Run(spec);
+        Run previous = currentRun.get();
+        if ((previous != null && previous.state.get() == State.RUNNING) || !currentRun.compareAndSet(previous, run)) {
+            throw new IllegalStateException("A test data generation run is already in progress");
+        }
+        logger.info("Generating {} readings for {} customers of {} providers with {} workers",
+                spec.totalReadings, spec.totalCustomers(), spec.providerIds.size(), spec.parallelism);
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(spec.parallelism,
+                runnable -> new Thread(runnable, "generator-" + workerIndex.incrementAndGet()));
+        ScheduledFuture<?> progress = progressReporter.scheduleAtFixedRate(() -> logProgress(run),
+                progressInterval.toMillis(), progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> providersInserted = spec.createProviders
+                ? CompletableFuture.runAsync(() -> insertProviders(spec), workers)
+                : CompletableFuture.completedFuture(null);
+        return providersInserted
+                .thenCompose(ignored -> {
+                    CompletableFuture<?>[] tasks = new CompletableFuture<?>[spec.parallelism];
+                    for (int i = 0; i < spec.parallelism; i++) {
+                        tasks[i] = CompletableFuture.runAsync(() -> generateReadings(run), workers);
+                    }
+                    return CompletableFuture.allOf(tasks);
+                })
+                .handle((ignored, failure) -> {
+                    progress.cancel(false);
+                    workers.shutdown();
+                    run.finish(failure);
+                    TestDataGenerationStatus status = run.status();
+                    if (failure == null) {
+                        logger.info("Generated {} readings and {} customers in {}s ({} readings/s)",
+                                status.getInsertedReadings(), status.getInsertedUsers(),
+                                Math.round(status.getElapsedSeconds()), Math.round(status.getReadingsPerSecond()));
+                    } else {
+                        logger.error("Test data generation failed after {} readings: {}",
+                                status.getInsertedReadings(), status.getError());
+                    }
+                    return status;
+                });
+    }
+
+    /**
+     * Returns the progress of the current or last generation run.
+     *
+     * @return the status of the run, or an IDLE status if none has been started
+     */
+    public TestDataGenerationStatus status() {
+        Run run = currentRun.get();
+        return run == null ? new TestDataGenerationStatus(State.IDLE.name(), 0, 0, 0, 0, 0, null) : run.status();
+    }
+
+    private Spec resolve(TestDataGenerationRequest request) {
+        int customersPerProvider = positive(request.getCustomersPerProvider(), defaults.getCustomersPerProvider(), "customersPerProvider");
+        int readingsPerCustomer = positive(request.getReadingsPerCustomer(), defaults.getReadingsPerCustomer(), "readingsPerCustomer");
+        int months = positive(request.getMonths(), defaults.getMonths(), "months");
+        int chunkSize = positive(request.getChunkSize(), defaults.getChunkSize(), "chunkSize");
+        int parallelism = positive(request.getParallelism(), defaults.getParallelism(), "parallelism");
+        long seed = request.getSeed() != null ? request.getSeed() : defaults.getSeed();
+
+        List<String> providerIds = request.getProviderIds();
+        boolean createProviders = providerIds == null || providerIds.isEmpty();
+        if (createProviders) {
+            int providers = positive(request.getProviders(), defaults.getProviders(), "providers");
+            providerIds = new ArrayList<>(providers);
+            for (int i = 0; i < providers; i++) {
+                providerIds.add(syntheticId(PROVIDER_ID_TAG, i));
+            }
+        } else {
+            for (String providerId : providerIds) {
+                if (!ObjectId.isValid(providerId)) {
+                    throw new IllegalArgumentException("Invalid ObjectId for Provider ID: " + providerId);
+                }
+            }
+        }
+
+        LocalDateTime end = request.getEnd() != null ? request.getEnd()
+                : LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime start = end.minusMonths(months);
+        // Leave room after the last slot for a burst starting in it
+        long spanSeconds = ChronoUnit.SECONDS.between(start, end) - (long) MAX_BURST_LENGTH * MAX_BURST_SPACING_SECONDS;
+        if (spanSeconds / readingsPerCustomer < 1) {
+            throw new IllegalArgumentException("readingsPerCustomer must not exceed one reading per second over " + months + " months");
+        }
+
+        LoadProfile profile = new LoadProfile(
+                value(request.getDiurnalAmplitude(), defaults.getDiurnalAmplitude()),
+                value(request.getSeasonalAmplitude(), defaults.getSeasonalAmplitude()));
+        double providerSkew = nonNegative(request.getProviderSkew(), defaults.getProviderSkew(), "providerSkew");
+        double customerSkew = nonNegative(request.getCustomerSkew(), defaults.getCustomerSkew(), "customerSkew");
+        double burstProbability = probability(request.getBurstProbability(), defaults.getBurstProbability(), "burstProbability");
+        double lateProbability = probability(request.getLateProbability(), defaults.getLateProbability(), "lateProbability");
+
+        return new Spec(List.copyOf(providerIds), createProviders, customersPerProvider, readingsPerCustomer,
+                start.toEpochSecond(ZoneOffset.UTC), spanSeconds, chunkSize, parallelism, seed, profile,
+                providerSkew > 0 ? new ZipfDistribution(providerIds.size(), providerSkew) : null,
+                customerSkew, burstProbability, lateProbability);
+    }
+
+    private static double value(Double value, double defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static double nonNegative(Double value, double defaultValue, String name) {
+        double resolved = value(value, defaultValue);
+        if (resolved < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return resolved;
+    }
+
+    private static double probability(Double value, double defaultValue, String name) {
+        double resolved = value(value, defaultValue);
+        if (resolved < 0 || resolved > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return resolved;
+    }
+
+    private static int positive(Integer value, int defaultValue, String name) {
+        int resolved = value != null ? value : defaultValue;
+        if (resolved <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return resolved;
+    }
+
+    private void insertProviders(Spec spec) {
+        List<ElectricalProviderModel> providers = new ArrayList<>(spec.chunkSize);
+        for (int i = 0; i < spec.providerIds.size(); i++) {
+            ElectricalProviderModel provider = new ElectricalProviderModel();
+            provider.setId(spec.providerIds.get(i));
+            provider.setCompanyName("Provider " + i);
+            provider.setCompanyAddress(i + " Grid Street, Capacity City");
+            provider.setCompanyPhoneNumber(String.format("555-%07d", i));
+            provider.setCompanyEmail("provider" + i + "@example.com");
+            providers.add(provider);
+            if (providers.size() == spec.chunkSize) {
+                bulkInsert(providers, ElectricalProviderModel.class);
+                providers.clear();
+            }
+        }
+        if (!providers.isEmpty()) {
+            bulkInsert(providers, ElectricalProviderModel.class);
+        }
+    }
+
+    /**
+     * Worker loop: claims blocks of customers until all are generated, flushing a bulk insert per full chunk.
+     *
+     * @param run the run the worker belongs to
+     */
+    private void generateReadings(Run run) {
+        try {
+            generateCustomers(run);
+        } catch (RuntimeException e) {
+            // Stop the other workers rather than letting them insert the rest of a failed run
+            run.aborted = true;
+            throw e;
+        }
+    }
+
+    private void generateCustomers(Run run) {
+        Spec spec = run.spec;
+        int block = Math.max(1, spec.chunkSize / spec.readingsPerCustomer);
+        ReadingBuffer readings = new ReadingBuffer(run);
+        List<UserModel> users = new ArrayList<>(block);
+        List<LateReading> lateReadings = new ArrayList<>(MAX_LATENESS);
+        long first;
+        while (!run.aborted && (first = run.nextCustomer.getAndAdd(block)) < spec.totalCustomers()) {
+            long last = Math.min(first + block, spec.totalCustomers());
+            for (long customer = first; customer < last; customer++) {
+                SplittableRandom random = new SplittableRandom(spec.seed ^ (customer * 0x9E3779B97F4A7C15L));
+                String providerId = spec.providerIds.get(spec.providerDistribution != null
+                        ? spec.providerDistribution.sample(random)
+                        : (int) (customer / spec.customersPerProvider));
+                String customerId = syntheticId(CUSTOMER_ID_TAG, customer);
+                users.add(user(providerId, customerId, customer, random));
+                generateCustomerReadings(spec, customer, providerId, customerId, random, readings, lateReadings);
+            }
+            run.insertedUsers.addAndGet(bulkInsert(users, UserModel.class));
+            users.clear();
+        }
+        readings.flush();
+    }
+
+    /**
+     * Generates one customer's readings in time order, emitting them to the buffer in arrival order.
+     */
+    private static void generateCustomerReadings(Spec spec, long customer, String providerId, String customerId,
+                                                 SplittableRandom random, ReadingBuffer readings,
+                                                 List<LateReading> lateReadings) {
+        int count = spec.readingCount(customer);
+        long slotSeconds = spec.spanSeconds / count;
+        double consumption = random.nextDouble(10_000);
+        double hourlyRate = 0.2 + random.nextDouble(1.3);
+        long previousEpoch = spec.startEpoch;
+        int burstRemaining = 0;
+        for (int i = 0; i < count; i++) {
+            long epoch;
+            if (burstRemaining > 0) {
+                epoch = previousEpoch + 1 + random.nextInt(MAX_BURST_SPACING_SECONDS);
+                burstRemaining--;
+            } else {
+                epoch = Math.max(previousEpoch + 1, spec.startEpoch + i * slotSeconds + random.nextLong(slotSeconds));
+                if (random.nextDouble() < spec.burstProbability) {
+                    burstRemaining = 1 + random.nextInt(MAX_BURST_LENGTH - 1);
+                }
+            }
+            consumption += 0.001 + hourlyRate * spec.profile.energy(previousEpoch, epoch) * (0.8 + random.nextDouble(0.4));
+            previousEpoch = epoch;
+            smartMeterModel reading = reading(providerId, customerId, consumption, epoch, random);
+
+            if (random.nextDouble() < spec.lateProbability) {
+                lateReadings.add(new LateReading(i + 1 + random.nextInt(MAX_LATENESS), reading));
+            } else {
+                readings.add(reading);
+            }
+            for (Iterator<LateReading> late = lateReadings.iterator(); late.hasNext(); ) {
+                LateReading lateReading = late.next();
+                if (lateReading.releaseAfter <= i) {
+                    readings.add(lateReading.reading);
+                    late.remove();
+                }
+            }
+        }
+        for (LateReading lateReading : lateReadings) {
+            readings.add(lateReading.reading);
+        }
+        lateReadings.clear();
+    }
+
+    private static UserModel user(String providerId, String customerId, long index, SplittableRandom random) {
+        UserModel user = new UserModel();
+        user.setId(customerId);
+        user.setProviderId(providerId);
+        user.setDatabaseNo(random.nextInt(100));
+        user.setName("Customer " + index);
+        user.setEmail("customer" + index + "@example.com");
+        user.setPhone(String.format("555-%07d", index % 10_000_000));
+        user.setCity("City" + index % 1000);
+        user.setState("State" + index % 50);
+        user.setCountry("Country");
+        user.setPostalCode("PostalCode" + index % 100_000);
+        user.setAddress("Address" + index);
+        return user;
+    }
+
+    private static smartMeterModel reading(String providerId, String customerId, double consumption, long epoch,
+                                           SplittableRandom random) {
+        smartMeterModel reading = new smartMeterModel();
+        reading.setProviderId(providerId);
+        reading.setCustomerId(customerId);
+        reading.setCurrentConsumption(consumption);
+        reading.setReadingTimestamp(LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC));
+        reading.setAutomatedEntryMethod(random.nextInt(20) != 0);
+        reading.setAlertFlag(random.nextInt(1000) == 0);
+        return reading;
+    }
+
+    private int insertReadings(List<smartMeterModel> readings) {
+        chunkInsertTimer.record(() -> readingStore.insertAll(readings));
+        insertedReadingsCounter.increment(readings.size());
+        return readings.size();
+    }
+
+    private int bulkInsert(List<?> documents, Class<?> entityClass) {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass)
+                .insert(documents)
+                .execute()
+                .getInsertedCount();
+    }
+
+    private void logProgress(Run run) {
+        TestDataGenerationStatus status = run.status();
+        logger.info("Generated {}/{} readings ({}%) in {}s, {} readings/s",
+                status.getInsertedReadings(), status.getTotalReadings(),
+                status.getTotalReadings() > 0 ? 100 * status.getInsertedReadings() / status.getTotalReadings() : 0,
+                Math.round(status.getElapsedSeconds()), Math.round(status.getReadingsPerSecond()));
+    }
+
+    /**
+     * Builds a deterministic, valid ObjectId from a tag and an index, so runs with the same settings
+     * produce the same provider and customer IDs.
+     */
+    private static String syntheticId(int tag, long index) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt(tag).putLong(index).array()).toHexString();
+    }
+
+    private enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * The resolved settings of a run.
+     */
+    private static final class Spec {
+        private final List<String> providerIds;
+        private final boolean createProviders;
+        private final int customersPerProvider;
+        private final int readingsPerCustomer;
+        private final long startEpoch;
+        private final long spanSeconds;
+        private final int chunkSize;
+        private final int parallelism;
+        private final long seed;
+        private final LoadProfile profile;
+        private final ZipfDistribution providerDistribution;
+        private final double customerSkew;
+        private final double customerHarmonic;
+        private final long rankMultiplier;
+        private final double burstProbability;
+        private final double lateProbability;
+        private final long totalReadings;
+
+        private Spec(List<String> providerIds, boolean createProviders, int customersPerProvider, int readingsPerCustomer,
+                     long startEpoch, long spanSeconds, int chunkSize, int parallelism, long seed, LoadProfile profile,
+                     ZipfDistribution providerDistribution, double customerSkew, double burstProbability,
+                     double lateProbability) {
+            this.providerIds = providerIds;
+            this.createProviders = createProviders;
+            this.customersPerProvider = customersPerProvider;
+            this.readingsPerCustomer = readingsPerCustomer;
+            this.startEpoch = startEpoch;
+            this.spanSeconds = spanSeconds;
+            this.chunkSize = chunkSize;
+            this.parallelism = parallelism;
+            this.seed = seed;
+            this.profile = profile;
+            this.providerDistribution = providerDistribution;
+            this.customerSkew = customerSkew;
+            this.burstProbability = burstProbability;
+            this.lateProbability = lateProbability;
+            long customers = totalCustomers();
+            this.customerHarmonic = customerSkew > 0 ? ZipfDistribution.harmonic(customers, customerSkew) : 1;
+            // An odd multiplier coprime with the customer count scrambles ranks, spreading hot customers over workers
+            long multiplier = 1_000_003;
+            while (gcd(multiplier, customers) != 1) {
+                multiplier += 2;
+            }
+            this.rankMultiplier = multiplier;
+            long total = 0;
+            if (customerSkew > 0) {
+                for (long customer = 0; customer < customers; customer++) {
+                    total += readingCount(customer);
+                }
+            } else {
+                total = customers * readingsPerCustomer;
+            }
+            this.totalReadings = total;
+        }
+
+        private long totalCustomers() {
+            return (long) providerIds.size() * customersPerProvider;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        /**
+         * Returns the number of readings of a customer: the same for all without customer skew, otherwise
+         * scaled by the Zipf weight of the customer's rank and capped at one reading per second.
+         */
+        private int readingCount(long customer) {
+            if (customerSkew == 0) {
+                return readingsPerCustomer;
+            }
+            long customers = totalCustomers();
+            long rank = Math.multiplyExact(customer, rankMultiplier % customers) % customers + 1;
+            double weight = customers * Math.pow(rank, -customerSkew) / customerHarmonic;
+            return (int) Math.max(1, Math.min(Math.min(spanSeconds, Integer.MAX_VALUE),
+                    Math.round(readingsPerCustomer * weight)));
+        }
+    }
+
+    /**
+     * A reading held back to be inserted after a later reading of the same customer.
+     */
+    private static final class LateReading {
+        private final int releaseAfter;
+        private final smartMeterModel reading;
+
+        private LateReading(int releaseAfter, smartMeterModel reading) {
+            this.releaseAfter = releaseAfter;
+            this.reading = reading;
+        }
+    }
+
+    /**
+     * A worker's chunk of readings, bulk inserted whenever it is full.
+     */
+    private final class ReadingBuffer {
+        private final Run run;
+        private final List<smartMeterModel> readings;
+
+        private ReadingBuffer(Run run) {
+            this.run = run;
+            this.readings = new ArrayList<>(run.spec.chunkSize);
+        }
+
+        private void add(smartMeterModel reading) {
+            readings.add(reading);
+            if (readings.size() == run.spec.chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!readings.isEmpty()) {
+                run.insertedReadings.addAndGet(insertReadings(readings));
+                readings.clear();
+            }
+        }
+    }
+
+    /**
+     * The progress of a run, updated concurrently by its workers.
+     */
+    private static final class Run {
+        private final Spec spec;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong nextCustomer = new AtomicLong();
+        private final AtomicLong insertedReadings = new AtomicLong();
+        private final AtomicLong insertedUsers = new AtomicLong();
+        private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+        private volatile boolean aborted;
+        private volatile long endNanos;
+        private volatile String error;
+
+        private Run(Spec spec) {
+            this.spec = spec;
+        }
+
+        private void finish(Throwable failure) {
+            endNanos = System.nanoTime();
+            if (failure != null) {
+                Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+                error = cause.getMessage();
+                state.set(State.FAILED);
+            } else {
+                state.set(State.COMPLETED);
+            }
+        }
+
+        private TestDataGenerationStatus status() {
+            long end = state.get() == State.RUNNING ? System.nanoTime() : endNanos;
+            double elapsedSeconds = (end - startNanos) / 1e9;
+            long inserted = insertedReadings.get();
+            return new TestDataGenerationStatus(state.get().name(), spec.totalReadings, inserted,
+                    insertedUsers.get(), elapsedSeconds, elapsedSeconds > 0 ? inserted / elapsedSeconds : 0, error);
+        }
+    }
+}
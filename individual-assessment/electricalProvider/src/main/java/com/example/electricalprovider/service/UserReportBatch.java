@@ -0,0 +1,165 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.dto.UserSmartMeterReport;
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.ReadingStore;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * The user reports of all customers of a provider for one month, as needed by a billing run.
+ * <p>
+ * The customers with readings in the month are split into partitions of consecutive IDs, which are
+ * reported on in parallel by a fork/join pool. Each partition is a single query streaming its customers'
+ * readings of the month and the month before, grouped by customer, so every reading is read once and only
+ * the figures of the current customer are held. The previous month gives the starting consumption, as for
+ * a single report; for a customer without readings in it, the last earlier reading is looked up.
+ * </p>
+ */
+public final class UserReportBatch {
+
+    private final ReadingStore readingStore;
+
+    private final ForkJoinPool pool;
+
+    private final int partitionSize;
+
+    private final String providerId;
+
+    private final YearMonth month;
+
+    private final List<String> customerIds;
+
+    /**
+     * Constructor for UserReportBatch.
+     *
+     * @param readingStore the store the readings are streamed from
+     * @param pool the pool the partitions are reported on in
+     * @param partitionSize the highest number of customers read in one query
+     * @param providerId the ID of the provider
+     * @param month the month to report on
+     * @param customerIds the IDs of the customers with readings in the month, in ascending order
+     */
+    UserReportBatch(ReadingStore readingStore, ForkJoinPool pool, int partitionSize, String providerId,
+                    YearMonth month, List<String> customerIds) {
+        this.readingStore = readingStore;
+        this.pool = pool;
+        this.partitionSize = partitionSize;
+        this.providerId = providerId;
+        this.month = month;
+        this.customerIds = customerIds;
+    }
+
+    /**
+     * Returns the number of customers reported on.
+     *
+     * @return the number of customers
+     */
+    public int size() {
+        return customerIds.size();
+    }
+
+    /**
+     * Computes the reports, passing each to an action as soon as its customer's readings are read.
+     * <p>
+     * The action is called from the pool's threads, one report at a time. The reports of a partition are
+     * passed in customer ID order, the partitions in any order.
+     * </p>
+     *
+     * @param action the action called with each report
+     * @throws RuntimeException the exception of a partition that failed, after which the remaining partitions
+     *         may be skipped; the reports computed until then have been passed already
+     */
+    public void forEach(Consumer<UserSmartMeterReport> action) {
+        if (!customerIds.isEmpty()) {
+            pool.invoke(new Partition(0, customerIds.size(), action));
+        }
+    }
+
+    private final class Partition extends RecursiveAction {
+
+        private final int from;
+
+        private final int to;
+
+        private final Consumer<UserSmartMeterReport> action;
+
+        private Partition(int from, int to, Consumer<UserSmartMeterReport> action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > partitionSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Partition(from, middle, action), new Partition(middle, to, action));
+                return;
+            }
+            LocalDateTime startOfLastMonth = month.minusMonths(1).atDay(1).atStartOfDay();
+            CustomerReports reports = new CustomerReports(startOfLastMonth, action);
+            readingStore.forEachOfCustomersBetween(providerId, customerIds.get(from), customerIds.get(to - 1),
+                    startOfLastMonth, month.plusMonths(1).atDay(1).atStartOfDay(), reports);
+            reports.finish();
+        }
+    }
+
+    /**
+     * Accumulates the readings of one customer at a time, reporting on a customer once the next one's
+     * readings start.
+     */
+    private final class CustomerReports implements Consumer<smartMeterModel> {
+
+        private final LocalDateTime startOfLastMonth;
+
+        private final Consumer<UserSmartMeterReport> action;
+
+        private String customerId;
+
+        private MonthlyReadingStats thisMonth;
+
+        private MonthlyReadingStats lastMonth;
+
+        private CustomerReports(LocalDateTime startOfLastMonth, Consumer<UserSmartMeterReport> action) {
+            this.startOfLastMonth = startOfLastMonth;
+            this.action = action;
+        }
+
+        @Override
+        public void accept(smartMeterModel reading) {
+            if (!reading.getCustomerId().equals(customerId)) {
+                finish();
+                customerId = reading.getCustomerId();
+                thisMonth = new MonthlyReadingStats(month);
+                lastMonth = new MonthlyReadingStats(month.minusMonths(1));
+            }
+            // Each month ignores the readings of the other
+            long epochSecond = reading.getReadingTimestamp().toEpochSecond(ZoneOffset.UTC);
+            thisMonth.add(epochSecond, reading.getCurrentConsumption(), !reading.isAutomatedEntryMethod());
+            lastMonth.add(epochSecond, reading.getCurrentConsumption(), !reading.isAutomatedEntryMethod());
+        }
+
+        private void finish() {
+            // A customer with readings in the previous month only is not reported on
+            if (customerId == null || thisMonth.readings() == 0) {
+                return;
+            }
+            double startingConsumption = lastMonth.readings() > 0
+                    ? lastMonth.lastConsumption(0.0)
+                    : readingStore.findLatestBefore(customerId, providerId, startOfLastMonth)
+                            .map(smartMeterModel::getCurrentConsumption)
+                            .orElse(0.0);
+            UserSmartMeterReport report = SmartMeterService.report(customerId, thisMonth, startingConsumption);
+            synchronized (action) {
+                action.accept(report);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.electricalprovider.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over the ranks {@code 1..n}, where rank {@code k} has a probability proportional to
+ * {@code 1 / k^exponent}. An exponent of zero is uniform; around one a handful of ranks dominate.
+ * <p>
+ * Sampling searches a precomputed cumulative table, so it needs {@code n} doubles and is meant for
+ * populations of the size of the provider list rather than of the customer base.
+ * </p>
+ */
+public final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /**
+     * Constructor for ZipfDistribution.
+     *
+     * @param n the number of ranks
+     * @param exponent the skew of the distribution, zero or more
+     * @throws IllegalArgumentException if n is not positive or the exponent is negative
+     */
+    public ZipfDistribution(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("exponent must not be negative");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += Math.pow(rank, -exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * Draws a zero-based index, index {@code 0} being the most likely.
+     *
+     * @param random the random stream to draw from
+     * @return an index between 0 and n - 1
+     */
+    public int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Returns the generalized harmonic number {@code H(n, exponent)}, the normalizer of a Zipf distribution.
+     * Computed in a single pass without a table, so it can be used for populations of any size.
+     *
+     * @param n the number of ranks
+     * @param exponent the skew of the distribution
+     * @return the sum of {@code 1 / k^exponent} for k from 1 to n
+     */
+    public static double harmonic(long n, double exponent) {
+        double sum = 0;
+        for (long rank = n; rank >= 1; rank--) {
+            sum += Math.pow(rank, -exponent);
+        }
+        return sum;
+    }
+}
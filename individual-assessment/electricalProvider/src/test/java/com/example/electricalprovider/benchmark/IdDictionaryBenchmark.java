@@ -0,0 +1,143 @@
+package com.example.electricalprovider.benchmark;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.IdDictionary;
+import com.example.electricalprovider.service.ProviderReadingColumns;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the heap a provider's readings take with and without the {@link IdDictionary}, and what the
+ * dictionary costs per reading.
+ * <p>
+ * The heap footprint is measured first, outside JMH: the used heap after a full collection, before and after
+ * building each variant of a million readings of 5,000 customers, as returned by the reading store. Every
+ * reading gets fresh ID strings, as the MongoDB decoder creates them. This is an estimate rather than an
+ * exact object graph size, but the differences are large enough to read off. The benchmarks that follow
+ * measure the lookup of a known ID, the cost paid per reading at the repository boundary.
+ * </p>
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=com.example.electricalprovider.benchmark.IdDictionaryBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+public class IdDictionaryBenchmark {
+
+    private static final int READINGS = 1_000_000;
+
+    private static final int CUSTOMERS = 5_000;
+
+    private static final String PROVIDER_ID = "6751b3b2a1c1e52f9c3f7a22";
+
+    private IdDictionary dictionary;
+
+    private String[] decodedIds;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dictionary = new IdDictionary();
+        decodedIds = new String[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String id = new ObjectId().toHexString();
+            dictionary.handle(id);
+            // An equal but distinct instance, as read from a document
+            decodedIds[i] = new String(id.toCharArray());
+        }
+    }
+
+    @Benchmark
+    public String canonical() {
+        return dictionary.canonical(nextId());
+    }
+
+    @Benchmark
+    public int handle() {
+        return dictionary.handle(nextId());
+    }
+
+    private String nextId() {
+        next = next + 1 == CUSTOMERS ? 0 : next + 1;
+        return decodedIds[next];
+    }
+
+    /**
+     * Builds a provider's readings as the reading store returns them, newest first.
+     */
+    private static List<smartMeterModel> decodedReadings(String[] customerIds) {
+        List<smartMeterModel> readings = new ArrayList<>(READINGS);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = READINGS - 1; i >= 0; i--) {
+            smartMeterModel reading = new smartMeterModel(new String(PROVIDER_ID.toCharArray()), i,
+                    timestamp.plusMinutes(i), false, true);
+            reading.setCustomerId(new String(customerIds[i % CUSTOMERS].toCharArray()));
+            reading.setId(reading.getCustomerId() + ":" + reading.getReadingTimestamp());
+            readings.add(reading);
+        }
+        return readings;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void measure(String variant, Supplier<Object> build) {
+        long before = usedHeapAfterGc();
+        Object retained = build.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(retained);
+        System.out.printf("%-44s %,8.1f MB %6.1f bytes/reading%n", variant, (after - before) / 1e6,
+                (double) (after - before) / READINGS);
+    }
+
+    private static void printHeapFootprint() {
+        String[] customerIds = new String[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIds[i] = new ObjectId().toHexString();
+        }
+        System.out.printf("Retained heap of %,d readings of %,d customers%n", READINGS, CUSTOMERS);
+        measure("readings with their own ID strings", () -> decodedReadings(customerIds));
+        IdDictionary dictionary = new IdDictionary();
+        measure("readings with dictionary IDs", () -> {
+            List<smartMeterModel> readings = decodedReadings(customerIds);
+            readings.forEach(dictionary::canonicalize);
+            return readings;
+        });
+        measure("columnar snapshot with dictionary handles", () ->
+                ProviderReadingColumns.load(decodedReadings(customerIds)::forEach, dictionary));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printHeapFootprint();
+        new Runner(new OptionsBuilder().include(IdDictionaryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
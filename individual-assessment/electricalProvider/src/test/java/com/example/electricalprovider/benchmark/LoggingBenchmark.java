@@ -0,0 +1,168 @@
+package com.example.electricalprovider.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.common.logging.SamplingTurboFilter;
+import com.example.electricalprovider.models.smartMeterModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-message logging of the consumer hot path before and after moving off {@code System.out}.
+ * <p>
+ * Every variant writes to {@code /dev/null} through a flushing stream, so the cost of a console write is
+ * kept while the terminal itself is taken out of the measurement. Four threads log concurrently, as the
+ * listener container does. The async variants measure the caller's cost only: the appender never blocks
+ * and drops INFO events once its queue is full, which is the intended behaviour under load.
+ * </p>
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=com.example.electricalprovider.benchmark.LoggingBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level --- [%thread] %logger{39} : %msg%n";
+
+    private static final Marker READING_RECEIVED = MarkerFactory.getMarker("reading-received");
+
+    private PrintStream systemOut;
+    private LoggerContext loggerContext;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private Logger sampledLogger;
+    private smartMeterModel reading;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        systemOut = new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 8192), true);
+
+        loggerContext = new LoggerContext();
+        // The context Spring Boot sets up has an MDC adapter; without one every event pays for an exception
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+        loggerContext.start();
+        SamplingTurboFilter sampling = new SamplingTurboFilter();
+        sampling.setMarkerName(READING_RECEIVED.getName());
+        sampling.setRate(100);
+        sampling.setContext(loggerContext);
+        sampling.start();
+        loggerContext.addTurboFilter(sampling);
+
+        syncLogger = logger("sync", devNullAppender("sync"));
+        asyncLogger = logger("async", asyncAppender("async"));
+        sampledLogger = logger("sampled", asyncAppender("sampled"));
+
+        reading = new smartMeterModel();
+        reading.setId("8c1f0f9e-4f7d-4a55-9d43-3c1f3f4c9a10");
+        reading.setCustomerId("6751b3b2a1c1e52f9c3f7a11");
+        reading.setProviderId("6751b3b2a1c1e52f9c3f7a22");
+        reading.setCurrentConsumption(1234.56);
+        reading.setReadingTimestamp(LocalDateTime.now());
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+        systemOut.close();
+    }
+
+    /**
+     * The previous consumer logging: string concatenation and a synchronized, flushing println per message.
+     */
+    @Benchmark
+    public void systemOutConcatenation() {
+        systemOut.println("Received smart meter data: " + reading);
+    }
+
+    @Benchmark
+    public void syncParameterized() {
+        syncLogger.info("Received smart meter data for customer {} from provider {}",
+                reading.getCustomerId(), reading.getProviderId());
+    }
+
+    @Benchmark
+    public void asyncParameterized() {
+        asyncLogger.info("Received smart meter data for customer {} from provider {}",
+                reading.getCustomerId(), reading.getProviderId());
+    }
+
+    /**
+     * The new consumer logging: marker-sampled, parameterized and asynchronous.
+     */
+    @Benchmark
+    public void asyncSampledParameterized() {
+        sampledLogger.info(READING_RECEIVED, "Received smart meter data for customer {} from provider {}",
+                reading.getCustomerId(), reading.getProviderId());
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        ch.qos.logback.classic.Logger logger = loggerContext.getLogger(name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private OutputStreamAppender<ILoggingEvent> devNullAppender(String name) throws FileNotFoundException {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setName(name);
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 8192));
+        appender.start();
+        return appender;
+    }
+
+    private AsyncAppender asyncAppender(String name) throws FileNotFoundException {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setName(name + "-async");
+        appender.setContext(loggerContext);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.setIncludeCallerData(false);
+        appender.addAppender(devNullAppender(name));
+        appender.start();
+        return appender;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.electricalprovider.client;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResilientCitizenClientTest {
+
+    private CitizenClient delegate;
+
+    private ResilientCitizenClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Mockito.mock(CitizenClient.class);
+        client = new ResilientCitizenClient(delegate,
+                ThreadPoolBulkhead.ofDefaults("citizen"),
+                TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(Duration.ofMillis(200)).build()),
+                CircuitBreaker.ofDefaults("citizen"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void testRegisterSmartMeter_Success() {
+        Mockito.when(delegate.registerSmartMeter("provider", "user")).thenReturn("Smart Meter registered successfully");
+
+        assertEquals("Smart Meter registered successfully", client.registerSmartMeter("provider", "user"));
+    }
+
+    @Test
+    void testRegisterSmartMeter_RejectionIsNotAnsweredFromCache() {
+        Mockito.when(delegate.registerSmartMeter("provider", "user"))
+                .thenReturn("Smart Meter registered successfully")
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Smart meter already registered",
+                        null, null, null));
+
+        client.registerSmartMeter("provider", "user");
+        HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                () -> client.registerSmartMeter("provider", "user"));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void testRegisterSmartMeter_FailureIsNotRetried() {
+        Mockito.when(delegate.registerSmartMeter("provider", "user"))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable",
+                        null, null, null));
+
+        assertThrows(HttpServerErrorException.class, () -> client.registerSmartMeter("provider", "user"));
+        Mockito.verify(delegate, Mockito.times(1)).registerSmartMeter("provider", "user");
+    }
+
+    @Test
+    void testRegisterSmartMeter_TimeoutIsNotRetried() {
+        Mockito.when(delegate.registerSmartMeter("provider", "user")).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return "Smart Meter registered successfully";
+        });
+
+        assertThrows(IllegalStateException.class, () -> client.registerSmartMeter("provider", "user"));
+        Mockito.verify(delegate, Mockito.times(1)).registerSmartMeter("provider", "user");
+    }
+}
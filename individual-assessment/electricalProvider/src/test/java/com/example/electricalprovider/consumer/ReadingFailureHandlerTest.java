@@ -0,0 +1,125 @@
+package com.example.electricalprovider.consumer;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ReturnListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.RabbitExceptionTranslator;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReadingFailureHandlerTest {
+
+    private Channel channel;
+
+    private AtomicReference<ReturnListener> returnListener;
+
+    private ReadingFailureHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        channel = Mockito.mock(Channel.class);
+        returnListener = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            returnListener.set(invocation.getArgument(0));
+            return null;
+        }).when(channel).addReturnListener(ArgumentMatchers.any(ReturnListener.class));
+        RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+        // Translates checked exceptions as the template does
+        Mockito.when(rabbitTemplate.execute(ArgumentMatchers.<ChannelCallback<Object>>any())).thenAnswer(invocation -> {
+            try {
+                return invocation.<ChannelCallback<Object>>getArgument(0).doInRabbit(channel);
+            } catch (Exception e) {
+                throw RabbitExceptionTranslator.convertRabbitAccessException(e);
+            }
+        });
+        handler = new ReadingFailureHandler(rabbitTemplate, "smart-meter.retry.",
+                List.of(Duration.ofSeconds(1), Duration.ofSeconds(10)), "smart-meter.dlx", "smart-meter.dlq",
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testHandle_RetryableFailureGoesToNextRetryQueueConfirmed() throws Exception {
+        Message message = message(1);
+
+        assertEquals("retry", handler.handle(message, new DataAccessResourceFailureException("MongoDB unavailable")));
+
+        var inOrder = Mockito.inOrder(channel);
+        inOrder.verify(channel).basicPublish(ArgumentMatchers.eq(""), ArgumentMatchers.eq("smart-meter.retry.2"),
+                ArgumentMatchers.eq(true),
+                ArgumentMatchers.argThat(properties -> Integer.valueOf(2).equals(
+                        properties.getHeaders().get(ReadingFailureHandler.RETRY_COUNT_HEADER))
+                        && "smart-meter-queue.1".equals(properties.getHeaders().get(ReadingFailureHandler.ORIGINAL_QUEUE_HEADER))),
+                ArgumentMatchers.any());
+        inOrder.verify(channel).waitForConfirmsOrDie(5000);
+        Mockito.verify(channel).removeReturnListener(returnListener.get());
+    }
+
+    @Test
+    void testHandle_ValidationFailureGoesToDeadLetterQueueConfirmed() throws Exception {
+        assertEquals("dead-letter", handler.handle(message(0), new IllegalArgumentException("negative consumption")));
+
+        var inOrder = Mockito.inOrder(channel);
+        inOrder.verify(channel).basicPublish(ArgumentMatchers.eq("smart-meter.dlx"),
+                ArgumentMatchers.eq("smart-meter.dlq"), ArgumentMatchers.eq(true),
+                ArgumentMatchers.any(AMQP.BasicProperties.class), ArgumentMatchers.any());
+        inOrder.verify(channel).waitForConfirmsOrDie(5000);
+    }
+
+    @Test
+    void testHandle_RetriesUsedUpGoToDeadLetterQueue() throws Exception {
+        assertEquals("dead-letter", handler.handle(message(2), new DataAccessResourceFailureException("MongoDB unavailable")));
+
+        Mockito.verify(channel).basicPublish(ArgumentMatchers.eq("smart-meter.dlx"),
+                ArgumentMatchers.eq("smart-meter.dlq"), ArgumentMatchers.eq(true),
+                ArgumentMatchers.any(AMQP.BasicProperties.class), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testHandle_NackFails() throws Exception {
+        Mockito.doThrow(new IOException("nack received")).when(channel).waitForConfirmsOrDie(5000);
+
+        assertThrows(AmqpException.class,
+                () -> handler.handle(message(0), new DataAccessResourceFailureException("MongoDB unavailable")));
+    }
+
+    @Test
+    void testHandle_UnroutableFails() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            returnListener.get().handleReturn(312, "NO_ROUTE", invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(3), invocation.getArgument(4));
+            return null;
+        }).when(channel).basicPublish(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyBoolean(), ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        assertThrows(AmqpException.class,
+                () -> handler.handle(message(0), new DataAccessResourceFailureException("MongoDB unavailable")));
+        Mockito.verify(channel).removeReturnListener(returnListener.get());
+    }
+
+    private static Message message(int retryCount) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("smart-meter-queue.1");
+        if (retryCount > 0) {
+            properties.setHeader(ReadingFailureHandler.RETRY_COUNT_HEADER, retryCount);
+        }
+        return new Message("{\"customerId\":\"customer-7\"}".getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.electricalprovider.consumer;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.service.SmartMeterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SmartMeterRouterServiceTest {
+
+    private SmartMeterService smartMeterService;
+
+    private ReadingFailureHandler readingFailureHandler;
+
+    private SmartMeterRouterService routerService;
+
+    @BeforeEach
+    void setUp() {
+        smartMeterService = Mockito.mock(SmartMeterService.class);
+        readingFailureHandler = Mockito.mock(ReadingFailureHandler.class);
+        routerService = new SmartMeterRouterService(smartMeterService, readingFailureHandler, new SimpleMeterRegistry());
+        Mockito.when(smartMeterService.processSmartMeterData(ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.failedFuture(new DataAccessResourceFailureException("MongoDB unavailable")));
+    }
+
+    @Test
+    void testRouteToProviderQueue_RepublishedFailureCompletes() {
+        Mockito.when(readingFailureHandler.handle(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn("retry");
+
+        CompletableFuture<Void> acknowledged = routerService.routeToProviderQueue(new smartMeterModel(), message(), null);
+
+        assertDoesNotThrow(acknowledged::join);
+        Mockito.verify(readingFailureHandler).handle(ArgumentMatchers.any(),
+                ArgumentMatchers.isA(DataAccessResourceFailureException.class));
+    }
+
+    @Test
+    void testRouteToProviderQueue_FailedRepublishFailsSoTheMessageIsRequeued() {
+        Mockito.when(readingFailureHandler.handle(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenThrow(new AmqpIOException(new IOException("nack received")));
+
+        CompletableFuture<Void> acknowledged = routerService.routeToProviderQueue(new smartMeterModel(), message(), null);
+
+        assertThrows(CompletionException.class, acknowledged::join);
+    }
+
+    private static Message message() {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("smart-meter-queue.1");
+        return new Message(new byte[0], properties);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.electricalprovider.controller;
+
+import com.example.electricalprovider.dto.DeadLetterStatus;
+import com.example.electricalprovider.service.DeadLetterService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.net.ConnectException;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = DeadLetterController.class)
+class DeadLetterControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DeadLetterService deadLetterService;
+
+    @Test
+    void testGetDeadLetterStatus_Success() throws Exception {
+        Mockito.when(deadLetterService.status()).thenReturn(new DeadLetterStatus("smart-meter.dlq", 12));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/electricalProvider/deadLetters"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queue").value("smart-meter.dlq"))
+                .andExpect(jsonPath("$.messageCount").value(12));
+    }
+
+    @Test
+    void testReplayDeadLetters_Success() throws Exception {
+        Mockito.when(deadLetterService.replay(50)).thenReturn(7);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/deadLetters/replay")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Replayed 7 dead-lettered readings"));
+    }
+
+    @Test
+    void testReplayDeadLetters_InvalidLimit_BadRequest() throws Exception {
+        Mockito.when(deadLetterService.replay(0)).thenThrow(new IllegalArgumentException("limit must be positive"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/deadLetters/replay")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("limit must be positive"));
+    }
+
+    @Test
+    void testReplayDeadLetters_BrokerDown_ServiceUnavailable() throws Exception {
+        Mockito.when(deadLetterService.replay(100))
+                .thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/deadLetters/replay"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
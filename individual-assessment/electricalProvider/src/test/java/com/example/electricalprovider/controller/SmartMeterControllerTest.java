@@ -3,6 +3,7 @@ package com.example.electricalprovider.controller;
 import com.example.electricalprovider.dto.ProviderSmartMeterSummary;
 import com.example.electricalprovider.dto.UserSmartMeterReport;
 import com.example.electricalprovider.service.SmartMeterService;
+import com.example.electricalprovider.service.UserReportBatch;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -14,10 +15,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
@@ -86,6 +92,27 @@ class SmartMeterControllerTest {
                 .andExpect(jsonPath("$.hasManualEntry").value(false));
     }
 
+    @Test
+    void testGetSummarySmartMeterDataByUser_ForMonth() throws Exception {
+        String providerId = new ObjectId().toHexString();
+        String customerId = new ObjectId().toHexString();
+        UserSmartMeterReport report = new UserSmartMeterReport();
+        report.setCustomerId(customerId);
+        report.setTotalMonthlyConsumption(320.0);
+        report.setNumberOfReadingsRecorded(28);
+
+        Mockito.when(smartMeterService.summarySmartMeterDataByUser(providerId, customerId, YearMonth.of(2024, 2)))
+                .thenReturn(report);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/electricalProvider/{providerId}/smartMeter/users/{customerId}/summary", providerId, customerId)
+                        .param("month", "2024-02")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(customerId))
+                .andExpect(jsonPath("$.totalMonthlyConsumption").value(320.0))
+                .andExpect(jsonPath("$.numberOfReadingsRecorded").value(28));
+    }
+
     @Test
     void testGetSummarySmartMeterDataByUser_BadRequest() throws Exception {
         String providerId = new ObjectId().toHexString();
@@ -101,6 +128,61 @@ class SmartMeterControllerTest {
                 .andExpect(content().string(errorMessage));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetSummarySmartMeterDataByUsers_Success() throws Exception {
+        String providerId = new ObjectId().toHexString();
+        UserSmartMeterReport first = new UserSmartMeterReport();
+        first.setCustomerId(new ObjectId().toHexString());
+        first.setTotalMonthlyConsumption(320.0);
+        UserSmartMeterReport second = new UserSmartMeterReport();
+        second.setCustomerId(new ObjectId().toHexString());
+        second.setTotalMonthlyConsumption(280.0);
+        UserReportBatch batch = Mockito.mock(UserReportBatch.class);
+        Mockito.doAnswer(invocation -> {
+            Consumer<UserSmartMeterReport> action = invocation.getArgument(0);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(batch).forEach(Mockito.any(Consumer.class));
+
+        Mockito.when(smartMeterService.summarySmartMeterDataByUsers(providerId, YearMonth.of(2024, 2)))
+                .thenReturn(batch);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/electricalProvider/{providerId}/smartMeter/users/summary", providerId)
+                        .param("month", "2024-02"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"customerId\":\"" + first.getCustomerId() + "\""));
+        assertTrue(lines[0].contains("\"totalMonthlyConsumption\":320.0"));
+        assertTrue(lines[1].contains("\"customerId\":\"" + second.getCustomerId() + "\""));
+        assertTrue(lines[1].contains("\"totalMonthlyConsumption\":280.0"));
+    }
+
+    @Test
+    void testGetSummarySmartMeterDataByUsers_BadRequest() throws Exception {
+        String providerId = "invalid";
+        String errorMessage = "Invalid ObjectId for Provider ID: invalid";
+
+        Mockito.when(smartMeterService.summarySmartMeterDataByUsers(Mockito.eq(providerId), Mockito.any(YearMonth.class)))
+                .thenThrow(new IllegalArgumentException(errorMessage));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/electricalProvider/{providerId}/smartMeter/users/summary", providerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(errorMessage));
+    }
+
     @Test
     void testGetSummaryElectricalProviderSmartMeterData_Success() throws Exception {
         String providerId = new ObjectId().toHexString();
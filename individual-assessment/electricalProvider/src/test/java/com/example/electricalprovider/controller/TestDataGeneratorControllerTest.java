@@ -0,0 +1,99 @@
+package com.example.electricalprovider.controller;
+
+import com.example.electricalprovider.dto.TestDataGenerationRequest;
+import com.example.electricalprovider.dto.TestDataGenerationStatus;
+import com.example.electricalprovider.service.TestDataGeneratorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = TestDataGeneratorController.class)
+class TestDataGeneratorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TestDataGeneratorService testDataGeneratorService;
+
+    @Test
+    void testStartGeneration_Accepted() throws Exception {
+        String requestBody = """
+                {
+                    "providers": 2000,
+                    "customersPerProvider": 1000,
+                    "readingsPerCustomer": 50,
+                    "seed": 7,
+                    "end": "2026-10-01T00:00:00",
+                    "customerSkew": 1.1
+                }
+                """;
+
+        Mockito.when(testDataGeneratorService.generate(Mockito.any(TestDataGenerationRequest.class)))
+                .thenReturn(new CompletableFuture<>());
+        Mockito.when(testDataGeneratorService.status())
+                .thenReturn(new TestDataGenerationStatus("RUNNING", 100_000_000L, 0, 0, 0.1, 0, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/generator/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.totalReadings").value(100_000_000L));
+
+        Mockito.verify(testDataGeneratorService).generate(Mockito.argThat(request ->
+                request.getProviders() == 2000 && request.getCustomersPerProvider() == 1000
+                        && request.getReadingsPerCustomer() == 50 && request.getChunkSize() == null
+                        && request.getSeed() == 7 && request.getEnd().equals(LocalDateTime.of(2026, 10, 1, 0, 0))
+                        && request.getCustomerSkew() == 1.1 && request.getProviderSkew() == null));
+    }
+
+    @Test
+    void testStartGeneration_InvalidSetting_BadRequest() throws Exception {
+        Mockito.when(testDataGeneratorService.generate(Mockito.any()))
+                .thenThrow(new IllegalArgumentException("chunkSize must be positive"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/generator/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"chunkSize\": 0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("chunkSize must be positive"));
+    }
+
+    @Test
+    void testStartGeneration_AlreadyRunning_Conflict() throws Exception {
+        Mockito.when(testDataGeneratorService.generate(Mockito.any()))
+                .thenThrow(new IllegalStateException("A test data generation run is already in progress"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/electricalProvider/generator/start"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("A test data generation run is already in progress"));
+    }
+
+    @Test
+    void testGetGenerationStatus_Success() throws Exception {
+        Mockito.when(testDataGeneratorService.status())
+                .thenReturn(new TestDataGenerationStatus("COMPLETED", 500_000L, 500_000L, 10_000L, 20.0, 25_000.0, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/electricalProvider/generator/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.insertedReadings").value(500_000L))
+                .andExpect(jsonPath("$.readingsPerSecond").value(25_000.0));
+    }
+}
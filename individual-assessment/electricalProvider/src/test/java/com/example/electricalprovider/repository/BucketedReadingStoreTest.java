@@ -0,0 +1,220 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.ReadingBucket;
+import com.example.electricalprovider.models.smartMeterModel;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BucketedReadingStoreTest {
+
+    private static final String CUSTOMER_ID = "65f0c0ffee0000000000000a";
+
+    private static final String PROVIDER_ID = "65f0c0ffee0000000000000b";
+
+    private MongoTemplate mongoTemplate;
+
+    private BucketedReadingStore store;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = Mockito.mock(MongoTemplate.class);
+        store = new BucketedReadingStore(mongoTemplate, ChronoUnit.DAYS, new IdDictionary());
+    }
+
+    @Test
+    void testBucketId_SortsInTimeOrder() {
+        for (ChronoUnit granularity : List.of(ChronoUnit.HOURS, ChronoUnit.DAYS)) {
+            // Across hour, day, month and year boundaries, where a shorter or unpadded form would sort wrongly
+            LocalDateTime start = LocalDateTime.of(2023, 12, 30, 8, 0);
+            String previous = ReadingBucket.bucketId(CUSTOMER_ID, start.truncatedTo(granularity));
+            for (int i = 1; i < 24 * 40; i++) {
+                String next = ReadingBucket.bucketId(CUSTOMER_ID, start.plusHours(i).truncatedTo(granularity));
+                assertTrue(previous.compareTo(next) <= 0, previous + " sorts after " + next);
+                previous = next;
+            }
+        }
+    }
+
+    @Test
+    void testBucketId_OtherCustomersSortOutsideTheRange() {
+        String bucketId = ReadingBucket.bucketId(CUSTOMER_ID, LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        assertTrue(bucketId.compareTo(CUSTOMER_ID + ":") > 0);
+        assertTrue(bucketId.compareTo(CUSTOMER_ID + ";") < 0);
+        assertTrue(ReadingBucket.bucketId("65f0c0ffee0000000000000b", LocalDateTime.of(2000, 1, 1, 0, 0))
+                .compareTo(CUSTOMER_ID + ";") > 0);
+    }
+
+    @Test
+    void testFindLatestBefore_QueriesTheTwoLatestBucketsUpToTheTime() {
+        LocalDateTime before = LocalDateTime.of(2024, 2, 1, 0, 0);
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of());
+
+        store.findLatestBefore(CUSTOMER_ID, PROVIDER_ID, before);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(mongoTemplate).find(query.capture(), ArgumentMatchers.eq(ReadingBucket.class));
+        Document id = (Document) query.getValue().getQueryObject().get("id");
+        assertEquals(CUSTOMER_ID + ":", id.get("$gte"));
+        assertEquals(ReadingBucket.bucketId(CUSTOMER_ID, before), id.get("$lte"));
+        assertEquals(new Document("id", -1), query.getValue().getSortObject());
+        assertEquals(2, query.getValue().getLimit());
+    }
+
+    @Test
+    void testFindLatestBefore_SkipsReadingsAtOrAfterTheTime() {
+        LocalDateTime before = LocalDateTime.of(2024, 2, 1, 12, 0);
+        // Newest bucket first, as sorted by the query; the bucket of the time holds a later reading only
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(
+                        bucket(LocalDateTime.of(2024, 2, 1, 0, 0), before, 130.0, before.plusHours(3), 140.0),
+                        bucket(LocalDateTime.of(2024, 1, 31, 0, 0), LocalDateTime.of(2024, 1, 31, 22, 0), 120.0,
+                                LocalDateTime.of(2024, 1, 31, 6, 0), 110.0)));
+
+        Optional<smartMeterModel> latest = store.findLatestBefore(CUSTOMER_ID, PROVIDER_ID, before);
+
+        assertTrue(latest.isPresent());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 22, 0), latest.get().getReadingTimestamp());
+        assertEquals(120.0, latest.get().getCurrentConsumption());
+        assertEquals(CUSTOMER_ID, latest.get().getCustomerId());
+        assertEquals(CUSTOMER_ID + ":" + latest.get().getReadingTimestamp(), latest.get().getId());
+    }
+
+    @Test
+    void testFindLatestBefore_TakesTheLatestReadingOfTheBucketOfTheTime() {
+        LocalDateTime before = LocalDateTime.of(2024, 2, 1, 12, 0);
+        // Stored out of order, as appended by concurrent writers
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(bucket(LocalDateTime.of(2024, 2, 1, 0, 0),
+                        LocalDateTime.of(2024, 2, 1, 11, 0), 135.0, LocalDateTime.of(2024, 2, 1, 3, 0), 125.0)));
+
+        Optional<smartMeterModel> latest = store.findLatestBefore(CUSTOMER_ID, PROVIDER_ID, before);
+
+        assertEquals(135.0, latest.orElseThrow().getCurrentConsumption());
+    }
+
+    @Test
+    void testFindLatestBefore_NoEarlierReading() {
+        LocalDateTime before = LocalDateTime.of(2024, 2, 1, 12, 0);
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(bucket(LocalDateTime.of(2024, 2, 1, 0, 0), before.plusHours(1), 130.0)));
+
+        assertTrue(store.findLatestBefore(CUSTOMER_ID, PROVIDER_ID, before).isEmpty());
+    }
+
+    @Test
+    void testFindByCustomerAndProviderBetween_KeepsReadingsInThePeriod() {
+        LocalDateTime from = LocalDateTime.of(2024, 2, 1, 6, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 2, 6, 0);
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(
+                        bucket(LocalDateTime.of(2024, 2, 1, 0, 0), from.minusHours(1), 100.0, from, 101.0),
+                        bucket(LocalDateTime.of(2024, 2, 2, 0, 0), to.minusHours(1), 102.0, to, 103.0)));
+
+        List<smartMeterModel> readings = store.findByCustomerAndProviderBetween(CUSTOMER_ID, PROVIDER_ID, from, to);
+
+        assertEquals(List.of(to.minusHours(1), from), readings.stream().map(smartMeterModel::getReadingTimestamp).toList());
+    }
+
+    @Test
+    void testInsertAll_AlertFlagsRoundTrip() {
+        BulkOperations bulk = Mockito.mock(BulkOperations.class);
+        Mockito.when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReadingBucket.class)).thenReturn(bulk);
+        LocalDateTime start = LocalDateTime.of(2024, 2, 1, 0, 0);
+        smartMeterModel alert = new smartMeterModel(PROVIDER_ID, 150.0, start.plusHours(2), true, true);
+        alert.setCustomerId(CUSTOMER_ID);
+        smartMeterModel normal = new smartMeterModel(PROVIDER_ID, 100.0, start.plusHours(1), false, true);
+        normal.setCustomerId(CUSTOMER_ID);
+
+        store.insertAll(List.of(alert, normal));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(bulk, Mockito.times(2)).upsert(ArgumentMatchers.any(Query.class), updates.capture());
+        ReadingBucket bucket = bucket(start);
+        for (Update update : updates.getAllValues()) {
+            Document pushed = (Document) update.getUpdateObject().get("$push");
+            bucket.getTimestamps().add((LocalDateTime) pushed.get("timestamps"));
+            bucket.getValues().add((Double) pushed.get("values"));
+            bucket.getAutomated().add((Boolean) pushed.get("automated"));
+            bucket.getAlerts().add((Boolean) pushed.get("alerts"));
+        }
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(bucket));
+
+        List<smartMeterModel> readings = store.findByCustomerAndProviderBetween(CUSTOMER_ID, PROVIDER_ID, start,
+                start.plusDays(1));
+
+        assertEquals(List.of(150.0, 100.0), readings.stream().map(smartMeterModel::getCurrentConsumption).toList());
+        assertTrue(readings.get(0).isAlertFlag());
+        assertFalse(readings.get(1).isAlertFlag());
+    }
+
+    @Test
+    void testReadings_BucketStoredBeforeAlertFlagsKeepsThemWithTheLastReadings() {
+        LocalDateTime start = LocalDateTime.of(2024, 2, 1, 0, 0);
+        ReadingBucket bucket = bucket(start, start.plusHours(1), 100.0, start.plusHours(2), 110.0,
+                start.plusHours(3), 150.0);
+        // Only the last reading was appended with an alert flag
+        bucket.setAlerts(new ArrayList<>(List.of(true)));
+        Mockito.when(mongoTemplate.find(ArgumentMatchers.any(Query.class), ArgumentMatchers.eq(ReadingBucket.class)))
+                .thenReturn(List.of(bucket));
+
+        List<smartMeterModel> readings = store.findByCustomerAndProviderBetween(CUSTOMER_ID, PROVIDER_ID, start,
+                start.plusDays(1));
+
+        assertEquals(List.of(true, false, false), readings.stream().map(smartMeterModel::isAlertFlag).toList());
+    }
+
+    @Test
+    void testConstructor_InvalidGranularity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BucketedReadingStore(mongoTemplate, ChronoUnit.MINUTES, new IdDictionary()));
+    }
+
+    /**
+     * A bucket of the test customer, with pairs of reading time and consumption.
+     */
+    private static ReadingBucket bucket(LocalDateTime start, Object... readings) {
+        ReadingBucket bucket = new ReadingBucket();
+        bucket.setId(ReadingBucket.bucketId(CUSTOMER_ID, start));
+        bucket.setCustomerId(CUSTOMER_ID);
+        bucket.setProviderId(PROVIDER_ID);
+        bucket.setStart(start);
+        List<LocalDateTime> timestamps = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        List<Boolean> automated = new ArrayList<>();
+        List<Boolean> alerts = new ArrayList<>();
+        for (int i = 0; i < readings.length; i += 2) {
+            timestamps.add((LocalDateTime) readings[i]);
+            values.add((Double) readings[i + 1]);
+            automated.add(true);
+            alerts.add(false);
+        }
+        bucket.setTimestamps(timestamps);
+        bucket.setValues(values);
+        bucket.setAutomated(automated);
+        bucket.setAlerts(alerts);
+        bucket.setCount(timestamps.size());
+        return bucket;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DocumentReadingStoreTest {
+
+    private static final String CUSTOMER_ID = "65f0c0ffee0000000000000a";
+
+    private static final String PROVIDER_ID = "65f0c0ffee0000000000000b";
+
+    private final SmartMeterRepository smartMeterRepository = Mockito.mock(SmartMeterRepository.class);
+
+    private final IdDictionary idDictionary = new IdDictionary();
+
+    private final DocumentReadingStore store = new DocumentReadingStore(smartMeterRepository,
+            Mockito.mock(MongoTemplate.class), idDictionary);
+
+    @Test
+    void testFindLatestBefore_SharesTheIdsThroughTheDictionary() {
+        LocalDateTime before = LocalDateTime.of(2024, 2, 1, 0, 0);
+        // Decoded from a document, so equal to but not the same as the dictionary's strings
+        smartMeterModel reading = new smartMeterModel(new String(PROVIDER_ID), 120.0, before.minusHours(1), false, true);
+        reading.setCustomerId(new String(CUSTOMER_ID));
+        Mockito.when(smartMeterRepository
+                        .findFirstByCustomerIdAndProviderIdAndReadingTimestampLessThanOrderByReadingTimestampDesc(
+                                CUSTOMER_ID, PROVIDER_ID, before))
+                .thenReturn(Optional.of(reading));
+
+        smartMeterModel latest = store.findLatestBefore(CUSTOMER_ID, PROVIDER_ID, before).orElseThrow();
+
+        assertSame(idDictionary.canonical(CUSTOMER_ID), latest.getCustomerId());
+        assertSame(idDictionary.canonical(PROVIDER_ID), latest.getProviderId());
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.electricalprovider.repository;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedReadingStoreTest {
+
+    private static final String PROVIDER_ID = new ObjectId().toHexString();
+
+    private static final String CUSTOMER_ID = new ObjectId().toHexString();
+
+    @TempDir
+    Path directory;
+
+    private final YearMonth month = YearMonth.now();
+
+    private ReadingStore readingStore;
+
+    private MappedReadingStore store;
+
+    @BeforeEach
+    void setUp() {
+        readingStore = Mockito.mock(ReadingStore.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    void testForEachReading_DisabledStoreServesNothing() {
+        store = new MappedReadingStore(readingStore, false, directory, DataSize.ofKilobytes(1));
+        store.start();
+        store.add(reading(CUSTOMER_ID, 1, 10.0));
+
+        assertFalse(store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month, (time, consumption, manual) -> { }));
+        Mockito.verifyNoInteractions(readingStore);
+    }
+
+    @Test
+    void testRebuild_ServesRebuiltAndLaterReadings() throws Exception {
+        rebuildWith(action -> {
+            action.accept(reading(CUSTOMER_ID, 1, 10.0));
+            action.accept(reading(new ObjectId().toHexString(), 2, 99.0));
+            action.accept(reading(CUSTOMER_ID, 3, 20.0));
+        });
+
+        store.add(reading(CUSTOMER_ID, 4, 30.0));
+
+        assertEquals(List.of(10.0, 20.0, 30.0), consumption(CUSTOMER_ID, month));
+        assertEquals(List.of(), consumption(new ObjectId().toHexString(), month));
+    }
+
+    @Test
+    void testRebuild_ReadingsStoredWhileRebuildingAreAddedOnce() throws Exception {
+        smartMeterModel foundByRebuild = reading(CUSTOMER_ID, 1, 10.0);
+        smartMeterModel missedByRebuild = reading(CUSTOMER_ID, 2, 20.0);
+        smartMeterModel inNewSegment = reading(CUSTOMER_ID, month.minusMonths(1), 3, 5.0);
+        rebuildWith(action -> {
+            // Stored while the rebuild reads, so both queued and found
+            store.add(foundByRebuild);
+            store.add(missedByRebuild);
+            store.add(missedByRebuild);
+            store.add(inNewSegment);
+            action.accept(foundByRebuild);
+        });
+
+        assertEquals(List.of(10.0, 20.0), consumption(CUSTOMER_ID, month));
+        assertEquals(List.of(5.0), consumption(CUSTOMER_ID, month.minusMonths(1)));
+    }
+
+    @Test
+    void testRebuild_DeletesOnlyOwnSegmentFiles() throws Exception {
+        Path oldSegment = Files.createDirectories(directory.resolve(PROVIDER_ID)).resolve("2020-01.seg");
+        Files.writeString(oldSegment, "stale");
+        Path otherFile = Files.writeString(directory.resolve(PROVIDER_ID).resolve("notes.txt"), "kept");
+        Path otherDirectory = Files.createDirectories(directory.resolve("other"));
+        Path otherSegment = Files.writeString(otherDirectory.resolve("2020-01.seg"), "kept");
+
+        rebuildWith(action -> { });
+
+        assertFalse(Files.exists(oldSegment));
+        assertTrue(Files.exists(otherFile));
+        assertTrue(Files.exists(otherSegment));
+    }
+
+    @Test
+    void testRebuild_FailureStopsServing() throws Exception {
+        store = new MappedReadingStore(readingStore, true, directory, DataSize.ofKilobytes(1));
+        Mockito.doThrow(new DataAccessResourceFailureException("MongoDB unavailable"))
+                .when(readingStore).forEachSince(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        store.start();
+        Mockito.verify(readingStore, Mockito.timeout(5000)).forEachSince(ArgumentMatchers.any(), ArgumentMatchers.any());
+        store.add(reading(CUSTOMER_ID, 1, 10.0));
+
+        assertFalse(store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month, (time, consumption, manual) -> { }));
+    }
+
+    @Test
+    void testAdd_SegmentGrowsWhileScanned() throws Exception {
+        store = new MappedReadingStore(readingStore, true, directory, DataSize.ofBytes(64));
+        store.start();
+        awaitReady();
+        int readings = 5_000;
+        AtomicBoolean appending = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread scanner = new Thread(() -> {
+            while (appending.get()) {
+                List<Double> seen = new ArrayList<>();
+                store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month, (time, consumption, manual) -> seen.add(consumption));
+                // Every record a scan sees is complete, latest first
+                for (int i = 0; i < seen.size(); i++) {
+                    if (seen.get(i) != seen.size() - i) {
+                        failure.compareAndSet(null, "record " + i + " read as " + seen.get(i));
+                    }
+                }
+            }
+        });
+        scanner.start();
+
+        for (int i = 1; i <= readings; i++) {
+            store.add(reading(CUSTOMER_ID, month.atDay(1).atStartOfDay().plusMinutes(i), i));
+        }
+        appending.set(false);
+        scanner.join();
+
+        assertNull(failure.get());
+        List<Double> consumption = consumption(CUSTOMER_ID, month);
+        assertEquals(readings, consumption.size());
+        assertEquals((double) readings, consumption.get(readings - 1));
+        assertTrue(Files.size(directory.resolve(PROVIDER_ID).resolve(month + ".seg")) >= readings * 32L);
+    }
+
+    @Test
+    void testForEachReading_FollowsEachCustomersRecordsOnly() throws Exception {
+        rebuildWith(action -> { });
+        List<String> customerIds = new ArrayList<>();
+        for (int c = 0; c < 7; c++) {
+            customerIds.add(new ObjectId().toHexString());
+        }
+        // Interleaved, across several growths of the segment
+        for (int i = 0; i < 700; i++) {
+            store.add(reading(customerIds.get(i % 7), month.atDay(1).atStartOfDay().plusMinutes(i), i));
+        }
+
+        for (int c = 0; c < 7; c++) {
+            List<Double> expected = new ArrayList<>();
+            for (int i = c; i < 700; i += 7) {
+                expected.add((double) i);
+            }
+            assertEquals(expected, consumption(customerIds.get(c), month));
+        }
+    }
+
+    @Test
+    void testForEachReading_OnlyCurrentAndPreviousMonth() throws Exception {
+        rebuildWith(action -> { });
+        store.add(reading(CUSTOMER_ID, month.minusMonths(2), 1, 10.0));
+        smartMeterModel manual = new smartMeterModel(PROVIDER_ID, 20.0, month.atDay(1).atStartOfDay(), false, false);
+        manual.setCustomerId(CUSTOMER_ID);
+        store.add(manual);
+
+        assertFalse(store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month.minusMonths(2),
+                (time, consumption, isManual) -> { }));
+        assertTrue(store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month.minusMonths(1),
+                (time, consumption, isManual) -> { throw new AssertionError("no readings expected"); }));
+        List<Boolean> manualEntries = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month, (time, consumption, isManual) -> {
+            times.add(time);
+            manualEntries.add(isManual);
+        });
+        assertEquals(List.of(manual.getReadingTimestamp().toEpochSecond(ZoneOffset.UTC)), times);
+        assertEquals(List.of(true), manualEntries);
+    }
+
+    @Test
+    void testDestroy_DeletesSegmentFiles() throws Exception {
+        rebuildWith(action -> action.accept(reading(CUSTOMER_ID, 1, 10.0)));
+        Path segment = directory.resolve(PROVIDER_ID).resolve(month + ".seg");
+        assertTrue(Files.exists(segment));
+
+        store.destroy();
+
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void testConstructor_InvalidSegmentSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedReadingStore(readingStore, true, directory, DataSize.ofBytes(16)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedReadingStore(readingStore, true, directory, DataSize.ofGigabytes(4)));
+    }
+
+    /**
+     * Starts the store with a rebuild calling the given action with the readings' consumer, and waits for it.
+     */
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(Consumer<Consumer<smartMeterModel>> rebuild) throws InterruptedException {
+        store = new MappedReadingStore(readingStore, true, directory, DataSize.ofBytes(64));
+        Mockito.doAnswer(invocation -> {
+            rebuild.accept(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(readingStore).forEachSince(ArgumentMatchers.any(), ArgumentMatchers.any());
+        store.start();
+        awaitReady();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!store.forEachReading(PROVIDER_ID, CUSTOMER_ID, month, (time, consumption, manual) -> { })) {
+            assertTrue(System.nanoTime() < deadline, "store not rebuilt in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private List<Double> consumption(String customerId, YearMonth month) {
+        List<Double> consumption = new ArrayList<>();
+        assertTrue(store.forEachReading(PROVIDER_ID, customerId, month,
+                (time, value, manual) -> consumption.add(value)));
+        consumption.sort(null);
+        return consumption;
+    }
+
+    private smartMeterModel reading(String customerId, int hour, double consumption) {
+        return reading(customerId, month, hour, consumption);
+    }
+
+    private static smartMeterModel reading(String customerId, YearMonth month, int hour, double consumption) {
+        return reading(customerId, month.atDay(1).atStartOfDay().plusHours(hour), consumption);
+    }
+
+    private static smartMeterModel reading(String customerId, LocalDateTime timestamp, double consumption) {
+        smartMeterModel reading = new smartMeterModel(PROVIDER_ID, consumption, timestamp, false, true);
+        reading.setCustomerId(customerId);
+        return reading;
+    }
+}
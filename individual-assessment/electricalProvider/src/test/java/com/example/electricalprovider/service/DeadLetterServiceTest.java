@@ -0,0 +1,135 @@
+package com.example.electricalprovider.service;
+
+import com.example.common.messaging.ReadingShards;
+import com.example.electricalprovider.consumer.ReadingFailureHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeadLetterServiceTest {
+
+    private static final String DLQ = "smart-meter.dlq";
+
+    private Channel channel;
+
+    private AtomicReference<ReturnListener> returnListener;
+
+    private DeadLetterService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        channel = Mockito.mock(Channel.class);
+        returnListener = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            returnListener.set(invocation.getArgument(0));
+            return null;
+        }).when(channel).addReturnListener(ArgumentMatchers.any(ReturnListener.class));
+        RabbitTemplate rabbitTemplate = Mockito.mock(RabbitTemplate.class);
+        Mockito.when(rabbitTemplate.execute(ArgumentMatchers.<ChannelCallback<Integer>>any()))
+                .thenAnswer(invocation -> invocation.<ChannelCallback<Integer>>getArgument(0).doInRabbit(channel));
+        service = new DeadLetterService(rabbitTemplate, Mockito.mock(AmqpAdmin.class), new ObjectMapper(), DLQ,
+                "citizen-exchange", "smart-meter.shard.", 4, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testReplay_RoutesToCustomerShardAndAcksAfterConfirm() throws Exception {
+        Mockito.when(channel.basicGet(DLQ, false))
+                .thenReturn(response(1, "{\"customerId\":\"customer-7\"}", Map.of(
+                        ReadingFailureHandler.ORIGINAL_QUEUE_HEADER, "smart-meter-queue.0",
+                        ReadingFailureHandler.RETRY_COUNT_HEADER, 3)))
+                .thenReturn(null);
+
+        assertEquals(1, service.replay(10));
+
+        var inOrder = Mockito.inOrder(channel);
+        inOrder.verify(channel).basicPublish(ArgumentMatchers.eq("citizen-exchange"),
+                ArgumentMatchers.eq("smart-meter.shard." + ReadingShards.shardOf("customer-7", 4)),
+                ArgumentMatchers.eq(true),
+                ArgumentMatchers.argThat(properties -> properties.getHeaders() == null
+                        || properties.getHeaders().isEmpty()),
+                ArgumentMatchers.any());
+        inOrder.verify(channel).waitForConfirmsOrDie(5000);
+        inOrder.verify(channel).basicAck(1, false);
+        Mockito.verify(channel).removeReturnListener(returnListener.get());
+    }
+
+    @Test
+    void testReplay_WithoutCustomerIdUsesOriginalQueue() throws Exception {
+        Mockito.when(channel.basicGet(DLQ, false))
+                .thenReturn(response(1, "not json", Map.of(
+                        ReadingFailureHandler.ORIGINAL_QUEUE_HEADER, "smart-meter-queue.2")))
+                .thenReturn(null);
+
+        assertEquals(1, service.replay(10));
+
+        Mockito.verify(channel).basicPublish(ArgumentMatchers.eq(""), ArgumentMatchers.eq("smart-meter-queue.2"),
+                ArgumentMatchers.eq(true), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(channel).basicAck(1, false);
+    }
+
+    @Test
+    void testReplay_UnroutableIsKeptAndRequeued() throws Exception {
+        Mockito.when(channel.basicGet(DLQ, false))
+                .thenReturn(response(1, "{\"customerId\":\"customer-7\"}", Map.of()))
+                .thenReturn(response(2, "not json", Map.of()))
+                .thenReturn(null);
+        Mockito.doAnswer(invocation -> {
+            returnListener.get().handleReturn(312, "NO_ROUTE", invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(3), invocation.getArgument(4));
+            return null;
+        }).when(channel).basicPublish(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyBoolean(), ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        assertEquals(0, service.replay(10));
+
+        Mockito.verify(channel, Mockito.never()).basicAck(ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean());
+        Mockito.verify(channel).basicNack(1, false, true);
+        Mockito.verify(channel).basicNack(2, false, true);
+    }
+
+    @Test
+    void testReplay_UnconfirmedIsNotAcked() throws Exception {
+        Mockito.when(channel.basicGet(DLQ, false))
+                .thenReturn(response(1, "{\"customerId\":\"customer-7\"}", Map.of()));
+        Mockito.doThrow(new TimeoutException()).when(channel).waitForConfirmsOrDie(5000);
+
+        assertThrows(Exception.class, () -> service.replay(10));
+
+        Mockito.verify(channel, Mockito.never()).basicAck(ArgumentMatchers.anyLong(), ArgumentMatchers.anyBoolean());
+    }
+
+    @Test
+    void testReplay_TakesAtMostLimit() throws Exception {
+        Mockito.when(channel.basicGet(DLQ, false))
+                .thenReturn(response(1, "{\"customerId\":\"customer-7\"}", Map.of()));
+
+        assertEquals(2, service.replay(2));
+
+        Mockito.verify(channel, Mockito.times(2)).basicGet(DLQ, false);
+    }
+
+    private static GetResponse response(long deliveryTag, String body, Map<String, Object> headers) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().headers(headers).build();
+        return new GetResponse(new Envelope(deliveryTag, false, "smart-meter.dlx", "smart-meter-queue.0"),
+                properties, body.getBytes(StandardCharsets.UTF_8), 0);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.IdDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderReadingColumnsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private final IdDictionary idDictionary = new IdDictionary();
+
+    @Test
+    void testLoad_SortsReadingsAscendingAndSkipsMissingTimestamps() {
+        smartMeterModel undated = reading("a", null, 1.0, false);
+        ProviderReadingColumns columns = load(List.of(
+                reading("a", START.plusHours(2), 30.0, false),
+                undated,
+                reading("b", START.plusHours(1), 20.0, false),
+                reading("a", START, 10.0, false)), idDictionary);
+
+        assertEquals(3, columns.size());
+        assertEquals(START, columns.firstTimestamp());
+        assertEquals(START.plusHours(2), columns.lastTimestamp());
+        assertEquals(10.0, columns.sumConsumption(0, 1));
+        assertEquals(30.0, columns.sumConsumption(2, 3));
+    }
+
+    @Test
+    void testIndexOf_RangeIncludesStartAndExcludesEnd() {
+        ProviderReadingColumns columns = load(List.of(
+                reading("a", START.plusMonths(1), 40.0, false),
+                reading("a", START.plusMonths(1).minusSeconds(1), 30.0, false),
+                reading("a", START, 20.0, false),
+                reading("a", START.minusSeconds(1), 10.0, false)), idDictionary);
+
+        int from = columns.indexOf(START);
+        int to = columns.indexOf(START.plusMonths(1));
+
+        assertEquals(1, from);
+        assertEquals(3, to);
+        assertEquals(50.0, columns.sumConsumption(from, to));
+        assertEquals(4, columns.indexOf(START.plusYears(1)));
+        assertEquals(0, columns.indexOf(START.minusYears(1)));
+    }
+
+    @Test
+    void testAdd_OutOfOrderReadingKeepsFlagsWithTheirReadings() {
+        ProviderReadingColumns columns = load(List.of(
+                reading("a", START.plusHours(2), 30.0, true),
+                reading("a", START, 10.0, false)), idDictionary);
+
+        assertTrue(columns.add(reading("b", START.plusHours(1), 20.0, false)));
+
+        assertEquals(3, columns.size());
+        // Index 2 the manual entry, moved up by the new reading at index 1
+        assertFalse(columns.hasManualEntry(0, 2));
+        assertTrue(columns.hasManualEntry(2, 3));
+        assertEquals(10.0, columns.peakIncrease(0, 3));
+    }
+
+    @Test
+    void testLoad_SortsShuffledReadingsWithTheirColumns() {
+        List<smartMeterModel> readings = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            readings.add(reading("c" + (i % 13), START.plusMinutes(i), i, i % 50 == 0));
+        }
+        Collections.shuffle(readings, new Random(42));
+
+        ProviderReadingColumns columns = load(readings, idDictionary);
+
+        assertEquals(500, columns.size());
+        assertEquals(START, columns.firstTimestamp());
+        assertEquals(START.plusMinutes(499), columns.lastTimestamp());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, columns.sumConsumption(i, i + 1));
+            assertEquals(i % 50 == 0, columns.hasManualEntry(i, i + 1));
+            assertEquals(1, columns.countCustomers(i, i + 1));
+        }
+        assertEquals(13, columns.countCustomers(0, 13));
+    }
+
+    @Test
+    void testAdd_SkipsReadingOfSameCustomerAndTime() {
+        ProviderReadingColumns columns = load(List.of(
+                reading("a", START, 10.0, false)), idDictionary);
+
+        assertFalse(columns.add(reading("a", START, 10.0, false)));
+        assertTrue(columns.add(reading("b", START, 12.0, false)));
+        assertEquals(2, columns.size());
+    }
+
+    @Test
+    void testAdd_GrowsBeyondInitialCapacity() {
+        ProviderReadingColumns columns = load(new ArrayList<>(), idDictionary);
+        double total = 0.0;
+        for (int i = 100; i > 0; i--) {
+            // Newest first, so every reading is inserted at the front
+            assertTrue(columns.add(reading("c" + (i % 7), START.plusMinutes(i), i, i % 10 == 0)));
+            total += i;
+        }
+
+        assertEquals(100, columns.size());
+        assertEquals(START.plusMinutes(1), columns.firstTimestamp());
+        assertEquals(START.plusMinutes(100), columns.lastTimestamp());
+        assertEquals(total, columns.sumConsumption(0, columns.size()));
+        assertEquals(1.0, columns.peakIncrease(0, columns.size()));
+        assertEquals(7, columns.countCustomers(0, columns.size()));
+        assertTrue(columns.hasManualEntry(9, 10));
+        assertFalse(columns.hasManualEntry(0, 9));
+    }
+
+    @Test
+    void testDailyFigures() {
+        ProviderReadingColumns columns = load(List.of(
+                reading("b", START.plusDays(2).plusHours(5), 50.0, false),
+                reading("a", START.plusHours(23), 30.0, false),
+                reading("b", START.plusHours(12), 20.0, false),
+                reading("a", START, 10.0, false)), idDictionary);
+
+        // The last reading of each day: 30 on the first, 50 on the third
+        assertEquals(80.0, columns.sumLastReadingPerDay(0, columns.size()));
+        assertEquals(2, columns.countDays(0, columns.size()));
+        assertEquals(2, columns.countCustomers(0, columns.size()));
+        assertEquals(1, columns.countCustomers(1, 2));
+        assertEquals(0.0, columns.peakIncrease(1, 2));
+    }
+
+    @Test
+    void testTimestamps_NoReadings() {
+        ProviderReadingColumns columns = load(List.of(), idDictionary);
+
+        assertThrows(IllegalStateException.class, columns::firstTimestamp);
+        assertThrows(IllegalStateException.class, columns::lastTimestamp);
+    }
+
+    private static ProviderReadingColumns load(List<smartMeterModel> readings, IdDictionary idDictionary) {
+        return ProviderReadingColumns.load(readings::forEach, idDictionary);
+    }
+
+    private static smartMeterModel reading(String customerId, LocalDateTime timestamp, double consumption,
+                                           boolean manual) {
+        smartMeterModel reading = new smartMeterModel("provider", consumption, timestamp, false, !manual);
+        reading.setCustomerId(customerId);
+        return reading;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.IdDictionary;
+import com.example.electricalprovider.repository.ReadingStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadingSnapshotsTest {
+
+    private static final String PROVIDER_ID = "provider";
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private ReadingStore readingStore;
+
+    @BeforeEach
+    void setUp() {
+        readingStore = Mockito.mock(ReadingStore.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<smartMeterModel>>getArgument(1).accept(reading("a", START, 10.0));
+            return null;
+        }).when(readingStore).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testQuery_LoadsOnceAndMergesAddedReadings() {
+        ReadingSnapshots snapshots = new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ofHours(1), 100);
+
+        assertEquals(1, snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+        snapshots.add(reading("b", START.plusHours(1), 20.0));
+        // Stored while the snapshot was loaded, and so already in it
+        snapshots.add(reading("a", START, 10.0));
+
+        assertEquals(2, snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+        Mockito.verify(readingStore, Mockito.times(1)).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testAdd_WithoutSnapshotIsIgnored() {
+        ReadingSnapshots snapshots = new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ofHours(1), 100);
+
+        snapshots.add(reading("b", START.plusHours(1), 20.0));
+        smartMeterModel withoutProvider = reading("b", START.plusHours(2), 30.0);
+        withoutProvider.setProviderId(null);
+        snapshots.add(withoutProvider);
+
+        assertEquals(1, snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+    }
+
+    @Test
+    void testQuery_ReloadsAfterMaxAge() {
+        ReadingSnapshots snapshots = new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ZERO, 100);
+
+        snapshots.query(PROVIDER_ID, ProviderReadingColumns::size);
+        snapshots.query(PROVIDER_ID, ProviderReadingColumns::size);
+
+        Mockito.verify(readingStore, Mockito.times(2)).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testAdd_DropsSnapshotPastMaxPending() {
+        ReadingSnapshots snapshots = new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ofHours(1), 2);
+        snapshots.query(PROVIDER_ID, ProviderReadingColumns::size);
+
+        for (int i = 1; i <= 3; i++) {
+            snapshots.add(reading("b", START.plusHours(i), 10.0 + i));
+        }
+
+        // Loaded again, without the queued readings the store does not return
+        assertEquals(1, snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+        Mockito.verify(readingStore, Mockito.times(2)).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testQuery_ServesOldColumnsWhileReloading() throws Exception {
+        ReadingSnapshots snapshots = new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ZERO, 100);
+        snapshots.query(PROVIDER_ID, ProviderReadingColumns::size);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            Consumer<smartMeterModel> action = invocation.getArgument(1);
+            action.accept(reading("a", START, 10.0));
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            action.accept(reading("c", START.plusHours(3), 40.0));
+            return null;
+        }).when(readingStore).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+
+        CompletableFuture<Integer> reloading = CompletableFuture.supplyAsync(
+                () -> snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // Stored while loading and taken into the old columns, after the load read its time
+        snapshots.add(reading("b", START.plusHours(1), 20.0));
+
+        assertEquals(2, snapshots.query(PROVIDER_ID, ProviderReadingColumns::size));
+        release.countDown();
+        assertEquals(3, reloading.get(5, TimeUnit.SECONDS));
+        Mockito.verify(readingStore, Mockito.times(2)).forEachByProvider(ArgumentMatchers.eq(PROVIDER_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    void testConstructor_InvalidMaxPending() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReadingSnapshots(readingStore, new IdDictionary(), Duration.ofHours(1), 0));
+    }
+
+    private static smartMeterModel reading(String customerId, LocalDateTime timestamp, double consumption) {
+        smartMeterModel reading = new smartMeterModel(PROVIDER_ID, consumption, timestamp, false, true);
+        reading.setCustomerId(customerId);
+        return reading;
+    }
+}
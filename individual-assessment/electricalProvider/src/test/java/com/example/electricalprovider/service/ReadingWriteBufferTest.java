@@ -0,0 +1,140 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.ReadingStore;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadingWriteBufferTest {
+
+    private final ReadingStore readingStore = Mockito.mock(ReadingStore.class);
+
+    private ReadingWriteBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        buffer.destroy();
+    }
+
+    @Test
+    void testAdd_FlushesOnBatchSize() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 3, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        CompletableFuture<Boolean> first = buffer.add(reading("a", 1));
+        CompletableFuture<Boolean> second = buffer.add(reading("a", 2));
+        assertFalse(first.isDone());
+        CompletableFuture<Boolean> third = buffer.add(reading("b", 1));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(third.get(5, TimeUnit.SECONDS));
+        Mockito.verify(readingStore).insertAll(ArgumentMatchers.argThat(readings -> readings.size() == 3));
+    }
+
+    @Test
+    void testAdd_FlushesOnInterval() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 100, Duration.ofMillis(50), new SimpleMeterRegistry());
+
+        CompletableFuture<Boolean> written = buffer.add(reading("a", 1));
+
+        assertTrue(written.get(5, TimeUnit.SECONDS));
+        Mockito.verify(readingStore).insertAll(ArgumentMatchers.argThat(readings -> readings.size() == 1));
+    }
+
+    @Test
+    void testAdd_AnswersForPendingReadingsUntilWritten() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 3, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        smartMeterModel reading = reading("a", 5);
+        buffer.add(reading("a", 7));
+        buffer.add(reading);
+
+        assertTrue(buffer.isPending(reading.getId()));
+        assertEquals(OptionalDouble.of(7), buffer.pendingConsumption("a"));
+        assertEquals(OptionalDouble.empty(), buffer.pendingConsumption("b"));
+
+        buffer.add(reading("b", 1)).get(5, TimeUnit.SECONDS);
+
+        assertFalse(buffer.isPending(reading.getId()));
+        assertEquals(OptionalDouble.empty(), buffer.pendingConsumption("a"));
+    }
+
+    @Test
+    void testAdd_DuplicateKeyCountsAsWrittenOtherErrorsFail() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 3, Duration.ofHours(1), new SimpleMeterRegistry());
+        Mockito.doThrow(bulkFailure(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0),
+                        new BulkWriteError(121, "validation failed", new BsonDocument(), 2)))
+                .when(readingStore).insertAll(ArgumentMatchers.anyList());
+
+        CompletableFuture<Boolean> duplicate = buffer.add(reading("a", 1));
+        CompletableFuture<Boolean> stored = buffer.add(reading("a", 2));
+        CompletableFuture<Boolean> failed = buffer.add(reading("a", 3));
+
+        assertFalse(duplicate.get(5, TimeUnit.SECONDS));
+        assertTrue(stored.get(5, TimeUnit.SECONDS));
+        assertThrows(CompletionException.class, failed::join);
+    }
+
+    @Test
+    void testAdd_FailedBatchFailsEveryReading() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 2, Duration.ofHours(1), new SimpleMeterRegistry());
+        Mockito.doThrow(new DataAccessResourceFailureException("MongoDB unavailable"))
+                .when(readingStore).insertAll(ArgumentMatchers.anyList());
+
+        CompletableFuture<Boolean> first = buffer.add(reading("a", 1));
+        CompletableFuture<Boolean> second = buffer.add(reading("b", 1));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertFalse(buffer.isPending(SmartMeterService.readingId(reading("a", 1))));
+    }
+
+    @Test
+    void testDestroy_WritesWhatIsLeft() throws Exception {
+        buffer = new ReadingWriteBuffer(readingStore, 100, Duration.ofHours(1), new SimpleMeterRegistry());
+        CompletableFuture<Boolean> written = buffer.add(reading("a", 1));
+
+        buffer.destroy();
+
+        assertTrue(written.get(5, TimeUnit.SECONDS));
+    }
+
+    private static BulkOperationException bulkFailure(BulkWriteError... errors) {
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(errors),
+                null, new ServerAddress(), Set.of());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+
+    private static smartMeterModel reading(String customerId, double consumption) {
+        smartMeterModel reading = new smartMeterModel();
+        reading.setCustomerId(customerId);
+        reading.setCurrentConsumption(consumption);
+        reading.setReadingTimestamp(LocalDateTime.of(2024, 2, 1, 0, 0).plusHours((long) consumption));
+        reading.setId(SmartMeterService.readingId(reading));
+        return reading;
+    }
+}
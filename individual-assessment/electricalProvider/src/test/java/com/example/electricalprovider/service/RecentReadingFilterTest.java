@@ -0,0 +1,80 @@
+package com.example.electricalprovider.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentReadingFilterTest {
+
+    private static final int CAPACITY = 10_000;
+
+    @Test
+    void testMightContain_AddedIdsAreAlwaysFound() {
+        RecentReadingFilter filter = new RecentReadingFilter(CAPACITY, 0.01);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add("customer:" + i);
+        }
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(filter.mightContain("customer:" + i), "customer:" + i);
+        }
+    }
+
+    @Test
+    void testMightContain_FalsePositivesStayNearTheTargetRate() {
+        RecentReadingFilter filter = new RecentReadingFilter(CAPACITY, 0.01);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add("seen:" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("new:" + i)) {
+                falsePositives++;
+            }
+        }
+        // Both generations are probed, only the current one is filled
+        assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testAdd_IdsAreRememberedForCapacityFurtherIds() {
+        RecentReadingFilter filter = new RecentReadingFilter(CAPACITY, 0.01);
+        filter.add("oldest");
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add("customer:" + i);
+        }
+
+        assertTrue(filter.mightContain("oldest"));
+    }
+
+    @Test
+    void testAdd_OldGenerationsAreForgotten() {
+        RecentReadingFilter filter = new RecentReadingFilter(CAPACITY, 0.01);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add("old:" + i);
+        }
+        // Two rotations drop the generation holding the old IDs
+        for (int i = 0; i < 2 * CAPACITY + 2; i++) {
+            filter.add("new:" + i);
+        }
+
+        int remembered = 0;
+        for (int i = 0; i < CAPACITY; i++) {
+            if (filter.mightContain("old:" + i)) {
+                remembered++;
+            }
+        }
+        assertTrue(remembered < CAPACITY * 0.05, "still remembered: " + remembered);
+    }
+
+    @Test
+    void testConstructor_InvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentReadingFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new RecentReadingFilter(CAPACITY, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RecentReadingFilter(CAPACITY, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RecentReadingFilter(Long.MAX_VALUE / 2, 0.01));
+    }
+}
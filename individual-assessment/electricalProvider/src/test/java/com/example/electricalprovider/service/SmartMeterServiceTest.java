@@ -0,0 +1,164 @@
+package com.example.electricalprovider.service;
+
+import com.example.electricalprovider.client.CitizenClient;
+import com.example.electricalprovider.dto.UserSmartMeterReport;
+import com.example.electricalprovider.models.smartMeterModel;
+import com.example.electricalprovider.repository.MappedReadingStore;
+import com.example.electricalprovider.repository.ReadingStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmartMeterServiceTest {
+
+    private final String providerId = new ObjectId().toHexString();
+
+    private final String customerId = new ObjectId().toHexString();
+
+    private ReadingStore readingStore;
+
+    private RecentReadingFilter recentReadingFilter;
+
+    private ReadingWriteBuffer readingWriteBuffer;
+
+    private SmartMeterService service;
+
+    @BeforeEach
+    void setUp() {
+        readingStore = Mockito.mock(ReadingStore.class);
+        recentReadingFilter = Mockito.mock(RecentReadingFilter.class);
+        readingWriteBuffer = Mockito.mock(ReadingWriteBuffer.class);
+        Mockito.when(readingWriteBuffer.pendingConsumption(ArgumentMatchers.any())).thenReturn(OptionalDouble.empty());
+        service = new SmartMeterService(readingStore, Mockito.mock(CitizenClient.class),
+                recentReadingFilter, readingWriteBuffer,
+                Mockito.mock(ReadingSnapshots.class), Mockito.mock(MappedReadingStore.class),
+                new SimpleMeterRegistry(), 2, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void testProcessSmartMeterData_RedeliveryIsDropped() {
+        smartMeterModel reading = reading(LocalDateTime.of(2024, 2, 1, 10, 0), 120.0);
+        String readingId = SmartMeterService.readingId(reading);
+        Mockito.when(recentReadingFilter.mightContain(readingId)).thenReturn(true);
+        Mockito.when(readingStore.contains(reading)).thenReturn(true);
+
+        assertTrue(service.processSmartMeterData(reading).isDone());
+
+        Mockito.verify(readingWriteBuffer, Mockito.never()).add(ArgumentMatchers.any());
+        Mockito.verify(recentReadingFilter).add(readingId);
+    }
+
+    @Test
+    void testProcessSmartMeterData_FilterFalsePositiveIsWritten() {
+        smartMeterModel reading = reading(LocalDateTime.of(2024, 2, 1, 10, 0), 120.0);
+        String readingId = SmartMeterService.readingId(reading);
+        Mockito.when(recentReadingFilter.mightContain(readingId)).thenReturn(true);
+        Mockito.when(readingStore.contains(reading)).thenReturn(false);
+        Mockito.when(readingStore.findHighestConsumption(customerId)).thenReturn(Optional.of(100.0));
+        Mockito.when(readingWriteBuffer.add(reading)).thenReturn(CompletableFuture.completedFuture(true));
+
+        service.processSmartMeterData(reading).join();
+
+        assertEquals(readingId, reading.getId());
+        Mockito.verify(readingWriteBuffer).add(reading);
+        Mockito.verify(recentReadingFilter).add(readingId);
+    }
+
+    @Test
+    void testProcessSmartMeterData_NewReadingSkipsDuplicateLookup() {
+        smartMeterModel reading = reading(LocalDateTime.of(2024, 2, 1, 10, 0), 120.0);
+        Mockito.when(readingStore.findHighestConsumption(customerId)).thenReturn(Optional.of(100.0));
+        Mockito.when(readingWriteBuffer.add(reading)).thenReturn(CompletableFuture.completedFuture(true));
+
+        service.processSmartMeterData(reading).join();
+
+        Mockito.verify(readingStore, Mockito.never()).contains(ArgumentMatchers.any());
+        Mockito.verify(readingWriteBuffer).add(reading);
+    }
+
+    @Test
+    void testReadingId_SameForRedeliveries() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 2, 1, 10, 0);
+
+        assertEquals(SmartMeterService.readingId(reading(timestamp, 120.0)),
+                SmartMeterService.readingId(reading(timestamp, 120.0)));
+        assertNotEquals(SmartMeterService.readingId(reading(timestamp, 120.0)),
+                SmartMeterService.readingId(reading(timestamp.plusMinutes(1), 120.0)));
+    }
+
+    @Test
+    void testSummarySmartMeterDataByUser_MonthWithoutReadingsIsZero() {
+        Mockito.when(readingStore.findByCustomerAndProviderBetween(ArgumentMatchers.eq(customerId),
+                ArgumentMatchers.eq(providerId), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(List.of());
+
+        UserSmartMeterReport report = service.summarySmartMeterDataByUser(providerId, customerId, YearMonth.of(2024, 2));
+
+        assertEquals(customerId, report.getCustomerId());
+        assertEquals(0.0, report.getTotalMonthlyConsumption());
+        assertEquals(0.0, report.getDailyAverageConsumption());
+        assertEquals(0.0, report.getPeakHourlyConsumption());
+        assertEquals(0, report.getNumberOfReadingsRecorded());
+        assertFalse(report.isHasManualEntry());
+    }
+
+    @Test
+    void testSummarySmartMeterDataByUser_StartsFromLastReadingBeforeMonth() {
+        LocalDateTime startOfMonth = LocalDateTime.of(2024, 2, 1, 0, 0);
+        Mockito.when(readingStore.findByCustomerAndProviderBetween(customerId, providerId, startOfMonth,
+                startOfMonth.plusMonths(1))).thenReturn(List.of(
+                        reading(startOfMonth.plusDays(1), 120.0), reading(startOfMonth.plusDays(10), 150.0)));
+        Mockito.when(readingStore.findLatestBefore(customerId, providerId, startOfMonth))
+                .thenReturn(Optional.of(reading(startOfMonth.minusDays(1), 100.0)));
+
+        UserSmartMeterReport report = service.summarySmartMeterDataByUser(providerId, customerId, YearMonth.of(2024, 2));
+
+        assertEquals(50.0, report.getTotalMonthlyConsumption());
+        assertEquals(25.0, report.getDailyAverageConsumption());
+        assertEquals(150.0, report.getPeakHourlyConsumption());
+        assertEquals(2, report.getNumberOfReadingsRecorded());
+    }
+
+    @Test
+    void testDestroy_ShutsDownBatchPool() {
+        Mockito.when(readingStore.findCustomersBetween(ArgumentMatchers.eq(providerId), ArgumentMatchers.any(),
+                ArgumentMatchers.any())).thenReturn(List.of(customerId));
+        UserReportBatch batch = service.summarySmartMeterDataByUsers(providerId, YearMonth.of(2024, 2));
+
+        service.destroy();
+
+        assertThrows(RejectedExecutionException.class, () -> batch.forEach(report -> { }));
+    }
+
+    private smartMeterModel reading(LocalDateTime timestamp, double consumption) {
+        smartMeterModel reading = new smartMeterModel();
+        reading.setCustomerId(customerId);
+        reading.setProviderId(providerId);
+        reading.setReadingTimestamp(timestamp);
+        reading.setCurrentConsumption(consumption);
+        reading.setAutomatedEntryMethod(true);
+        return reading;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.loadtester;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class LoadTesterApplication {
+
+	public static void main(String[] args) {
+		// Exits once the load test runner has finished the ramp
+		System.exit(SpringApplication.exit(SpringApplication.run(LoadTesterApplication.class, args)));
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.example.loadtester.config;
+
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures RabbitMQ to publish readings the way the citizen service does.
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * Configures JSON message conversion, the same the citizen publisher uses.
+     *
+     * @return the created MessageConverter
+     */
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * Configures the RabbitTemplate to use JSON message conversion and to return unroutable messages,
+     * so a routing key no provider queue is bound with shows up as failed publishes.
+     *
+     * @param connectionFactory the RabbitMQ connection factory, with publisher confirms and returns enabled
+     * @return the configured RabbitTemplate
+     */
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
+        return rabbitTemplate;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.loadtester.config;
+
+import com.example.loadtester.source.GeneratedReadingSource;
+import com.example.loadtester.source.ReadingSource;
+import com.example.loadtester.source.RecordedReadingSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration class choosing between replaying a recording and generating readings.
+ */
+@Configuration
+public class ReadingSourceConfig {
+
+    /**
+     * Creates the reading source: the recording when {@code loadtest.source.file} is set, otherwise a generator.
+     *
+     * @param file the JSON lines recording to replay, or empty
+     * @param providers the number of providers generated readings are spread over
+     * @param customers the number of customers generated readings are spread over
+     * @param seed the seed of the generated readings
+     * @param objectMapper the mapper recorded readings are parsed with
+     * @return the ReadingSource
+     * @throws IOException if the recording cannot be opened
+     */
+    @Bean
+    public ReadingSource readingSource(@Value("${loadtest.source.file}") String file,
+                                       @Value("${loadtest.source.providers}") int providers,
+                                       @Value("${loadtest.source.customers}") int customers,
+                                       @Value("${loadtest.source.seed}") long seed,
+                                       ObjectMapper objectMapper) throws IOException {
+        if (file.isBlank()) {
+            return new GeneratedReadingSource(providers, customers, seed);
+        }
+        return new RecordedReadingSource(Path.of(file), objectMapper);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.loadtester.metrics;
+
+/**
+ * Cumulative consumer-side measurements: the readings consumed and their end-to-end latency.
+ */
+public final class ConsumerSnapshot {
+
+    private final long consumed;
+
+    private final LatencySnapshot endToEnd;
+
+    /**
+     * Constructor for ConsumerSnapshot.
+     *
+     * @param consumed the number of readings consumed, successfully or not
+     * @param endToEnd the time from publish until persistence of the successfully consumed readings
+     */
+    public ConsumerSnapshot(long consumed, LatencySnapshot endToEnd) {
+        this.consumed = consumed;
+        this.endToEnd = endToEnd;
+    }
+
+    public long getConsumed() {
+        return consumed;
+    }
+
+    public LatencySnapshot getEndToEnd() {
+        return endToEnd;
+    }
+
+    /**
+     * Returns the measurements taken since an earlier snapshot.
+     *
+     * @param earlier the earlier snapshot
+     * @return the difference of the two snapshots
+     */
+    public ConsumerSnapshot minus(ConsumerSnapshot earlier) {
+        return new ConsumerSnapshot(consumed - earlier.consumed, endToEnd.minus(earlier.endToEnd));
+    }
+}
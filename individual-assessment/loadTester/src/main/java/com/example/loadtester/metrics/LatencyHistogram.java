@@ -0,0 +1,70 @@
+package com.example.loadtester.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram in microseconds.
+ * <p>
+ * Values below 16 µs get a bucket each; above that every power of two is split into 16 buckets,
+ * bounding the relative error of a percentile to about 6%. Values from 2^36 µs (about 19 hours) up
+ * are counted in the last bucket. Recording is a single atomic increment, so confirm callbacks and
+ * consumer threads can record concurrently without contention on a lock.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 36;
+
+    private static final double[] UPPER_BOUNDS_MICROS = upperBounds();
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_MICROS.length);
+
+    /**
+     * Records one latency.
+     *
+     * @param micros the latency in microseconds; negative values are recorded as zero
+     */
+    public void record(long micros) {
+        counts.incrementAndGet(index(Math.min(Math.max(micros, 0), (1L << MAX_EXPONENT) - 1)));
+    }
+
+    /**
+     * Returns the values recorded so far.
+     *
+     * @return a snapshot of the histogram
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencySnapshot(UPPER_BOUNDS_MICROS, copy);
+    }
+
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static double[] upperBounds() {
+        double[] bounds = new double[SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS];
+        for (int i = 0; i < SUB_BUCKETS; i++) {
+            bounds[i] = i + 1;
+        }
+        for (int exponent = SUB_BUCKET_BITS; exponent < MAX_EXPONENT; exponent++) {
+            for (int subBucket = 0; subBucket < SUB_BUCKETS; subBucket++) {
+                bounds[SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket] =
+                        (double) ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS));
+            }
+        }
+        return bounds;
+    }
+}
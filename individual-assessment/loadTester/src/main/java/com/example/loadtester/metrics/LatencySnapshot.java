@@ -0,0 +1,105 @@
+package com.example.loadtester.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bucketed latency distribution, either taken from a {@link LatencyHistogram} or scraped
+ * from a Prometheus histogram. Two snapshots of the same source can be subtracted to get the
+ * distribution of a single ramp step.
+ */
+public final class LatencySnapshot {
+
+    private final double[] upperBoundsMicros;
+
+    private final long[] counts;
+
+    /**
+     * Constructor for LatencySnapshot.
+     *
+     * @param upperBoundsMicros the ascending inclusive upper bound of each bucket, the last one possibly infinite
+     * @param counts the number of values in each bucket
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public LatencySnapshot(double[] upperBoundsMicros, long[] counts) {
+        if (upperBoundsMicros.length != counts.length) {
+            throw new IllegalArgumentException("Every bucket needs an upper bound");
+        }
+        this.upperBoundsMicros = upperBoundsMicros;
+        this.counts = counts;
+    }
+
+    /**
+     * Returns an empty distribution.
+     *
+     * @return a snapshot without buckets
+     */
+    public static LatencySnapshot empty() {
+        return new LatencySnapshot(new double[0], new long[0]);
+    }
+
+    /**
+     * Returns the number of values in the distribution.
+     *
+     * @return the total count
+     */
+    public long count() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the values recorded since an earlier snapshot of the same source.
+     *
+     * @param earlier the earlier snapshot
+     * @return the difference of the two distributions
+     * @throws IllegalArgumentException if the snapshots have different buckets
+     */
+    public LatencySnapshot minus(LatencySnapshot earlier) {
+        if (earlier.counts.length == 0) {
+            return this;
+        }
+        if (!Arrays.equals(upperBoundsMicros, earlier.upperBoundsMicros)) {
+            throw new IllegalArgumentException("Snapshots have different buckets");
+        }
+        long[] difference = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            difference[i] = Math.max(0, counts[i] - earlier.counts[i]);
+        }
+        return new LatencySnapshot(upperBoundsMicros, difference);
+    }
+
+    /**
+     * Returns a percentile, interpolated linearly inside its bucket.
+     * Values in an unbounded last bucket are reported at the bucket's lower bound.
+     *
+     * @param quantile the quantile between 0 and 1, e.g. 0.99
+     * @return the percentile in milliseconds, or NaN if the distribution is empty
+     */
+    public double percentileMillis(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                double lower = i == 0 ? 0 : upperBoundsMicros[i - 1];
+                double upper = upperBoundsMicros[i];
+                if (Double.isInfinite(upper)) {
+                    return lower / 1000;
+                }
+                double fraction = (double) (target - (cumulative - counts[i])) / counts[i];
+                return (lower + fraction * (upper - lower)) / 1000;
+            }
+        }
+        return upperBoundsMicros[upperBoundsMicros.length - 1] / 1000;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.loadtester.metrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Scrapes the consumer metrics of the electrical provider instances from their Prometheus endpoints.
+ * <p>
+ * Counters and histogram buckets are summed over all instances and all label sets, so a scaled-out
+ * consumer is measured as a whole. Histograms need
+ * {@code management.metrics.distribution.percentiles-histogram.smartmeter.pipeline=true} on the provider,
+ * which publishes the same buckets on every instance.
+ * </p>
+ */
+public class PrometheusScraper {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private final List<URI> endpoints;
+
+    /**
+     * Constructor for PrometheusScraper.
+     *
+     * @param endpoints the /actuator/prometheus URLs of the provider instances
+     */
+    public PrometheusScraper(List<URI> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Scrapes every instance and sums a counter and a histogram over them.
+     *
+     * @param counter the Prometheus name of the counter, e.g. {@code smartmeter_pipeline_consume_seconds_count}
+     * @param histogram the Prometheus name of the histogram without the {@code _bucket} suffix
+     * @return the summed counter and the summed histogram
+     * @throws IOException if an instance cannot be scraped
+     * @throws InterruptedException if interrupted while scraping
+     */
+    public ConsumerSnapshot scrape(String counter, String histogram) throws IOException, InterruptedException {
+        long counterValue = 0;
+        Map<Double, Long> cumulativeBuckets = new TreeMap<>();
+        String bucketPrefix = histogram + "_bucket{";
+        for (URI endpoint : endpoints) {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(endpoint).timeout(Duration.ofSeconds(5)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Scraping " + endpoint + " returned " + response.statusCode());
+            }
+            for (String line : response.body().split("\n")) {
+                if (line.startsWith(counter + "{") || line.startsWith(counter + " ")) {
+                    counterValue += (long) value(line);
+                } else if (line.startsWith(bucketPrefix)) {
+                    int le = line.indexOf("le=\"");
+                    String bound = line.substring(le + 4, line.indexOf('"', le + 4));
+                    double upperBound = bound.equals("+Inf") ? Double.POSITIVE_INFINITY : Double.parseDouble(bound);
+                    cumulativeBuckets.merge(upperBound, (long) value(line), Long::sum);
+                }
+            }
+        }
+        return new ConsumerSnapshot(counterValue, toSnapshot(cumulativeBuckets));
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    private static LatencySnapshot toSnapshot(Map<Double, Long> cumulativeBuckets) {
+        double[] upperBoundsMicros = new double[cumulativeBuckets.size()];
+        long[] counts = new long[cumulativeBuckets.size()];
+        int i = 0;
+        long previous = 0;
+        for (Map.Entry<Double, Long> bucket : cumulativeBuckets.entrySet()) {
+            upperBoundsMicros[i] = bucket.getKey() * 1_000_000;
+            counts[i] = bucket.getValue() - previous;
+            previous = bucket.getValue();
+            i++;
+        }
+        return new LatencySnapshot(upperBoundsMicros, counts);
+    }
+}
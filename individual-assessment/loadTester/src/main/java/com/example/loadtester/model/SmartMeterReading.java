@@ -0,0 +1,105 @@
+package com.example.loadtester.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Model class representing a smart meter reading as published to the citizen exchange.
+ * Its properties match the message the citizen service publishes, so the electrical provider
+ * consumes replayed readings exactly like live ones.
+ */
+public class SmartMeterReading {
+
+    private String id;
+
+    private String customerId;
+
+    private String providerId;
+
+    private Double currentConsumption;
+
+    private LocalDateTime readingTimestamp;
+
+    private boolean automatedEntryMethod;
+
+    private boolean alertFlag;
+
+    /**
+     * Default constructor.
+     */
+    public SmartMeterReading() {
+    }
+
+    /**
+     * Parameterized constructor.
+     *
+     * @param customerId the id of the customer
+     * @param providerId the id of the provider
+     * @param currentConsumption the cumulative consumption in kWh
+     * @param readingTimestamp the reading timestamp
+     * @param automatedEntryMethod whether the reading was taken automatically
+     */
+    public SmartMeterReading(String customerId, String providerId, Double currentConsumption,
+                             LocalDateTime readingTimestamp, boolean automatedEntryMethod) {
+        this.customerId = customerId;
+        this.providerId = providerId;
+        this.currentConsumption = currentConsumption;
+        this.readingTimestamp = readingTimestamp;
+        this.automatedEntryMethod = automatedEntryMethod;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public Double getCurrentConsumption() {
+        return currentConsumption;
+    }
+
+    public void setCurrentConsumption(Double currentConsumption) {
+        this.currentConsumption = currentConsumption;
+    }
+
+    public LocalDateTime getReadingTimestamp() {
+        return readingTimestamp;
+    }
+
+    public void setReadingTimestamp(LocalDateTime readingTimestamp) {
+        this.readingTimestamp = readingTimestamp;
+    }
+
+    public boolean isAutomatedEntryMethod() {
+        return automatedEntryMethod;
+    }
+
+    public void setAutomatedEntryMethod(boolean automatedEntryMethod) {
+        this.automatedEntryMethod = automatedEntryMethod;
+    }
+
+    public boolean isAlertFlag() {
+        return alertFlag;
+    }
+
+    public void setAlertFlag(boolean alertFlag) {
+        this.alertFlag = alertFlag;
+    }
+}
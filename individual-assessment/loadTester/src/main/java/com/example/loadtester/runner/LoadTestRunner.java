@@ -0,0 +1,205 @@
+package com.example.loadtester.runner;
+
+import com.example.loadtester.metrics.ConsumerSnapshot;
+import com.example.loadtester.metrics.LatencySnapshot;
+import com.example.loadtester.model.SmartMeterReading;
+import com.example.loadtester.source.ReadingSource;
+import com.example.loadtester.transport.ReadingTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the ramp: publishes readings at a fixed rate for a step, measures the step, and raises the rate
+ * until the consumers saturate.
+ * <p>
+ * Publishing is paced against {@link System#nanoTime()}; after a stall the runner does not burst to catch
+ * up, so a slow publisher shows up as a published rate below the target instead of as a spike. A step is
+ * saturated when the consumers complete less than {@code consumed-ratio} of the published rate while the
+ * queue grows, or when the end-to-end p99 exceeds {@code max-p99}. The report names the highest rate the
+ * consumers sustained, the figure to size provider instances with.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "loadtest.autostart", havingValue = "true", matchIfMissing = true)
+public class LoadTestRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final long MAX_CATCH_UP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ReadingTransport transport;
+
+    private final ReadingSource source;
+
+    private final double initialRate;
+
+    private final double rateStep;
+
+    private final double maxRate;
+
+    private final Duration stepDuration;
+
+    private final double consumedRatio;
+
+    private final Duration maxP99;
+
+    private final String reportFile;
+
+    /**
+     * Constructor for LoadTestRunner.
+     *
+     * @param transport the transport readings are published through
+     * @param source the source of the readings
+     * @param initialRate the rate of the first step, in readings per second
+     * @param rateStep the rate added after each unsaturated step
+     * @param maxRate the rate after which the ramp stops even if unsaturated
+     * @param stepDuration the duration of each step
+     * @param consumedRatio the share of the published rate the consumers must complete
+     * @param maxP99 the highest acceptable end-to-end p99
+     * @param reportFile the CSV file the steps are written to, or empty
+     */
+    public LoadTestRunner(ReadingTransport transport, ReadingSource source,
+                          @Value("${loadtest.initial-rate}") double initialRate,
+                          @Value("${loadtest.rate-step}") double rateStep,
+                          @Value("${loadtest.max-rate}") double maxRate,
+                          @Value("${loadtest.step-duration}") Duration stepDuration,
+                          @Value("${loadtest.saturation.consumed-ratio}") double consumedRatio,
+                          @Value("${loadtest.saturation.max-p99}") Duration maxP99,
+                          @Value("${loadtest.report.file}") String reportFile) {
+        if (initialRate <= 0 || rateStep <= 0) {
+            throw new IllegalArgumentException("loadtest.initial-rate and loadtest.rate-step must be positive");
+        }
+        this.transport = transport;
+        this.source = source;
+        this.initialRate = initialRate;
+        this.rateStep = rateStep;
+        this.maxRate = maxRate;
+        this.stepDuration = stepDuration;
+        this.consumedRatio = consumedRatio;
+        this.maxP99 = maxP99;
+        this.reportFile = reportFile;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        logger.info("Ramping from {}/s by {}/s every {}s up to {}/s",
+                initialRate, rateStep, stepDuration.toSeconds(), maxRate);
+        List<StepResult> results = new ArrayList<>();
+        for (double rate = initialRate; rate <= maxRate; rate += rateStep) {
+            StepResult result = runStep(rate);
+            results.add(result);
+            logger.info(result.toLine());
+            if (result.isSaturated() || result.isSourceExhausted()) {
+                break;
+            }
+        }
+        report(results);
+    }
+
+    private StepResult runStep(double rate) {
+        ConsumerSnapshot consumerBefore = transport.consumerSnapshot();
+        LatencySnapshot confirmBefore = transport.confirmLatency();
+        long failedBefore = transport.failedPublishes();
+        long depthBefore = transport.queueDepth();
+
+        long intervalNanos = (long) (1e9 / rate);
+        long start = System.nanoTime();
+        long end = start + stepDuration.toNanos();
+        long next = start;
+        long published = 0;
+        boolean exhausted = false;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            SmartMeterReading reading = source.next();
+            if (reading == null) {
+                exhausted = true;
+                break;
+            }
+            transport.publish(reading);
+            published++;
+            next += intervalNanos;
+            if (now - next > MAX_CATCH_UP_NANOS) {
+                next = now;
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        ConsumerSnapshot consumerAfter = transport.consumerSnapshot();
+        long depthAfter = transport.queueDepth();
+        LatencySnapshot confirm = transport.confirmLatency().minus(confirmBefore);
+        ConsumerSnapshot consumer = consumerBefore != null && consumerAfter != null
+                ? consumerAfter.minus(consumerBefore) : null;
+        LatencySnapshot endToEnd = consumer != null ? consumer.getEndToEnd() : LatencySnapshot.empty();
+
+        StepResult result = new StepResult(rate, published / elapsedSeconds,
+                consumer != null ? consumer.getConsumed() / elapsedSeconds : Double.NaN,
+                depthAfter, depthBefore >= 0 && depthAfter >= 0 ? depthAfter - depthBefore : 0,
+                endToEnd.percentileMillis(0.50), endToEnd.percentileMillis(0.95), endToEnd.percentileMillis(0.99),
+                confirm.percentileMillis(0.50), confirm.percentileMillis(0.99),
+                transport.failedPublishes() - failedBefore, exhausted);
+        result.setSaturation(saturation(result));
+        return result;
+    }
+
+    private String saturation(StepResult result) {
+        if (result.getConsumedRate() < consumedRatio * result.getPublishedRate() && result.getQueueGrowth() > 0) {
+            return "consumers completed " + Math.round(result.getConsumedRate()) + "/s of "
+                    + Math.round(result.getPublishedRate()) + "/s published";
+        }
+        if (Double.isNaN(result.getConsumedRate())
+                && result.getQueueGrowth() > (1 - consumedRatio) * result.getPublishedRate() * stepDuration.toSeconds()) {
+            return "queue grew by " + result.getQueueGrowth() + " readings";
+        }
+        if (result.getEndToEndP99() > maxP99.toMillis()) {
+            return "end-to-end p99 " + Math.round(result.getEndToEndP99()) + "ms above " + maxP99.toMillis() + "ms";
+        }
+        if (result.getPublishedRate() < consumedRatio * result.getTargetRate() && !result.isSourceExhausted()) {
+            return "publisher reached only " + Math.round(result.getPublishedRate()) + "/s, the load tester is the bottleneck";
+        }
+        return null;
+    }
+
+    private void report(List<StepResult> results) throws IOException {
+        StepResult lastSustained = null;
+        StepResult saturated = null;
+        for (StepResult result : results) {
+            if (result.isSaturated()) {
+                saturated = result;
+            } else {
+                lastSustained = result;
+            }
+        }
+        if (saturated != null) {
+            logger.info("Saturated at a target of {}/s ({}); highest sustained rate {}/s",
+                    Math.round(saturated.getTargetRate()), saturated.getSaturation(),
+                    lastSustained != null ? Math.round(lastSustained.getConsumedRate()) : 0);
+        } else {
+            logger.info("No saturation up to {}/s", results.isEmpty() ? 0 : Math.round(results.get(results.size() - 1).getTargetRate()));
+        }
+        if (!reportFile.isBlank()) {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Path.of(reportFile)))) {
+                writer.println(StepResult.CSV_HEADER);
+                results.forEach(result -> writer.println(result.toCsv()));
+            }
+            logger.info("Wrote the ramp report to {}", reportFile);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.loadtester.runner;
+
+import java.util.Locale;
+
+/**
+ * Measurements of one step of the ramp, taken over the step only.
+ */
+public class StepResult {
+
+    /**
+     * Header of the CSV report, matching {@link #toCsv()}.
+     */
+    static final String CSV_HEADER = "targetRate,publishedRate,consumedRate,queueDepth,queueGrowth,lagSeconds,"
+            + "e2eP50Ms,e2eP95Ms,e2eP99Ms,confirmP50Ms,confirmP99Ms,failedPublishes,saturation";
+
+    private final double targetRate;
+    private final double publishedRate;
+    private final double consumedRate;
+    private final long queueDepth;
+    private final long queueGrowth;
+    private final double endToEndP50;
+    private final double endToEndP95;
+    private final double endToEndP99;
+    private final double confirmP50;
+    private final double confirmP99;
+    private final long failedPublishes;
+    private final boolean sourceExhausted;
+    private String saturation;
+
+    /**
+     * Parameterized constructor. Rates are in readings per second and latencies in milliseconds;
+     * measurements that could not be taken are NaN.
+     *
+     * @param targetRate the rate the step aimed for
+     * @param publishedRate the rate actually published
+     * @param consumedRate the rate the consumers completed
+     * @param queueDepth the queue depth at the end of the step
+     * @param queueGrowth the change of the queue depth during the step
+     * @param endToEndP50 the median time from publish to persistence
+     * @param endToEndP95 the 95th percentile time from publish to persistence
+     * @param endToEndP99 the 99th percentile time from publish to persistence
+     * @param confirmP50 the median broker confirm latency
+     * @param confirmP99 the 99th percentile broker confirm latency
+     * @param failedPublishes the publishes nacked or returned during the step
+     * @param sourceExhausted whether the reading source ran out during the step
+     */
+    public StepResult(double targetRate, double publishedRate, double consumedRate, long queueDepth, long queueGrowth,
+                      double endToEndP50, double endToEndP95, double endToEndP99, double confirmP50, double confirmP99,
+                      long failedPublishes, boolean sourceExhausted) {
+        this.targetRate = targetRate;
+        this.publishedRate = publishedRate;
+        this.consumedRate = consumedRate;
+        this.queueDepth = queueDepth;
+        this.queueGrowth = queueGrowth;
+        this.endToEndP50 = endToEndP50;
+        this.endToEndP95 = endToEndP95;
+        this.endToEndP99 = endToEndP99;
+        this.confirmP50 = confirmP50;
+        this.confirmP99 = confirmP99;
+        this.failedPublishes = failedPublishes;
+        this.sourceExhausted = sourceExhausted;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public double getPublishedRate() {
+        return publishedRate;
+    }
+
+    public double getConsumedRate() {
+        return consumedRate;
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getQueueGrowth() {
+        return queueGrowth;
+    }
+
+    public double getEndToEndP99() {
+        return endToEndP99;
+    }
+
+    public boolean isSourceExhausted() {
+        return sourceExhausted;
+    }
+
+    /**
+     * Returns the time the consumers need to drain the queue at their current rate.
+     *
+     * @return the consumer lag in seconds, or NaN if the consumed rate is unknown or zero
+     */
+    public double getLagSeconds() {
+        return consumedRate > 0 ? queueDepth / consumedRate : Double.NaN;
+    }
+
+    public String getSaturation() {
+        return saturation;
+    }
+
+    public boolean isSaturated() {
+        return saturation != null;
+    }
+
+    void setSaturation(String saturation) {
+        this.saturation = saturation;
+    }
+
+    /**
+     * Formats the step as a line of the ramp report.
+     *
+     * @return the step's report line
+     */
+    public String toLine() {
+        return String.format(Locale.ROOT,
+                "target %8.0f/s published %8.0f/s consumed %8.0f/s | queue %8d (%+d, lag %.1fs) | "
+                        + "e2e p50 %.1fms p95 %.1fms p99 %.1fms | confirm p50 %.2fms p99 %.2fms | failed %d%s",
+                targetRate, publishedRate, consumedRate, queueDepth, queueGrowth, getLagSeconds(),
+                endToEndP50, endToEndP95, endToEndP99, confirmP50, confirmP99, failedPublishes,
+                saturation != null ? " | SATURATED: " + saturation : "");
+    }
+
+    /**
+     * Formats the step as a CSV row under {@link #CSV_HEADER}.
+     *
+     * @return the step's CSV row
+     */
+    public String toCsv() {
+        return String.format(Locale.ROOT, "%.0f,%.1f,%.1f,%d,%d,%.2f,%.2f,%.2f,%.2f,%.3f,%.3f,%d,%s",
+                targetRate, publishedRate, consumedRate, queueDepth, queueGrowth, getLagSeconds(),
+                endToEndP50, endToEndP95, endToEndP99, confirmP50, confirmP99, failedPublishes,
+                saturation != null ? "\"" + saturation + "\"" : "");
+    }
+}
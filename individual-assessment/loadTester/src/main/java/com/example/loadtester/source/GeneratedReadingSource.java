@@ -0,0 +1,64 @@
+package com.example.loadtester.source;
+
+import com.example.loadtester.model.SmartMeterReading;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Endless source of synthetic readings spread over a fixed population of customers.
+ * <p>
+ * Each customer's consumption only increases, so every reading passes the consumer's monotonic check.
+ * Customer IDs start with the epoch second of the run, like real ObjectIds, so successive runs against
+ * the same database never collide with the readings of an earlier run. Provider IDs are the ones the
+ * electrical provider's test data generator creates, so summaries can be queried for them.
+ * </p>
+ */
+public class GeneratedReadingSource implements ReadingSource {
+
+    private static final int PROVIDER_ID_TAG = 0x50524f56;
+
+    private final String[] providerIds;
+
+    private final int customers;
+
+    private final int runTag;
+
+    private final double[] consumption;
+
+    private final SplittableRandom random;
+
+    /**
+     * Constructor for GeneratedReadingSource.
+     *
+     * @param providers the number of providers the customers are spread over
+     * @param customers the number of customers
+     * @param seed the seed of the customer choice and consumption increments
+     * @throws IllegalArgumentException if a count is not positive
+     */
+    public GeneratedReadingSource(int providers, int customers, long seed) {
+        if (providers <= 0 || customers <= 0) {
+            throw new IllegalArgumentException("providers and customers must be positive");
+        }
+        this.providerIds = new String[providers];
+        for (int i = 0; i < providers; i++) {
+            providerIds[i] = objectId(PROVIDER_ID_TAG, i);
+        }
+        this.customers = customers;
+        this.runTag = (int) (System.currentTimeMillis() / 1000);
+        this.consumption = new double[customers];
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public synchronized SmartMeterReading next() {
+        int customer = random.nextInt(customers);
+        consumption[customer] += 0.001 + random.nextDouble(0.5);
+        return new SmartMeterReading(objectId(runTag, customer), providerIds[customer % providerIds.length],
+                consumption[customer], LocalDateTime.now(ZoneOffset.UTC), random.nextInt(20) != 0);
+    }
+
+    private static String objectId(int tag, long index) {
+        return String.format("%08x%016x", tag, index);
+    }
+}
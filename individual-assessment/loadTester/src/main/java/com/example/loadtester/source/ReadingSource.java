@@ -0,0 +1,20 @@
+package com.example.loadtester.source;
+
+import com.example.loadtester.model.SmartMeterReading;
+
+/**
+ * Stream of readings replayed by the load test runner.
+ */
+public interface ReadingSource extends AutoCloseable {
+
+    /**
+     * Returns the next reading to publish.
+     *
+     * @return the next reading, or null once a finite source is exhausted
+     */
+    SmartMeterReading next();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.loadtester.source;
+
+import com.example.loadtester.model.SmartMeterReading;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Source replaying recorded readings from a JSON lines file, one reading per line, in file order.
+ * <p>
+ * Lines are read lazily, so recordings larger than the heap can be replayed. The source is finite:
+ * the runner stops once the file is exhausted.
+ * </p>
+ */
+public class RecordedReadingSource implements ReadingSource {
+
+    private final ObjectMapper objectMapper;
+
+    private final BufferedReader reader;
+
+    /**
+     * Constructor for RecordedReadingSource.
+     *
+     * @param file the JSON lines file of readings
+     * @param objectMapper the mapper the lines are parsed with
+     * @throws IOException if the file cannot be opened
+     */
+    public RecordedReadingSource(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.reader = Files.newBufferedReader(file);
+    }
+
+    @Override
+    public synchronized SmartMeterReading next() {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line == null ? null : objectMapper.readValue(line, SmartMeterReading.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read recorded reading", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.loadtester.transport;
+
+import com.example.loadtester.metrics.ConsumerSnapshot;
+import com.example.loadtester.metrics.LatencyHistogram;
+import com.example.loadtester.metrics.LatencySnapshot;
+import com.example.loadtester.model.SmartMeterReading;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stand-in for the broker and the provider's consumers, for dry runs without the docker-compose stack.
+ * <p>
+ * Readings are serialized into an unbounded in-process queue drained by a fixed number of consumer threads.
+ * Each consumer deserializes a reading and then waits an exponentially distributed service time standing in
+ * for the Mongo round trips of the real consumer, so the stand-in saturates at roughly
+ * {@code consumers / serviceTime} readings per second. Sizing a provider instance means calibrating the
+ * service time against a real run and then ramping the stand-in with the consumer count in question.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "loadtest.transport", havingValue = "in-memory")
+public class InMemoryReadingTransport implements ReadingTransport {
+
+    private final ObjectMapper objectMapper;
+
+    private final long meanServiceNanos;
+
+    private final LinkedBlockingQueue<Envelope> queue = new LinkedBlockingQueue<>();
+
+    private final List<Thread> consumers = new ArrayList<>();
+
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+
+    private final LongAdder consumed = new LongAdder();
+
+    /**
+     * Constructor for InMemoryReadingTransport.
+     *
+     * @param objectMapper the mapper readings are serialized with, as the broker transport would
+     * @param consumerCount the number of consumer threads
+     * @param serviceTime the mean time a consumer spends on one reading
+     */
+    public InMemoryReadingTransport(ObjectMapper objectMapper,
+                                    @Value("${loadtest.in-memory.consumers}") int consumerCount,
+                                    @Value("${loadtest.in-memory.service-time}") Duration serviceTime) {
+        this.objectMapper = objectMapper;
+        this.meanServiceNanos = serviceTime.toNanos();
+        for (int i = 0; i < consumerCount; i++) {
+            Thread consumer = new Thread(this::consume, "stand-in-consumer-" + (i + 1));
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+
+    @Override
+    public void publish(SmartMeterReading reading) {
+        try {
+            queue.add(new Envelope(objectMapper.writeValueAsBytes(reading), System.nanoTime()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void consume() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Envelope envelope = queue.take();
+                objectMapper.readValue(envelope.body, SmartMeterReading.class);
+                double uniform = ThreadLocalRandom.current().nextDouble();
+                LockSupport.parkNanos((long) (-meanServiceNanos * Math.log(1 - uniform)));
+                endToEnd.record((System.nanoTime() - envelope.publishedNanos) / 1000);
+                consumed.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public ConsumerSnapshot consumerSnapshot() {
+        return new ConsumerSnapshot(consumed.sum(), endToEnd.snapshot());
+    }
+
+    @Override
+    public LatencySnapshot confirmLatency() {
+        // The in-process queue accepts a reading synchronously, there is nothing to confirm
+        return LatencySnapshot.empty();
+    }
+
+    @Override
+    public long failedPublishes() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        consumers.forEach(Thread::interrupt);
+    }
+
+    private static final class Envelope {
+        private final byte[] body;
+        private final long publishedNanos;
+
+        private Envelope(byte[] body, long publishedNanos) {
+            this.body = body;
+            this.publishedNanos = publishedNanos;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.loadtester.transport;
+
+import com.example.common.messaging.ReadingShards;
+import com.example.loadtester.metrics.ConsumerSnapshot;
+import com.example.loadtester.metrics.LatencyHistogram;
+import com.example.loadtester.metrics.LatencySnapshot;
+import com.example.loadtester.metrics.PrometheusScraper;
+import com.example.loadtester.model.SmartMeterReading;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transport publishing readings to the citizen exchange of a real broker, e.g. the docker-compose stack.
+ * <p>
+ * Publishes are confirmed asynchronously, so the publisher is never throttled by the round trip to the
+ * broker. Consumer lag is the total depth of the provider's shard queues; consumed counts and end-to-end latency are
+ * scraped from the provider instances, which time every reading from the publish timestamp header to its
+ * persistence.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "loadtest.transport", havingValue = "rabbit", matchIfMissing = true)
+public class RabbitReadingTransport implements ReadingTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RabbitReadingTransport.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final AmqpAdmin amqpAdmin;
+
+    private final PrometheusScraper scraper;
+
+    private final String exchangeName;
+
+    private final String routingKeyPrefix;
+
+    private final String queueName;
+
+    private final int shards;
+
+    private final LatencyHistogram confirmLatency = new LatencyHistogram();
+
+    private final LongAdder failedPublishes = new LongAdder();
+
+    /**
+     * Constructor for RabbitReadingTransport.
+     *
+     * @param rabbitTemplate the template with publisher confirms and returns enabled
+     * @param amqpAdmin the admin the queue depth is read through
+     * @param exchangeName the exchange the readings are published to
+     * @param routingKeyPrefix the prefix of the routing keys binding the provider's shard queues
+     * @param queueName the base name of the provider's shard queues
+     * @param shards the number of shard queues, as configured on the provider
+     * @param scrapeUrls the Prometheus endpoints of the provider instances
+     */
+    public RabbitReadingTransport(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin,
+                                  @Value("${rabbitmq.exchange.name}") String exchangeName,
+                                  @Value("${rabbitmq.routing.key-prefix}") String routingKeyPrefix,
+                                  @Value("${rabbitmq.queue.name}") String queueName,
+                                  @Value("${rabbitmq.shards}") int shards,
+                                  @Value("${loadtest.scrape-urls}") String[] scrapeUrls) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.amqpAdmin = amqpAdmin;
+        this.exchangeName = exchangeName;
+        this.routingKeyPrefix = routingKeyPrefix;
+        this.queueName = queueName;
+        this.shards = shards;
+        this.scraper = new PrometheusScraper(Arrays.stream(scrapeUrls).map(String::trim).map(URI::create).toList());
+        rabbitTemplate.setReturnsCallback(returned -> failedPublishes.increment());
+    }
+
+    @Override
+    public void publish(SmartMeterReading reading) {
+        long start = System.nanoTime();
+        CorrelationData correlationData = new CorrelationData();
+        correlationData.getFuture().whenComplete((confirm, failure) -> {
+            if (failure != null || !confirm.isAck()) {
+                failedPublishes.increment();
+            } else {
+                confirmLatency.record((System.nanoTime() - start) / 1000);
+            }
+        });
+        String routingKey = routingKeyPrefix + ReadingShards.shardOf(reading.getCustomerId(), shards);
+        rabbitTemplate.convertAndSend(exchangeName, routingKey, reading, message -> {
+            message.getMessageProperties().setHeader(PUBLISH_TIMESTAMP_HEADER, System.currentTimeMillis());
+            return message;
+        }, correlationData);
+    }
+
+    @Override
+    public long queueDepth() {
+        long depth = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            QueueInformation queue = amqpAdmin.getQueueInfo(queueName + "." + shard);
+            if (queue == null) {
+                return -1;
+            }
+            depth += queue.getMessageCount();
+        }
+        return depth;
+    }
+
+    @Override
+    public ConsumerSnapshot consumerSnapshot() {
+        try {
+            return scraper.scrape("smartmeter_pipeline_consume_seconds_count", "smartmeter_pipeline_end_to_end_seconds");
+        } catch (IOException e) {
+            logger.warn("Could not scrape the consumers: {}", e.toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public LatencySnapshot confirmLatency() {
+        return confirmLatency.snapshot();
+    }
+
+    @Override
+    public long failedPublishes() {
+        return failedPublishes.sum();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.loadtester.transport;
+
+import com.example.loadtester.metrics.ConsumerSnapshot;
+import com.example.loadtester.metrics.LatencySnapshot;
+import com.example.loadtester.model.SmartMeterReading;
+
+/**
+ * Path the load test runner publishes readings through, together with the measurements of its consumer side.
+ */
+public interface ReadingTransport extends AutoCloseable {
+
+    /**
+     * Header carrying the publish time in epoch milliseconds, the one the citizen publisher sets
+     * and the electrical provider measures queue dwell and end-to-end latency from.
+     */
+    String PUBLISH_TIMESTAMP_HEADER = "x-publish-timestamp";
+
+    /**
+     * Publishes a reading without waiting for the broker's confirmation.
+     *
+     * @param reading the reading to publish
+     */
+    void publish(SmartMeterReading reading);
+
+    /**
+     * Returns the number of readings waiting in the queue, the consumer lag.
+     *
+     * @return the queue depth, or -1 if it cannot be determined
+     */
+    long queueDepth();
+
+    /**
+     * Returns the cumulative consumer measurements.
+     *
+     * @return the consumer snapshot, or null if the consumers cannot be measured right now
+     */
+    ConsumerSnapshot consumerSnapshot();
+
+    /**
+     * Returns the cumulative time between publishing and the broker's confirmation.
+     *
+     * @return the confirm latency distribution
+     */
+    LatencySnapshot confirmLatency();
+
+    /**
+     * Returns the number of publishes that were nacked, failed or could not be routed to a queue.
+     *
+     * @return the cumulative number of failed publishes
+     */
+    long failedPublishes();
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.loadtester;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {"loadtest.autostart=false", "loadtest.transport=in-memory"})
+class LoadTesterApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}